@@ -0,0 +1,84 @@
+package com.library.benchmark;
+
+import com.library.search.Bm25BookIndex;
+import com.library.search.FuzzyBookIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in the in-memory book indexes behind {@code mode=relevance} and {@code mode=fuzzy}, by
+ * words from the generated titles and authors. Only the index is measured; loading the ranked
+ * books by ID is the same primary-key fetch for both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookIndexBenchmark {
+    
+    private static final int LIMIT = 20;
+    
+    private Bm25BookIndex bm25BookIndex;
+    private FuzzyBookIndex fuzzyBookIndex;
+    private String[] words;
+    
+    @Setup
+    public void setUp(LibraryState library) {
+        bm25BookIndex = library.bean(Bm25BookIndex.class);
+        fuzzyBookIndex = library.bean(FuzzyBookIndex.class);
+        JdbcTemplate jdbc = library.bean(JdbcTemplate.class);
+        List<String> values = jdbc.queryForList(
+            "SELECT title || ' ' || author FROM books ORDER BY book_id LIMIT 1000", String.class);
+        words = values.stream()
+            .flatMap(value -> Arrays.stream(value.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")))
+            .filter(word -> word.length() >= 4)
+            .distinct()
+            .toArray(String[]::new);
+    }
+    
+    /** Two words, so postings of both terms are scored and merged. */
+    @Benchmark
+    public List<Long> bm25Search() {
+        return bm25BookIndex.search(randomWord() + " " + randomWord(), LIMIT);
+    }
+    
+    /** One word with two adjacent letters swapped, two edits away from the indexed term. */
+    @Benchmark
+    public List<Long> fuzzySearch() {
+        return fuzzyBookIndex.search(misspell(randomWord()), LIMIT);
+    }
+    
+    @Benchmark
+    public List<Long> fuzzySearchExact() {
+        return fuzzyBookIndex.search(randomWord(), LIMIT);
+    }
+    
+    private String randomWord() {
+        return words[ThreadLocalRandom.current().nextInt(words.length)];
+    }
+    
+    private static String misspell(String word) {
+        int at = 1 + ThreadLocalRandom.current().nextInt(word.length() - 2);
+        char[] letters = word.toCharArray();
+        char swapped = letters[at];
+        letters[at] = letters[at + 1];
+        letters[at + 1] = swapped;
+        return new String(letters);
+    }
+}
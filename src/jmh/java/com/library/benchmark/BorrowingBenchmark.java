@@ -0,0 +1,55 @@
+package com.library.benchmark;
+
+import com.library.entity.BorrowingTransaction;
+import com.library.service.BorrowingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A borrow of a random book with copies on the shelf by a random member below the loan limit,
+ * returned straight away so stock and loan limits never run out. Each call is two transactions,
+ * and the loan, its return and two notifications stay in the tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BorrowingBenchmark {
+    
+    private BorrowingService borrowingService;
+    private long[] members;
+    private long[] books;
+    
+    @Setup
+    public void setUp(LibraryState library) {
+        borrowingService = library.bean(BorrowingService.class);
+        JdbcTemplate jdbc = library.bean(JdbcTemplate.class);
+        members = jdbc.queryForList(
+            "SELECT member_id FROM members m WHERE (SELECT COUNT(*) FROM borrowing_transactions t " +
+            "WHERE t.member_id = m.member_id AND t.status = 'BORROWED') < 5", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+        books = jdbc.queryForList("SELECT book_id FROM books WHERE available_copies > 0", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    @Benchmark
+    public BorrowingTransaction borrowAndReturn() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BorrowingTransaction borrowed = borrowingService.borrowBook(
+            books[random.nextInt(books.length)], members[random.nextInt(members.length)]);
+        return borrowingService.returnBook(borrowed.getTransactionId());
+    }
+}
@@ -0,0 +1,93 @@
+package com.library.benchmark;
+
+import com.library.LibraryManagementApplication;
+import com.library.testdata.LibraryDataGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application, without its web server, over an in-memory H2 database seeded by
+ * {@link LibraryDataGenerator} with {@code rows} books, {@code members} members and {@code loans}
+ * borrowing transactions with their fines and notifications. The data is generated while the
+ * context starts, after the schema exists and before the search indexes and caches load
+ * themselves on application ready. One context per fork, shared by its threads.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+    
+    @Param("10000")
+    public int rows;
+    
+    @Param("10000")
+    public int members;
+    
+    @Param("50000")
+    public int loans;
+    
+    private ConfigurableApplicationContext context;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        // Arguments, unlike builder properties, take precedence over application.properties
+        context = new SpringApplicationBuilder(LibraryManagementApplication.class, Seeding.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--benchmark.rows=" + rows,
+                "--benchmark.members=" + members,
+                "--benchmark.loans=" + loans,
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--library.diagnostics.slow-query-threshold=1h",
+                "--logging.level.root=WARN",
+                "--logging.level.com.library=WARN",
+                "--logging.level.org.springframework.web=WARN");
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    /** A uniformly random book ID between 1 and {@code rows}, the range the generator filled. */
+    public long randomBookId() {
+        return 1 + ThreadLocalRandom.current().nextInt(rows);
+    }
+    
+    /** A uniformly random member ID between 1 and {@code members}. */
+    public long randomMemberId() {
+        return 1 + ThreadLocalRandom.current().nextInt(members);
+    }
+    
+    static class Seeding {
+        
+        // Depends on the entity manager factory so the schema exists first
+        @Bean
+        LibraryDataGenerator.Summary libraryData(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+                                                 @Value("${benchmark.rows}") int rows,
+                                                 @Value("${benchmark.members}") int members,
+                                                 @Value("${benchmark.loans}") int loans) {
+            return LibraryDataGenerator.aLibrary()
+                .withBooks(rows)
+                .withMembers(members)
+                .withTransactions(loans)
+                .generate(dataSource);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.library.benchmark;
+
+import com.library.search.MemberIndex;
+import com.library.search.MemberIndexInitializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Candidate lookups in the member trigram index by a word of a generated name or a whole email,
+ * and full rebuilds of the index from the members table. Meant to be run with {@code members} in
+ * the millions; the index is built once at startup and lookups only read it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MemberIndexBenchmark {
+    
+    private MemberIndex memberIndex;
+    private MemberIndexInitializer memberIndexInitializer;
+    private String[] nameWords;
+    private String[] emails;
+    
+    @Setup
+    public void setUp(LibraryState library) {
+        memberIndex = library.bean(MemberIndex.class);
+        memberIndexInitializer = library.bean(MemberIndexInitializer.class);
+        JdbcTemplate jdbc = library.bean(JdbcTemplate.class);
+        nameWords = jdbc.queryForList("SELECT name FROM members ORDER BY member_id LIMIT 1000", String.class).stream()
+            .flatMap(name -> Arrays.stream(name.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")))
+            .filter(word -> word.length() >= MemberIndex.MIN_TERM_LENGTH)
+            .distinct()
+            .toArray(String[]::new);
+        emails = jdbc.queryForList("SELECT email FROM members ORDER BY member_id LIMIT 1000", String.class)
+            .toArray(String[]::new);
+    }
+    
+    /** A first name or surname, which common names make match a large share of members. */
+    @Benchmark
+    public RoaringBitmap candidatesByName() {
+        return memberIndex.candidates(randomTerm(nameWords));
+    }
+    
+    /** A whole email, which narrows to one member through many trigrams. */
+    @Benchmark
+    public RoaringBitmap candidatesByEmail() {
+        return memberIndex.candidates(randomTerm(emails));
+    }
+    
+    /** Reads every member in keyset pages and swaps in the new index, as at startup. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int rebuild() {
+        memberIndexInitializer.rebuild();
+        return memberIndex.size();
+    }
+    
+    private static String randomTerm(String[] terms) {
+        return terms[ThreadLocalRandom.current().nextInt(terms.length)];
+    }
+}
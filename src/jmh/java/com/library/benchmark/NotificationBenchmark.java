@@ -0,0 +1,49 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberRepository;
+import com.library.service.NotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/** Notification inserts for a member and book loaded once, so only the write is measured. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class NotificationBenchmark {
+    
+    private NotificationService notificationService;
+    private Member member;
+    private Book book;
+    
+    @Setup
+    public void setUp(LibraryState library) {
+        notificationService = library.bean(NotificationService.class);
+        member = library.bean(MemberRepository.class).findById(library.randomMemberId()).orElseThrow();
+        book = library.bean(BookRepository.class).findById(library.randomBookId()).orElseThrow();
+    }
+    
+    @Benchmark
+    public void sendBorrowingConfirmation() {
+        notificationService.sendBorrowingConfirmation(member, book);
+    }
+    
+    @Benchmark
+    public void sendOverdueNotice() {
+        notificationService.sendOverdueNotice(member, book, 3);
+    }
+}
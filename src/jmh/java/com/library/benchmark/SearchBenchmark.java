@@ -0,0 +1,72 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+import com.library.entity.Member;
+import com.library.service.BookService;
+import com.library.service.MemberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Book and member search by a random word taken from the generated titles and surnames, mostly
+ * served from the search caches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchBenchmark {
+    
+    private BookService bookService;
+    private MemberService memberService;
+    private String[] bookTerms;
+    private String[] memberTerms;
+    
+    @Setup
+    public void setUp(LibraryState library) {
+        bookService = library.bean(BookService.class);
+        memberService = library.bean(MemberService.class);
+        JdbcTemplate jdbc = library.bean(JdbcTemplate.class);
+        bookTerms = words(jdbc.queryForList("SELECT title FROM books ORDER BY book_id LIMIT 500", String.class));
+        memberTerms = words(jdbc.queryForList("SELECT name FROM members ORDER BY member_id LIMIT 500", String.class));
+    }
+    
+    @Benchmark
+    public List<Book> searchBooks() {
+        return bookService.searchBooks(randomTerm(bookTerms));
+    }
+    
+    @Benchmark
+    public List<Member> searchMembers() {
+        return memberService.searchMembers(randomTerm(memberTerms));
+    }
+    
+    /** The distinct words of four letters or more, so terms match a realistic share of rows. */
+    private static String[] words(List<String> values) {
+        return values.stream()
+            .flatMap(value -> Arrays.stream(value.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")))
+            .filter(word -> word.length() >= 4)
+            .distinct()
+            .toArray(String[]::new);
+    }
+    
+    private static String randomTerm(String[] terms) {
+        return terms[ThreadLocalRandom.current().nextInt(terms.length)];
+    }
+}
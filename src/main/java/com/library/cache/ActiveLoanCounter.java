@@ -0,0 +1,212 @@
+package com.library.cache;
+
+import com.library.repository.BorrowingTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-member count of BORROWED transactions, used for the borrowing limit check instead of a
+ * COUNT query on every borrow. A member's counter is loaded from the database on first use and
+ * then moved by {@link #tryAcquire} and {@link #release}; {@link #reconcile} corrects any drift.
+ * <p>
+ * A borrow or return that has moved, or will move, a counter but is not yet committed is in
+ * flight until {@link #settle} is called for it. The database cannot see it yet, so a member with
+ * anything in flight is neither reconciled nor evicted.
+ */
+@Component
+public class ActiveLoanCounter {
+    
+    private static final Logger log = LoggerFactory.getLogger(ActiveLoanCounter.class);
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+    
+    @Value("${library.loan-counter.max-members:100000}")
+    private int maxMembers = 100000;
+    
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    
+    /** One member's loans. Guarded by its own monitor; a retired counter has left the map and is not used again. */
+    private static final class Counter {
+        private int active;
+        private int inFlight;
+        private long version;
+        private boolean retired;
+        
+        Counter(int active) {
+            this.active = active;
+        }
+    }
+    
+    /**
+     * Reserves one loan slot if the member is below {@code limit}. The check and the increment
+     * happen under the member's counter lock, so concurrent borrows by one member cannot overshoot.
+     * A granted slot is in flight until {@link #settle}.
+     */
+    public boolean tryAcquire(Long memberId, int limit) {
+        while (true) {
+            Counter counter = counterFor(memberId);
+            synchronized (counter) {
+                if (counter.retired) {
+                    continue;
+                }
+                if (counter.active >= limit) {
+                    return false;
+                }
+                counter.active++;
+                counter.inFlight++;
+                counter.version++;
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Marks a return as in flight until {@link #settle}, loading the member's counter if it is not
+     * cached. Called before the return changes the loan, so a loaded count still includes it and
+     * the {@link #release} after commit takes it off exactly once; meanwhile the counter can be
+     * neither evicted nor reconciled, so no borrow loads a count that already excludes it.
+     */
+    public void hold(Long memberId) {
+        while (true) {
+            Counter counter = counterFor(memberId);
+            synchronized (counter) {
+                if (counter.retired) {
+                    continue;
+                }
+                counter.inFlight++;
+                counter.version++;
+                return;
+            }
+        }
+    }
+    
+    public void release(Long memberId) {
+        Counter counter = counters.get(memberId);
+        if (counter != null) {
+            synchronized (counter) {
+                if (counter.active > 0) {
+                    counter.active--;
+                }
+                counter.version++;
+            }
+        }
+    }
+    
+    /** Ends one in-flight borrow or return, after it committed or rolled back. */
+    public void settle(Long memberId) {
+        Counter counter = counters.get(memberId);
+        if (counter != null) {
+            synchronized (counter) {
+                if (counter.inFlight > 0) {
+                    counter.inFlight--;
+                }
+                counter.version++;
+            }
+        }
+    }
+    
+    public int size() {
+        return counters.size();
+    }
+    
+    /** Forgets a member's counter, unless a borrow or return is in flight; used when the member is deleted. */
+    public void invalidate(Long memberId) {
+        counters.computeIfPresent(memberId, (id, counter) -> retireIfIdle(counter, false) ? null : counter);
+    }
+    
+    @Scheduled(fixedDelayString = "${library.loan-counter.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        List<Long> memberIds = new ArrayList<>(counters.keySet());
+        int corrected = 0;
+        for (int from = 0; from < memberIds.size(); from += RECONCILE_CHUNK_SIZE) {
+            List<Long> chunk = memberIds.subList(from, Math.min(from + RECONCILE_CHUNK_SIZE, memberIds.size()));
+            // Snapshot before querying; members with work in flight are skipped, and counters that
+            // move during the sweep are left alone
+            Map<Long, Long> observed = new HashMap<>();
+            for (Long memberId : chunk) {
+                Counter counter = counters.get(memberId);
+                if (counter != null) {
+                    synchronized (counter) {
+                        if (counter.inFlight == 0 && !counter.retired) {
+                            observed.put(memberId, counter.version);
+                        }
+                    }
+                }
+            }
+            if (observed.isEmpty()) {
+                continue;
+            }
+            Map<Long, Integer> actual = new HashMap<>();
+            for (Object[] row : borrowingRepository.countActiveBorrowingsByMemberIds(new ArrayList<>(observed.keySet()))) {
+                actual.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+            for (Map.Entry<Long, Long> entry : observed.entrySet()) {
+                Counter counter = counters.get(entry.getKey());
+                if (counter == null) {
+                    continue;
+                }
+                int expected = actual.getOrDefault(entry.getKey(), 0);
+                synchronized (counter) {
+                    if (counter.version == entry.getValue() && counter.inFlight == 0 && counter.active != expected) {
+                        counter.active = expected;
+                        counter.version++;
+                        corrected++;
+                    }
+                }
+            }
+        }
+        if (corrected > 0) {
+            log.warn("Corrected {} drifted active-loan counters", corrected);
+        }
+    }
+    
+    private Counter counterFor(Long memberId) {
+        Counter counter = counters.get(memberId);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= maxMembers) {
+            evict();
+        }
+        // Counted outside the map so the query does not hold a map bin; a borrow in flight for this
+        // member would already have a counter in the map, which then wins
+        Counter loaded = new Counter((int) borrowingRepository.countActiveBorrowingsByMemberId(memberId));
+        Counter existing = counters.putIfAbsent(memberId, loaded);
+        return existing != null ? existing : loaded;
+    }
+    
+    // Members with no loans go first; a member with work in flight is never evicted, since a reload
+    // from the database could not see it
+    private void evict() {
+        int target = maxMembers - Math.max(1, maxMembers / 10);
+        counters.values().removeIf(counter -> retireIfIdle(counter, true));
+        Iterator<Counter> values = counters.values().iterator();
+        while (counters.size() > target && values.hasNext()) {
+            if (retireIfIdle(values.next(), false)) {
+                values.remove();
+            }
+        }
+    }
+    
+    private static boolean retireIfIdle(Counter counter, boolean onlyEmpty) {
+        synchronized (counter) {
+            if (counter.inFlight > 0 || (onlyEmpty && counter.active > 0)) {
+                return false;
+            }
+            counter.retired = true;
+            return true;
+        }
+    }
+}
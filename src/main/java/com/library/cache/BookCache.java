@@ -0,0 +1,38 @@
+package com.library.cache;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+
+/**
+ * Book entities by ID, for endpoints that hydrate pages of IDs coming from an in-memory index
+ * and for batch lookups.
+ */
+@Component
+public class BookCache extends EntityCache<Book> {
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Value("${library.book-cache.max-size:10000}")
+    private long maxSize = 10000;
+    
+    @PostConstruct
+    void init() {
+        build(maxSize);
+    }
+    
+    @Override
+    protected Iterable<Book> load(Collection<Long> ids) {
+        return bookRepository.findAllById(ids);
+    }
+    
+    @Override
+    protected Long idOf(Book book) {
+        return book.getBookId();
+    }
+}
@@ -0,0 +1,34 @@
+package com.library.cache;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/** Results of the substring search over book title, author and genre. */
+@Component
+public class BookSearchCache extends SearchResultCache<Book> {
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Override
+    protected List<Book> load(String term) {
+        return bookRepository.searchBooks(term);
+    }
+    
+    @Override
+    protected Long idOf(Book book) {
+        return book.getBookId();
+    }
+    
+    @Override
+    protected boolean matches(Book book, String term) {
+        // The search query passes the term to LIKE unescaped, so a wildcard may match anything
+        if (term.indexOf('%') >= 0 || term.indexOf('_') >= 0) {
+            return true;
+        }
+        return contains(book.getTitle(), term) || contains(book.getAuthor(), term) || contains(book.getGenre(), term);
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes size, hit, miss, load and eviction meters for the application's caches, tagged
+ * {@code cache=<name>}, and the number of members the active-loan counter tracks.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+    
+    @Autowired
+    private BookCache bookCache;
+    
+    @Autowired
+    private MemberCache memberCache;
+    
+    @Autowired
+    private BookSearchCache bookSearchCache;
+    
+    @Autowired
+    private MemberSearchCache memberSearchCache;
+    
+    @Autowired
+    private ActiveLoanCounter activeLoanCounter;
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, bookCache.cache(), "books");
+        CaffeineCacheMetrics.monitor(registry, memberCache.cache(), "members");
+        CaffeineCacheMetrics.monitor(registry, bookSearchCache.cache(), "bookSearch");
+        CaffeineCacheMetrics.monitor(registry, memberSearchCache.cache(), "memberSearch");
+        Gauge.builder("library.loan.counter.members", activeLoanCounter, ActiveLoanCounter::size)
+            .description("Members whose active loans are counted in memory")
+            .register(registry);
+    }
+}
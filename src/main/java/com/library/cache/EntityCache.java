@@ -0,0 +1,99 @@
+package com.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of entities by ID. Misses are loaded with IN-queries of at most
+ * {@link #LOAD_CHUNK_SIZE} IDs each; writers must {@link #invalidate} an entity once their change
+ * has committed.
+ */
+public abstract class EntityCache<T> {
+    
+    /** Keeps IN-lists well below what databases plan and bind efficiently. */
+    static final int LOAD_CHUNK_SIZE = 500;
+    
+    private Cache<Long, T> entities;
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    protected void build(long maxSize) {
+        entities = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+    
+    Cache<Long, T> cache() {
+        return entities;
+    }
+    
+    /** Returns the entities with the given IDs in the same order, skipping IDs that do not exist. */
+    public List<T> getAll(List<Long> ids) {
+        Map<Long, T> cached = entities.getAllPresent(ids);
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (!cached.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        Map<Long, T> found = new HashMap<>(cached);
+        if (!missing.isEmpty()) {
+            long generation = invalidations.get();
+            List<Long> loaded = new ArrayList<>(missing.size());
+            for (Set<Long> chunk : chunks(missing)) {
+                for (T entity : load(chunk)) {
+                    Long id = idOf(entity);
+                    found.put(id, entity);
+                    entities.put(id, entity);
+                    loaded.add(id);
+                }
+            }
+            // An entity invalidated while we were loading may have been read before its change
+            // committed; drop what we just cached rather than keep a stale copy around
+            if (invalidations.get() != generation) {
+                entities.invalidateAll(loaded);
+            }
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = found.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+    
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        entities.invalidate(id);
+    }
+    
+    protected abstract Iterable<T> load(Collection<Long> ids);
+    
+    protected abstract Long idOf(T entity);
+    
+    private static List<Set<Long>> chunks(Set<Long> ids) {
+        if (ids.size() <= LOAD_CHUNK_SIZE) {
+            return List.of(ids);
+        }
+        List<Set<Long>> chunks = new ArrayList<>();
+        Set<Long> chunk = new LinkedHashSet<>();
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == LOAD_CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new LinkedHashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
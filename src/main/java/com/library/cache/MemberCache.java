@@ -0,0 +1,35 @@
+package com.library.cache;
+
+import com.library.entity.Member;
+import com.library.repository.MemberRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+
+/** Member entities by ID, for batch lookups. */
+@Component
+public class MemberCache extends EntityCache<Member> {
+    
+    @Autowired
+    private MemberRepository memberRepository;
+    
+    @Value("${library.member-cache.max-size:10000}")
+    private long maxSize = 10000;
+    
+    @PostConstruct
+    void init() {
+        build(maxSize);
+    }
+    
+    @Override
+    protected Iterable<Member> load(Collection<Long> ids) {
+        return memberRepository.findAllById(ids);
+    }
+    
+    @Override
+    protected Long idOf(Member member) {
+        return member.getMemberId();
+    }
+}
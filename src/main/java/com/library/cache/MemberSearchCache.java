@@ -0,0 +1,63 @@
+package com.library.cache;
+
+import com.library.entity.Member;
+import com.library.repository.MemberRepository;
+import com.library.search.MemberIndex;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Results of the member search by name, email or phone. Terms long enough for the
+ * {@link MemberIndex} load only its candidates by ID; shorter ones fall back to a table scan.
+ */
+@Component
+public class MemberSearchCache extends SearchResultCache<Member> {
+    
+    private static final int BATCH_SIZE = 1000;
+    
+    @Autowired
+    private MemberRepository memberRepository;
+    
+    @Autowired
+    private MemberIndex memberIndex;
+    
+    @Override
+    protected List<Member> load(String term) {
+        RoaringBitmap candidates = memberIndex.candidates(term);
+        if (candidates == null) {
+            return memberRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrPhoneContainingIgnoreCase(term, term, term);
+        }
+        List<Member> members = new ArrayList<>();
+        List<Long> batch = new ArrayList<>(BATCH_SIZE);
+        IntIterator ids = candidates.getIntIterator();
+        while (ids.hasNext()) {
+            batch.add((long) ids.next());
+            if (batch.size() == BATCH_SIZE || !ids.hasNext()) {
+                for (Member member : memberRepository.findAllById(batch)) {
+                    // The index may offer members that hold every trigram of the term but not the term
+                    if (matches(member, term)) {
+                        members.add(member);
+                    }
+                }
+                batch.clear();
+            }
+        }
+        members.sort(Comparator.comparing(Member::getMemberId));
+        return members;
+    }
+    
+    @Override
+    protected Long idOf(Member member) {
+        return member.getMemberId();
+    }
+    
+    @Override
+    protected boolean matches(Member member, String term) {
+        return contains(member.getName(), term) || contains(member.getEmail(), term) || contains(member.getPhone(), term);
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** {@code /actuator/searchcache}: hit ratio, load time and evictions of the search result caches. */
+@Component
+@Endpoint(id = "searchcache")
+public class SearchCacheEndpoint {
+    
+    @Autowired
+    private BookSearchCache bookSearchCache;
+    
+    @Autowired
+    private MemberSearchCache memberSearchCache;
+    
+    @ReadOperation
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> caches = new LinkedHashMap<>();
+        caches.put("books", describe(bookSearchCache));
+        caches.put("members", describe(memberSearchCache));
+        return caches;
+    }
+    
+    private static Map<String, Object> describe(SearchResultCache<?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.size());
+        description.put("requests", stats.requestCount());
+        description.put("hitRatio", stats.hitRate());
+        description.put("loads", stats.loadCount());
+        description.put("loadFailures", stats.loadFailureCount());
+        description.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        description.put("evictions", stats.evictionCount());
+        return description;
+    }
+}
@@ -0,0 +1,168 @@
+package com.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of search results by lower-cased search term. The bound is on result rows, not
+ * terms, so a few broad terms cannot hold the whole table. Caffeine's TinyLFU admission keeps
+ * one-off terms from pushing out the popular ones. An entry older than {@code refresh-after} is
+ * still served while it reloads in the background, and {@code expire-after} caps how long an
+ * unread entry lives.
+ * <p>
+ * Writers call {@link #invalidate} once their change has committed. Only the terms the change can
+ * affect are dropped: those whose cached results hold the entity, found through an index from ID
+ * to terms, and those the entity's new state would match.
+ */
+public abstract class SearchResultCache<T> {
+    
+    @Value("${library.search-cache.max-rows:100000}")
+    private long maxRows = 100000;
+    
+    @Value("${library.search-cache.refresh-after:30s}")
+    private Duration refreshAfter = Duration.ofSeconds(30);
+    
+    @Value("${library.search-cache.expire-after:10m}")
+    private Duration expireAfter = Duration.ofMinutes(10);
+    
+    private LoadingCache<String, Entry<T>> results;
+    private final AtomicLong writes = new AtomicLong();
+    // Terms whose verified entries may hold each ID; may also name terms since dropped or reloaded
+    private final ConcurrentHashMap<Long, Set<String>> termsById = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+            .maximumWeight(maxRows)
+            .weigher((String term, Entry<T> entry) -> 1 + entry.rows.size())
+            .refreshAfterWrite(refreshAfter)
+            .expireAfterWrite(expireAfter)
+            .removalListener((String term, Entry<T> entry, RemovalCause cause) -> {
+                if (term != null && entry != null) {
+                    unindex(term, entry);
+                }
+            })
+            .recordStats()
+            .build(this::loadEntry);
+    }
+    
+    public List<T> get(String term) {
+        String key = term.toLowerCase(Locale.ROOT);
+        Entry<T> entry = results.get(key);
+        if (!entry.verified) {
+            // Index first, then check for writes: a write that committed while this entry loaded either
+            // shows in the count, and the entry is served once and not kept, or finds it in the index
+            index(key, entry);
+            if (writes.get() == entry.writesBefore) {
+                entry.verified = true;
+            } else {
+                results.asMap().remove(key, entry);
+            }
+        }
+        return entry.rows;
+    }
+    
+    /** Drops the terms affected by a committed change; {@code current} is null after a delete. */
+    public void invalidate(Long id, T current) {
+        writes.incrementAndGet();
+        Set<String> terms = termsById.remove(id);
+        if (terms != null) {
+            for (String term : terms) {
+                Entry<T> entry = results.asMap().get(term);
+                if (entry != null && entry.ids.contains(id)) {
+                    results.asMap().remove(term, entry);
+                }
+            }
+        }
+        if (current != null) {
+            results.asMap().forEach((term, entry) -> {
+                if (matches(current, term)) {
+                    results.asMap().remove(term, entry);
+                }
+            });
+        }
+    }
+    
+    public CacheStats stats() {
+        return results.stats();
+    }
+    
+    public long size() {
+        return results.estimatedSize();
+    }
+    
+    Cache<String, ?> cache() {
+        return results;
+    }
+    
+    protected abstract List<T> load(String term);
+    
+    protected abstract Long idOf(T row);
+    
+    /** Whether the search for the lower-cased {@code term} returns {@code row}. */
+    protected abstract boolean matches(T row, String term);
+    
+    /** Case-insensitive substring test against a lower-cased term. */
+    protected static boolean contains(String value, String term) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(term);
+    }
+    
+    private Entry<T> loadEntry(String term) {
+        long writesBefore = writes.get();
+        List<T> rows = load(term);
+        Set<Long> ids = new HashSet<>();
+        for (T row : rows) {
+            ids.add(idOf(row));
+        }
+        return new Entry<>(rows, ids, writesBefore);
+    }
+    
+    private void index(String term, Entry<T> entry) {
+        for (Long id : entry.ids) {
+            termsById.compute(id, (key, terms) -> {
+                Set<String> indexed = terms != null ? terms : new HashSet<>();
+                indexed.add(term);
+                return indexed;
+            });
+        }
+    }
+    
+    // Drops a removed entry's terms from the index unless the term's current entry still holds the ID
+    private void unindex(String term, Entry<T> removed) {
+        for (Long id : removed.ids) {
+            termsById.computeIfPresent(id, (key, terms) -> {
+                Entry<T> current = results.asMap().get(term);
+                if (current == null || !current.ids.contains(id)) {
+                    terms.remove(term);
+                }
+                return terms.isEmpty() ? null : terms;
+            });
+        }
+    }
+    
+    private static final class Entry<T> {
+        
+        private final List<T> rows;
+        private final Set<Long> ids;
+        private final long writesBefore;
+        private volatile boolean verified;
+        
+        Entry(List<T> rows, Set<Long> ids, long writesBefore) {
+            this.rows = rows;
+            this.ids = ids;
+            this.writesBefore = writesBefore;
+        }
+    }
+}
@@ -33,7 +33,7 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.setMaxAge(3600L);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsMapping("/**", configuration);
+        source.registerCorsConfiguration("/**", configuration);
         return source;
     }
 }
@@ -0,0 +1,36 @@
+package com.library.config;
+
+import com.library.diagnostics.QueryInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class DashboardConfig {
+    
+    @Value("${library.dashboard.pool-size:8}")
+    private int poolSize = 8;
+    
+    @Value("${library.dashboard.queue-capacity:200}")
+    private int queueCapacity = 200;
+    
+    /**
+     * Runs the sub-queries of a member dashboard side by side. The pool and its queue are bounded;
+     * once both are full the request thread runs the query itself, so a burst of dashboards
+     * slows down to sequential fetching instead of failing. Sub-queries count against the request
+     * that asked for the dashboard.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(QueryInspector::propagate);
+        return executor;
+    }
+}
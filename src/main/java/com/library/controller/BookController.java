@@ -1,11 +1,25 @@
 package com.library.controller;
 
+import com.library.dto.AutocompleteSuggestion;
+import com.library.dto.BatchResult;
+import com.library.dto.BookPage;
+import com.library.dto.FacetedSearchResult;
+import com.library.dto.RecommendedBook;
 import com.library.entity.Book;
+import com.library.latency.RecordLatency;
+import com.library.search.SearchMode;
 import com.library.service.BookService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,6 +34,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/books")
 @CrossOrigin(origins = "http://localhost:3000")
 @Tag(name = "Books", description = "Book management APIs")
+@RecordLatency
 public class BookController {
     
     @Autowired
@@ -31,11 +46,62 @@ public class BookController {
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successfully retrieved all books"),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<List<Book>> getAllBooks(WebRequest request) {
+        // Tag before reading, so a change that lands during the read moves the tag past the body
+        String eTag = ETags.of(bookService.getCatalogueVersion());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(bookService.getAllBooks());
+    }
+    
+    @Operation(
+        summary = "Retrieve selected fields of all books",
+        description = "Like the full list, but only the requested fields and the book ID are read from the database "
+            + "and returned, e.g. ?fields=title,author"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the books"),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllBookFields(
+        @Parameter(description = "Comma-separated field names", required = true, example = "title,author")
+        @RequestParam List<String> fields,
+        WebRequest request) {
+        String eTag = ETags.of(bookService.getCatalogueVersion(), fields);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().eTag(eTag).body(bookService.getAllBooks(fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @Operation(
+        summary = "Retrieve books by ID",
+        description = "Look up to " + BatchResult.MAX_IDS + " books in one request, e.g. ?ids=1,2,3. Books are returned "
+            + "in the order their IDs were given; IDs that do not exist are listed in missingIds"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the books"),
+        @ApiResponse(responseCode = "400", description = "No IDs or more than " + BatchResult.MAX_IDS + " IDs supplied")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResult<Book>> getBooksByIds(
+        @Parameter(description = "Comma-separated book IDs", required = true, example = "1,2,3")
+        @RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > BatchResult.MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bookService.getBooksByIds(ids));
     }
     
     @Operation(
@@ -44,15 +110,28 @@ public class BookController {
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successfully retrieved the book"),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Book not found"),
         @ApiResponse(responseCode = "400", description = "Invalid book ID supplied")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Book> getBookById(
         @Parameter(description = "ID of the book to retrieve", required = true, example = "1")
-        @PathVariable Long id) {
+        @PathVariable Long id,
+        WebRequest request) {
+        // Revalidation reads only the version column
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = bookService.getBookVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
         Optional<Book> book = bookService.getBookById(id);
-        return book.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return book.map(found -> ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found))
+            .orElse(ResponseEntity.notFound().build());
     }
     
     @Operation(
@@ -67,7 +146,7 @@ public class BookController {
     @PostMapping
     public ResponseEntity<Book> createBook(
         @Parameter(description = "Book object to be created", required = true)
-        @RequestBody Book book) {
+        @Valid @RequestBody Book book) {
         Book createdBook = bookService.saveBook(book);
         return ResponseEntity.status(201).body(createdBook);
     }
@@ -78,6 +157,8 @@ public class BookController {
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Book updated successfully"),
+        @ApiResponse(responseCode = "409", description = "Changed by another update while this one ran"),
+        @ApiResponse(responseCode = "412", description = "Changed since the ETag in If-Match"),
         @ApiResponse(responseCode = "404", description = "Book not found"),
         @ApiResponse(responseCode = "400", description = "Invalid book data provided")
     })
@@ -85,13 +166,27 @@ public class BookController {
     public ResponseEntity<Book> updateBook(
         @Parameter(description = "ID of the book to update", required = true, example = "1")
         @PathVariable Long id,
+        @Parameter(description = "ETag the update was based on; if the book has changed since, nothing is saved")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Parameter(description = "Updated book object", required = true)
-        @RequestBody Book book) {
-        if (!bookService.getBookById(id).isPresent()) {
+        @Valid @RequestBody Book book) {
+        Optional<Book> current = bookService.getBookById(id);
+        if (current.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        Long version = current.get().getVersion();
+        if (ifMatch != null && !ETags.matches(ifMatch, version)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(ETags.of(version)).build();
+        }
         book.setBookId(id);
-        return ResponseEntity.ok(bookService.saveBook(book));
+        // Saving against the version just read fails if another update commits in between
+        book.setVersion(version);
+        try {
+            Book saved = bookService.saveBook(book);
+            return ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(saved);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+        }
     }
     
     @Operation(
@@ -116,28 +211,132 @@ public class BookController {
     
     @Operation(
         summary = "Search books",
-        description = "Search books by title, author, or genre using keyword"
+        description = "Search books by title, author, or genre using keyword. " +
+                      "Mode 'substring' (default) returns every book containing the keyword; " +
+                      "mode 'fuzzy' tolerates misspelt title and author words and ranks results by edit distance; " +
+                      "mode 'relevance' ranks by BM25 over title, author, genre and ISBN"
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Search completed successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid search parameters")
     })
     @GetMapping("/search")
-    public List<Book> searchBooks(
+    public ResponseEntity<List<Book>> searchBooks(
         @Parameter(description = "Search keyword for title, author, or genre", required = true, example = "Harry Potter")
-        @RequestParam String keyword) {
-        return bookService.searchBooks(keyword);
+        @RequestParam String keyword,
+        @Parameter(description = "Search mode: substring, fuzzy or relevance", example = "relevance")
+        @RequestParam(defaultValue = "substring") String mode,
+        @Parameter(description = "Maximum number of results for ranked modes (1-100)", example = "20")
+        @RequestParam(defaultValue = "20") int limit) {
+        SearchMode searchMode;
+        try {
+            searchMode = SearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        switch (searchMode) {
+            case FUZZY:
+                return ResponseEntity.ok(bookService.searchBooksFuzzy(keyword, limit));
+            case RELEVANCE:
+                return ResponseEntity.ok(bookService.searchBooksByRelevance(keyword, limit));
+            default:
+                return ResponseEntity.ok(bookService.searchBooks(keyword));
+        }
+    }
+    
+    @Operation(
+        summary = "Autocomplete titles, authors and genres",
+        description = "Suggest titles, authors and genres starting with the typed prefix, or with a word inside them, " +
+                      "most common first. Served from memory; at most 10 suggestions are returned"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Suggestions returned"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocomplete(
+        @Parameter(description = "Text typed so far", required = true, example = "harry po")
+        @RequestParam String prefix,
+        @Parameter(description = "Maximum number of suggestions (1-10)", example = "10")
+        @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > 10) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bookService.autocomplete(prefix, limit));
+    }
+    
+    @Operation(
+        summary = "Browse books by facets",
+        description = "Filter books by genre, author, decade of publication and availability, and count matches per value. " +
+                      "Several values of one facet match any of them; different facets must all match. " +
+                      "Answered from in-memory bitmaps without querying the catalogue tables"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Matching books and facet counts returned"),
+        @ApiResponse(responseCode = "400", description = "Invalid paging parameters")
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedSearchResult> searchByFacets(
+        @Parameter(description = "Genres to include", example = "Fantasy")
+        @RequestParam(required = false) List<String> genre,
+        @Parameter(description = "Authors to include", example = "J.R.R. Tolkien")
+        @RequestParam(required = false) List<String> author,
+        @Parameter(description = "Decades of publication to include, e.g. 1990 for 1990-1999", example = "1950")
+        @RequestParam(required = false) List<Integer> decade,
+        @Parameter(description = "true for books with a copy on the shelf, false for books with none")
+        @RequestParam(required = false) Boolean available,
+        @Parameter(description = "Number of matching books to skip", example = "0")
+        @RequestParam(defaultValue = "0") int offset,
+        @Parameter(description = "Maximum number of books to return (1-100)", example = "20")
+        @RequestParam(defaultValue = "20") int limit,
+        @Parameter(description = "Maximum number of values per facet (1-100)", example = "10")
+        @RequestParam(defaultValue = "10") int facetLimit) {
+        if (offset < 0 || limit < 1 || limit > 100 || facetLimit < 1 || facetLimit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bookService.searchByFacets(genre, author, decade, available, offset, limit, facetLimit));
+    }
+    
+    @Operation(
+        summary = "Get co-borrow recommendations",
+        description = "Books most often borrowed by the members who borrowed this one, most similar first"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved recommendations"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<RecommendedBook>> getRecommendations(
+        @Parameter(description = "ID of the book to find similar books for", required = true, example = "1")
+        @PathVariable Long id,
+        @Parameter(description = "Maximum number of books to return (1-50)", example = "10")
+        @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > 50) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bookService.getRecommendations(id, limit));
     }
     
     @Operation(
         summary = "Get available books",
-        description = "Retrieve all books that are currently available for borrowing"
+        description = "Retrieve one page of the books that are currently available for borrowing, by book ID"
     )
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Successfully retrieved available books")
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved available books"),
+        @ApiResponse(responseCode = "400", description = "Invalid offset or limit")
     })
     @GetMapping("/available")
-    public List<Book> getAvailableBooks() {
-        return bookService.getAvailableBooks();
+    public ResponseEntity<BookPage> getAvailableBooks(
+        @Parameter(description = "Number of available books to skip", example = "0")
+        @RequestParam(defaultValue = "0") int offset,
+        @Parameter(description = "Maximum number of books to return (1-100)", example = "20")
+        @RequestParam(defaultValue = "20") int limit) {
+        if (offset < 0 || limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bookService.getAvailableBooks(offset, limit));
     }
 }
@@ -1,11 +1,19 @@
 package com.library.controller;
 
+import com.library.dto.BorrowingHistoryPage;
+import com.library.dto.TrendingBook;
 import com.library.entity.BorrowingTransaction;
+import com.library.latency.RecordLatency;
 import com.library.service.BorrowingService;
+import com.library.trending.TrendingWindow;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -17,6 +25,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/borrowing")
 @CrossOrigin(origins = "http://localhost:3000")
 @Tag(name = "Borrowing", description = "Book borrowing and return management APIs")
+@RecordLatency
 public class BorrowingController {
     
     @Autowired
@@ -35,6 +44,26 @@ public class BorrowingController {
         return borrowingService.getAllTransactions();
     }
     
+    @Operation(
+        summary = "Retrieve selected fields of all borrowing transactions",
+        description = "Like the full list, but only the requested fields and the transaction ID are read from the database "
+            + "and returned, e.g. ?fields=bookTitle,memberName,dueDate"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the borrowing transactions"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllTransactionFields(
+        @Parameter(description = "Comma-separated field names", required = true, example = "bookTitle,memberName,dueDate")
+        @RequestParam List<String> fields) {
+        try {
+            return ResponseEntity.ok(borrowingService.getAllTransactions(fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @Operation(
         summary = "Borrow a book",
         description = "Create a new borrowing transaction for a member to borrow a book"
@@ -94,6 +123,57 @@ public class BorrowingController {
         return borrowingService.getMemberBorrowings(memberId);
     }
     
+    @Operation(
+        summary = "Get member's full borrowing history",
+        description = "Retrieve a page of a member's borrowing transactions in every status, including archived ones, newest first. " +
+                      "Pass the returned nextCursor to fetch the following page."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved member history"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    @GetMapping("/member/{memberId}/history")
+    public ResponseEntity<BorrowingHistoryPage> getMemberHistory(
+        @Parameter(description = "ID of the member", required = true, example = "1")
+        @PathVariable Long memberId,
+        @Parameter(description = "Earliest borrow date to include", example = "2024-01-01")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @Parameter(description = "Latest borrow date to include", example = "2024-12-31")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @Parameter(description = "Cursor returned by the previous page")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Maximum number of entries to return (1-100)", example = "20")
+        @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(borrowingService.getMemberHistory(memberId, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @Operation(
+        summary = "Get trending books",
+        description = "Most borrowed books over the last hour, day or week, most borrowed first. Counts are estimates " +
+                      "kept in bounded memory since the application started; each comes with how far it may overshoot."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved trending books"),
+        @ApiResponse(responseCode = "400", description = "Unknown window or invalid list size")
+    })
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingBook>> getTrendingBooks(
+        @Parameter(description = "Window: hour, day or week", example = "day")
+        @RequestParam(defaultValue = "day") String window,
+        @Parameter(description = "Maximum number of books to return (1-100)", example = "10")
+        @RequestParam(defaultValue = "10") int limit) {
+        try {
+            TrendingWindow trendingWindow = TrendingWindow.valueOf(window.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(borrowingService.getTrendingBooks(trendingWindow, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @Operation(
         summary = "Get overdue transactions",
         description = "Retrieve all borrowing transactions that are past their due date"
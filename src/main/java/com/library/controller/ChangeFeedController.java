@@ -0,0 +1,54 @@
+package com.library.controller;
+
+import com.library.dto.ChangeFeedPage;
+import com.library.entity.ChangeLogEntry;
+import com.library.latency.RecordLatency;
+import com.library.service.ChangeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Locale;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "http://localhost:3000")
+@Tag(name = "Changes", description = "Delta sync of books and members")
+@RecordLatency
+public class ChangeFeedController {
+    
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    
+    @Operation(
+        summary = "Get changes since a token",
+        description = "Books and members created, updated or deleted after the given token, oldest first. Start from " +
+                      "since=0, then pass each page's nextToken; while hasMore is true the next page is ready at once. " +
+                      "Each entity appears at most once per page with its current state, or as DELETE once it is gone."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the changes"),
+        @ApiResponse(responseCode = "400", description = "Negative token, unknown type or invalid page size")
+    })
+    @GetMapping
+    public ResponseEntity<ChangeFeedPage> getChanges(
+        @Parameter(description = "Token from the previous page, or 0 for everything", example = "0")
+        @RequestParam(defaultValue = "0") long since,
+        @Parameter(description = "Only changes to this kind of entity: book or member", example = "book")
+        @RequestParam(required = false) String type,
+        @Parameter(description = "Maximum number of changes to return (1-500)", example = "100")
+        @RequestParam(defaultValue = "100") int limit) {
+        try {
+            ChangeLogEntry.EntityType entityType = type == null ? null
+                : ChangeLogEntry.EntityType.valueOf(type.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(changeFeedService.getChanges(since, entityType, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
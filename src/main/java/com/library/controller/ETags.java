@@ -0,0 +1,39 @@
+package com.library.controller;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Strong ETags built from entity and collection versions. A version only moves when the data does,
+ * so equal tags mean byte-for-byte equal responses.
+ */
+final class ETags {
+    
+    private ETags() {
+    }
+    
+    static String of(Object version) {
+        return "\"" + version + "\"";
+    }
+    
+    /**
+     * Tag for a {@code ?fields=} projection of a collection. The field list is part of the tag, so
+     * a projection never matches the full list or another projection of the same version. Repeats
+     * are dropped but the order is kept, as it is the order of the keys in each row.
+     */
+    static String of(Object version, List<String> fields) {
+        return of(version + ";" + String.join(",", new LinkedHashSet<>(fields)));
+    }
+    
+    /** Whether an If-Match header names the given version; weak tags never match, as RFC 9110 requires. */
+    static boolean matches(String ifMatch, Object version) {
+        String current = of(version);
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.library.controller;
 
+import com.library.latency.RecordLatency;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -15,6 +16,7 @@ import java.util.Map;
              methods = {RequestMethod.GET, RequestMethod.OPTIONS},
              allowedHeaders = "*")
 @Tag(name = "Health", description = "Application health monitoring APIs")
+@RecordLatency
 public class HealthController {
     
     @Operation(
@@ -1,11 +1,21 @@
 package com.library.controller;
 
+import com.library.dto.BatchResult;
+import com.library.dto.MemberDashboard;
 import com.library.entity.Member;
+import com.library.latency.RecordLatency;
+import com.library.service.MemberDashboardService;
 import com.library.service.MemberService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,22 +28,77 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api/members")
 @CrossOrigin(origins = "http://localhost:3000")
 @Tag(name = "Members", description = "Library member management APIs")
+@RecordLatency
 public class MemberController {
     
     @Autowired
     private MemberService memberService;
     
+    @Autowired
+    private MemberDashboardService memberDashboardService;
+    
     @Operation(
         summary = "Retrieve all members",
         description = "Get a list of all registered library members"
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successfully retrieved all members"),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping
-    public List<Member> getAllMembers() {
-        return memberService.getAllMembers();
+    public ResponseEntity<List<Member>> getAllMembers(WebRequest request) {
+        // Tag before reading, so a change that lands during the read moves the tag past the body
+        String eTag = ETags.of(memberService.getMembersVersion());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(memberService.getAllMembers());
+    }
+    
+    @Operation(
+        summary = "Retrieve selected fields of all members",
+        description = "Like the full list, but only the requested fields and the member ID are read from the database "
+            + "and returned, e.g. ?fields=name,email"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the members"),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllMemberFields(
+        @Parameter(description = "Comma-separated field names", required = true, example = "name,email")
+        @RequestParam List<String> fields,
+        WebRequest request) {
+        String eTag = ETags.of(memberService.getMembersVersion(), fields);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().eTag(eTag).body(memberService.getAllMembers(fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @Operation(
+        summary = "Retrieve members by ID",
+        description = "Look up to " + BatchResult.MAX_IDS + " members in one request, e.g. ?ids=1,2,3. Members are returned "
+            + "in the order their IDs were given; IDs that do not exist are listed in missingIds"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the members"),
+        @ApiResponse(responseCode = "400", description = "No IDs or more than " + BatchResult.MAX_IDS + " IDs supplied")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResult<Member>> getMembersByIds(
+        @Parameter(description = "Comma-separated member IDs", required = true, example = "1,2,3")
+        @RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > BatchResult.MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(memberService.getMembersByIds(ids));
     }
     
     @Operation(
@@ -42,15 +107,49 @@ public class MemberController {
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successfully retrieved the member"),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Member not found"),
         @ApiResponse(responseCode = "400", description = "Invalid member ID supplied")
     })
     @GetMapping("/{id}")
     public ResponseEntity<Member> getMemberById(
         @Parameter(description = "ID of the member to retrieve", required = true, example = "1")
-        @PathVariable Long id) {
+        @PathVariable Long id,
+        WebRequest request) {
+        // Revalidation reads only the version column
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = memberService.getMemberVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(ETags.of(version.get()))) {
+                return null;
+            }
+        }
         Optional<Member> member = memberService.getMemberById(id);
-        return member.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return member.map(found -> ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @Operation(
+        summary = "Get a member's dashboard",
+        description = "The member with their active loans, recent notifications, unread notification count and "
+            + "pending fines, fetched concurrently in one request"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved the dashboard"),
+        @ApiResponse(responseCode = "404", description = "Member not found"),
+        @ApiResponse(responseCode = "503", description = "The dashboard took longer than its timeout")
+    })
+    @GetMapping("/{id}/dashboard")
+    public ResponseEntity<MemberDashboard> getDashboard(
+        @Parameter(description = "ID of the member", required = true, example = "1")
+        @PathVariable Long id) {
+        try {
+            return memberDashboardService.getDashboard(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        } catch (QueryTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
     
     @Operation(
@@ -76,6 +175,8 @@ public class MemberController {
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Member updated successfully"),
+        @ApiResponse(responseCode = "409", description = "Changed by another update while this one ran"),
+        @ApiResponse(responseCode = "412", description = "Changed since the ETag in If-Match"),
         @ApiResponse(responseCode = "404", description = "Member not found"),
         @ApiResponse(responseCode = "400", description = "Invalid member data provided")
     })
@@ -83,13 +184,27 @@ public class MemberController {
     public ResponseEntity<Member> updateMember(
         @Parameter(description = "ID of the member to update", required = true, example = "1")
         @PathVariable Long id,
+        @Parameter(description = "ETag the update was based on; if the member has changed since, nothing is saved")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Parameter(description = "Updated member object", required = true)
         @RequestBody Member member) {
-        if (!memberService.getMemberById(id).isPresent()) {
+        Optional<Member> current = memberService.getMemberById(id);
+        if (current.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        Long version = current.get().getVersion();
+        if (ifMatch != null && !ETags.matches(ifMatch, version)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(ETags.of(version)).build();
+        }
         member.setMemberId(id);
-        return ResponseEntity.ok(memberService.saveMember(member));
+        // Saving against the version just read fails if another update commits in between
+        member.setVersion(version);
+        try {
+            Member saved = memberService.saveMember(member);
+            return ResponseEntity.ok().eTag(ETags.of(saved.getVersion())).body(saved);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
+        }
     }
     
     @Operation(
@@ -114,7 +229,7 @@ public class MemberController {
     
     @Operation(
         summary = "Search members",
-        description = "Search members by name"
+        description = "Search members whose name, email or phone contains the given text"
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Search completed successfully"),
@@ -122,7 +237,7 @@ public class MemberController {
     })
     @GetMapping("/search")
     public List<Member> searchMembers(
-        @Parameter(description = "Member name to search for", required = true, example = "John")
+        @Parameter(description = "Text to find in member name, email or phone", required = true, example = "John")
         @RequestParam String name) {
         return memberService.searchMembers(name);
     }
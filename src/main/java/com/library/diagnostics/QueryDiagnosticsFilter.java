@@ -0,0 +1,55 @@
+package com.library.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Opens a {@link QueryScope} around each HTTP request and files its statement count under the
+ * request's method and mapped URI pattern, e.g. {@code GET /api/books/{id}}. A request that
+ * prepares the same select {@code n-plus-one-threshold} times or more is logged as a likely N+1.
+ */
+@Component
+public class QueryDiagnosticsFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(QueryDiagnosticsFilter.class);
+    
+    private final QueryStats queryStats = new QueryStats();
+    
+    @Value("${library.diagnostics.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold = 5;
+    
+    public QueryStats stats() {
+        return queryStats;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryScope scope = QueryInspector.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+            Map.Entry<String, Integer> nPlusOne = scope.repeatedSelects(nPlusOneThreshold).entrySet().stream()
+                .findFirst()
+                .orElse(null);
+            if (nPlusOne != null) {
+                log.warn("Possible N+1 in {}: {} statements, the same select {} times: {}",
+                    endpoint, scope.statementCount(), nPlusOne.getValue(), nPlusOne.getKey());
+            }
+            queryStats.record(endpoint, scope, nPlusOne);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.library.diagnostics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+/**
+ * Sees every SQL statement Hibernate prepares and counts it in the {@link QueryScope} open on the
+ * current thread, if any; the statement itself passes through unchanged. Registered with the
+ * session factory as its {@code hibernate.session_factory.statement_inspector}.
+ * <p>
+ * Scopes live in a thread local. Work handed to another thread is only counted if the executor
+ * carries the scope across with {@link #propagate}.
+ */
+@Component
+public class QueryInspector implements StatementInspector, HibernatePropertiesCustomizer {
+    
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+    
+    /** Opens a scope on the current thread, nested in the one already open; close it in a finally block. */
+    public static QueryScope open() {
+        QueryScope scope = new QueryScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+    
+    /** The innermost scope open on the current thread, or null. */
+    public static QueryScope current() {
+        return CURRENT.get();
+    }
+    
+    /** Wraps a task so it counts into the scope open on the submitting thread; usable as a TaskDecorator. */
+    public static Runnable propagate(Runnable task) {
+        QueryScope scope = CURRENT.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            QueryScope previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+    
+    static void restore(QueryScope scope) {
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        QueryScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+    
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+}
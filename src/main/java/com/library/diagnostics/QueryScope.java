@@ -0,0 +1,92 @@
+package com.library.diagnostics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SQL statements Hibernate prepared while the scope was open on the current thread, or on a
+ * worker thread it was handed to. Scopes nest: a statement counts in every enclosing scope.
+ * Identical statement strings are counted together, up to {@link #MAX_DISTINCT} distinct ones.
+ */
+public final class QueryScope implements AutoCloseable {
+    
+    static final int MAX_DISTINCT = 1000;
+    
+    private final QueryScope parent;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger slowQueries = new AtomicInteger();
+    private final Map<String, AtomicInteger> bySql = new ConcurrentHashMap<>();
+    private boolean closed;
+    
+    QueryScope(QueryScope parent) {
+        this.parent = parent;
+    }
+    
+    public int statementCount() {
+        return statements.get();
+    }
+    
+    public int slowQueryCount() {
+        return slowQueries.get();
+    }
+    
+    /** Every distinct statement with how often it was prepared, most frequent first. */
+    public Map<String, Integer> statements() {
+        return repeated(1);
+    }
+    
+    /**
+     * Selects prepared at least {@code threshold} times, most frequent first. The same select
+     * issued over and over in one request is the signature of an N+1 fetch.
+     */
+    public Map<String, Integer> repeatedSelects(int threshold) {
+        Map<String, Integer> selects = new LinkedHashMap<>();
+        repeated(threshold).forEach((sql, count) -> {
+            if (sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+                selects.put(sql, count);
+            }
+        });
+        return selects;
+    }
+    
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            QueryInspector.restore(parent);
+        }
+    }
+    
+    void record(String sql) {
+        for (QueryScope scope = this; scope != null; scope = scope.parent) {
+            scope.statements.incrementAndGet();
+            AtomicInteger count = scope.bySql.get(sql);
+            if (count == null && scope.bySql.size() < MAX_DISTINCT) {
+                count = scope.bySql.computeIfAbsent(sql, key -> new AtomicInteger());
+            }
+            if (count != null) {
+                count.incrementAndGet();
+            }
+        }
+    }
+    
+    void recordSlowQuery() {
+        for (QueryScope scope = this; scope != null; scope = scope.parent) {
+            scope.slowQueries.incrementAndGet();
+        }
+    }
+    
+    private Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        bySql.entrySet().stream()
+            .filter(entry -> entry.getValue().get() >= threshold)
+            .sorted(Map.Entry.<String, AtomicInteger>comparingByValue(
+                (a, b) -> Integer.compare(b.get(), a.get())))
+            .forEach(entry -> counts.put(entry.getKey(), entry.getValue().get()));
+        return Collections.unmodifiableMap(counts);
+    }
+}
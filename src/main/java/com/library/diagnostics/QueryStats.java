@@ -0,0 +1,68 @@
+package com.library.diagnostics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Statements per request, slow queries and suspected N+1 fetches, by endpoint. */
+public class QueryStats {
+    
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    
+    /** Adds one finished request; {@code nPlusOne} is its most repeated select, or null if none repeated enough. */
+    public void record(String endpoint, QueryScope scope, Map.Entry<String, Integer> nPlusOne) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        int statements = scope.statementCount();
+        stats.requests.increment();
+        stats.statements.add(statements);
+        stats.maxStatements.accumulateAndGet(statements, Math::max);
+        stats.slowQueries.add(scope.slowQueryCount());
+        if (nPlusOne != null) {
+            stats.nPlusOneRequests.increment();
+            stats.lastNPlusOne.set(nPlusOne);
+        }
+    }
+    
+    public Map<String, Map<String, Object>> report() {
+        Map<String, Map<String, Object>> report = new TreeMap<>();
+        endpoints.forEach((name, stats) -> report.put(name, stats.describe()));
+        return report;
+    }
+    
+    public void reset() {
+        endpoints.clear();
+    }
+    
+    private static final class Endpoint {
+        
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final LongAdder slowQueries = new LongAdder();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+        private final AtomicReference<Map.Entry<String, Integer>> lastNPlusOne = new AtomicReference<>();
+        
+        Map<String, Object> describe() {
+            long count = requests.sum();
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("requests", count);
+            description.put("statements", statements.sum());
+            description.put("meanStatements", count == 0 ? 0.0 : (double) statements.sum() / count);
+            description.put("maxStatements", maxStatements.get());
+            description.put("slowQueries", slowQueries.sum());
+            description.put("nPlusOneRequests", nPlusOneRequests.sum());
+            Map.Entry<String, Integer> nPlusOne = lastNPlusOne.get();
+            if (nPlusOne != null) {
+                Map<String, Object> sample = new LinkedHashMap<>();
+                sample.put("sql", nPlusOne.getKey());
+                sample.put("executions", nPlusOne.getValue());
+                description.put("lastNPlusOne", sample);
+            }
+            return description;
+        }
+    }
+}
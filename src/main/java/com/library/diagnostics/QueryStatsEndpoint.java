@@ -0,0 +1,64 @@
+package com.library.diagnostics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/querystats}: statements per request by endpoint, with slow queries and
+ * suspected N+1 fetches, next to Hibernate's session factory statistics. DELETE clears both.
+ */
+@Component
+@Endpoint(id = "querystats")
+public class QueryStatsEndpoint {
+    
+    @Autowired
+    private QueryDiagnosticsFilter queryDiagnosticsFilter;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("endpoints", queryDiagnosticsFilter.stats().report());
+        stats.put("hibernate", describe(statistics()));
+        return stats;
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        queryDiagnosticsFilter.stats().reset();
+        statistics().clear();
+    }
+    
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    private static Map<String, Object> describe(Statistics statistics) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return description;
+        }
+        description.put("preparedStatements", statistics.getPrepareStatementCount());
+        description.put("queries", statistics.getQueryExecutionCount());
+        description.put("slowestQueryMillis", statistics.getQueryExecutionMaxTime());
+        description.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        description.put("entityLoads", statistics.getEntityLoadCount());
+        description.put("entityFetches", statistics.getEntityFetchCount());
+        description.put("collectionFetches", statistics.getCollectionFetchCount());
+        description.put("flushes", statistics.getFlushCount());
+        description.put("transactions", statistics.getTransactionCount());
+        description.put("optimisticFailures", statistics.getOptimisticFailureCount());
+        return description;
+    }
+}
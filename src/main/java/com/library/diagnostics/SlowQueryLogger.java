@@ -0,0 +1,58 @@
+package com.library.diagnostics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Wraps the application's data sources so every statement that takes {@code slow-query-threshold}
+ * or longer is logged at WARN with its bound parameters, and counted against the request that ran
+ * it. Hibernate's own slow query log omits the parameters, which are usually what made it slow.
+ */
+@Component
+public class SlowQueryLogger implements BeanPostProcessor, QueryExecutionListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLogger.class);
+    
+    @Value("${library.diagnostics.slow-query-threshold:200ms}")
+    private Duration threshold = Duration.ofMillis(200);
+    
+    private final DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(dataSource)
+            .name(beanName)
+            .listener(this)
+            .build();
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < threshold.toMillis()) {
+            return;
+        }
+        QueryScope scope = QueryInspector.current();
+        if (scope != null) {
+            scope.recordSlowQuery();
+        }
+        log.warn("Slow query: {}", entryCreator.getLogEntry(execInfo, queryInfoList, true, false, false));
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "A title, author or genre completing a typed prefix")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+    @Schema(description = "Suggested text as stored on the book", example = "Harry Potter and the Philosopher's Stone")
+    private String text;
+    
+    @Schema(description = "Field the suggestion comes from", example = "TITLE", allowableValues = {"TITLE", "AUTHOR", "GENRE"})
+    private String field;
+    
+    @Schema(description = "Number of books carrying this value", example = "1")
+    private int books;
+}
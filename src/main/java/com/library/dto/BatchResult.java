@@ -0,0 +1,38 @@
+package com.library.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+@Schema(description = "Entities looked up by a list of IDs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult<T> {
+    
+    /** Most IDs one batch lookup accepts. */
+    public static final int MAX_IDS = 1000;
+    
+    @Schema(description = "Entities found, in the order their IDs were requested")
+    private List<T> items;
+    
+    @Schema(description = "Requested IDs that do not exist, in request order", example = "[42]")
+    private List<Long> missingIds;
+    
+    public static <T> BatchResult<T> of(List<Long> requestedIds, List<T> found, Function<T, Long> idOf) {
+        Set<Long> foundIds = new HashSet<>();
+        for (T item : found) {
+            foundIds.add(idOf.apply(item));
+        }
+        Set<Long> missing = new LinkedHashSet<>(requestedIds);
+        missing.removeAll(foundIds);
+        return new BatchResult<>(found, new ArrayList<>(missing));
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.dto;
+
+import com.library.entity.Book;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Schema(description = "One page of books, by book ID, with the number of books across all pages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPage {
+    @Schema(description = "Number of books across all pages", example = "128")
+    private long total;
+    
+    @Schema(description = "Requested page of books, by book ID")
+    private List<Book> books;
+}
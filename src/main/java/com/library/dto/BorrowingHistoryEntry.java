@@ -0,0 +1,38 @@
+package com.library.dto;
+
+import com.library.entity.BorrowingTransaction;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Schema(description = "Borrowing history entry merged from active and archived transactions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingHistoryEntry {
+    @Schema(description = "Identifier of the transaction", example = "1")
+    private Long transactionId;
+    
+    @Schema(description = "ID of the borrowed book", example = "1")
+    private Long bookId;
+    
+    @Schema(description = "ID of the member who borrowed the book", example = "1")
+    private Long memberId;
+    
+    @Schema(description = "Date when the book was borrowed", example = "2024-11-01")
+    private LocalDate borrowDate;
+    
+    @Schema(description = "Due date for returning the book", example = "2024-11-15")
+    private LocalDate dueDate;
+    
+    @Schema(description = "Date when the book was returned", example = "2024-11-14")
+    private LocalDate returnDate;
+    
+    @Schema(description = "Status of the transaction", example = "RETURNED", allowableValues = {"BORROWED", "RETURNED", "OVERDUE"})
+    private BorrowingTransaction.TransactionStatus status;
+    
+    @Schema(description = "Whether the entry was read from the archive", example = "false")
+    private boolean archived;
+}
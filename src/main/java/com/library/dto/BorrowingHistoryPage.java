@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Schema(description = "One page of a member's borrowing history")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingHistoryPage {
+    @Schema(description = "History entries, newest first")
+    private List<BorrowingHistoryEntry> entries;
+    
+    @Schema(description = "Cursor to pass to fetch the next page, or null on the last page", example = "MjAyNC0xMS0wMTo0Mg")
+    private String nextCursor;
+}
@@ -0,0 +1,28 @@
+package com.library.dto;
+
+import com.library.entity.ChangeLogEntry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "Latest change to one book or member within a change-feed page")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedEntry {
+    @Schema(description = "Version of the change; versions only ever increase", example = "1042")
+    private long version;
+    
+    @Schema(description = "Kind of entity that changed", example = "BOOK")
+    private ChangeLogEntry.EntityType type;
+    
+    @Schema(description = "ID of the book or member", example = "7")
+    private Long id;
+    
+    @Schema(description = "UPSERT if the entity was created or updated, DELETE if it is gone", example = "UPSERT")
+    private ChangeLogEntry.Operation operation;
+    
+    @Schema(description = "Current state of the book or member; absent for a DELETE")
+    private Object data;
+}
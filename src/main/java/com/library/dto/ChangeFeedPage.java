@@ -0,0 +1,22 @@
+package com.library.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Schema(description = "One page of the change feed, oldest change first")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedPage {
+    @Schema(description = "Changes after the requested token, at most one per entity")
+    private List<ChangeFeedEntry> changes;
+    
+    @Schema(description = "Token to pass as since= on the next request", example = "1042")
+    private long nextToken;
+    
+    @Schema(description = "Whether more changes are already waiting after nextToken", example = "false")
+    private boolean hasMore;
+}
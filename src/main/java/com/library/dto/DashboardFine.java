@@ -0,0 +1,31 @@
+package com.library.dto;
+
+import com.library.entity.Fine;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Schema(description = "A fine the member still owes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardFine {
+    @Schema(description = "Identifier of the fine", example = "1")
+    private Long fineId;
+    
+    @Schema(description = "Amount owed", example = "1.50")
+    private BigDecimal amount;
+    
+    @Schema(description = "Why the fine was charged", example = "Overdue return")
+    private String reason;
+    
+    @Schema(description = "When the fine was charged", example = "2024-11-18T09:30:00")
+    private LocalDateTime transactionDate;
+    
+    public static DashboardFine from(Fine fine) {
+        return new DashboardFine(fine.getFineId(), fine.getAmount(), fine.getReason(), fine.getTransactionDate());
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.dto;
+
+import com.library.entity.BorrowingTransaction;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Schema(description = "A book the member has out")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardLoan {
+    @Schema(description = "Identifier of the transaction", example = "1")
+    private Long transactionId;
+    
+    @Schema(description = "ID of the borrowed book", example = "1")
+    private Long bookId;
+    
+    @Schema(description = "Title of the borrowed book", example = "The Great Gatsby")
+    private String title;
+    
+    @Schema(description = "Date when the book was borrowed", example = "2024-11-01")
+    private LocalDate borrowDate;
+    
+    @Schema(description = "Due date for returning the book", example = "2024-11-15")
+    private LocalDate dueDate;
+    
+    /** Expects the transaction's book to be loaded. */
+    public static DashboardLoan from(BorrowingTransaction transaction) {
+        return new DashboardLoan(transaction.getTransactionId(), transaction.getBook().getBookId(),
+            transaction.getBook().getTitle(), transaction.getBorrowDate(), transaction.getDueDate());
+    }
+}
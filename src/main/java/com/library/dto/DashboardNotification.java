@@ -0,0 +1,34 @@
+package com.library.dto;
+
+import com.library.entity.Notification;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Schema(description = "A notification sent to the member")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardNotification {
+    @Schema(description = "Identifier of the notification", example = "1")
+    private Long notificationId;
+    
+    @Schema(description = "Notification text", example = "Your book 'Dune' is 3 days overdue.")
+    private String message;
+    
+    @Schema(description = "Kind of notification", example = "OVERDUE_NOTICE")
+    private Notification.NotificationType type;
+    
+    @Schema(description = "When the notification was sent", example = "2024-11-18T09:30:00")
+    private LocalDateTime dateSent;
+    
+    @Schema(description = "Whether the member has read it", example = "false")
+    private boolean read;
+    
+    public static DashboardNotification from(Notification notification) {
+        return new DashboardNotification(notification.getNotificationId(), notification.getMessage(),
+            notification.getType(), notification.getDateSent(), notification.isRead());
+    }
+}
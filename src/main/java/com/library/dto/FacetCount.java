@@ -0,0 +1,18 @@
+package com.library.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "Number of matching books carrying one facet value")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+    @Schema(description = "Facet value", example = "Fantasy")
+    private String value;
+    
+    @Schema(description = "Number of matching books with this value", example = "42")
+    private long count;
+}
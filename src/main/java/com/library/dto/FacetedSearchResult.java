@@ -0,0 +1,24 @@
+package com.library.dto;
+
+import com.library.entity.Book;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "One page of books matching the facet filters, with facet counts over all matches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResult {
+    @Schema(description = "Number of books matching the filters", example = "128")
+    private long total;
+    
+    @Schema(description = "Requested page of matching books, by book ID")
+    private List<Book> books;
+    
+    @Schema(description = "Counts per value for the genre, author, decade and availability facets, largest first")
+    private Map<String, List<FacetCount>> facets;
+}
@@ -0,0 +1,33 @@
+package com.library.dto;
+
+import com.library.entity.Member;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(description = "Everything the member page shows, fetched in one request")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberDashboard {
+    @Schema(description = "The member")
+    private Member member;
+    
+    @Schema(description = "Books the member has out, earliest due first")
+    private List<DashboardLoan> activeLoans;
+    
+    @Schema(description = "Most recent notifications, newest first")
+    private List<DashboardNotification> recentNotifications;
+    
+    @Schema(description = "Number of unread notifications", example = "3")
+    private long unreadNotifications;
+    
+    @Schema(description = "Fines not yet paid or waived")
+    private List<DashboardFine> pendingFines;
+    
+    @Schema(description = "Sum of the pending fines", example = "4.50")
+    private BigDecimal pendingFinesTotal;
+}
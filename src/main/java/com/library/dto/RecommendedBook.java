@@ -0,0 +1,22 @@
+package com.library.dto;
+
+import com.library.entity.Book;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "A book often borrowed by the same members as another book")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendedBook {
+    @Schema(description = "The recommended book")
+    private Book book;
+    
+    @Schema(description = "Cosine similarity of the two books' borrowers, from 0 to 1", example = "0.42")
+    private double score;
+    
+    @Schema(description = "Number of members who borrowed both books", example = "17")
+    private int sharedBorrowers;
+}
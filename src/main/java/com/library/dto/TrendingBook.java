@@ -0,0 +1,22 @@
+package com.library.dto;
+
+import com.library.entity.Book;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "A book on the trending list with its estimated number of borrows in the window")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingBook {
+    @Schema(description = "The borrowed book")
+    private Book book;
+    
+    @Schema(description = "Estimated number of borrows in the window; never below the true number", example = "42")
+    private long borrows;
+    
+    @Schema(description = "How far the estimate may exceed the true number of borrows", example = "0")
+    private long maxOverestimate;
+}
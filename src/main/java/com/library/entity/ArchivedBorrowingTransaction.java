@@ -0,0 +1,52 @@
+package com.library.entity;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * Returned borrowing transaction moved out of {@code borrowing_transactions} by the archiver.
+ * Rows keep their original transaction ID and store book and member as plain IDs so that
+ * the archive stays append-only and independent of later catalogue changes.
+ */
+@Schema(description = "Archived borrowing transaction that has been moved out of the active table")
+@Entity
+@Table(name = "borrowing_transactions_archive",
+       indexes = @Index(name = "idx_archive_member_borrow_date", columnList = "member_id, borrow_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBorrowingTransaction {
+    @Schema(description = "Original identifier of the transaction", example = "1")
+    @Id
+    private Long transactionId;
+    
+    @Schema(description = "ID of the borrowed book", example = "1")
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+    
+    @Schema(description = "ID of the member who borrowed the book", example = "1")
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+    
+    @Schema(description = "Date when the book was borrowed", example = "2024-11-01")
+    @Column(nullable = false)
+    private LocalDate borrowDate;
+    
+    @Schema(description = "Due date for returning the book", example = "2024-11-15")
+    private LocalDate dueDate;
+    
+    @Schema(description = "Date when the book was returned", example = "2024-11-14")
+    private LocalDate returnDate;
+    
+    @Schema(description = "Status of the transaction at the time it was archived", example = "RETURNED")
+    @Enumerated(EnumType.STRING)
+    private BorrowingTransaction.TransactionStatus status;
+    
+    @Schema(description = "Date when the transaction was archived", example = "2025-03-01")
+    @Column(nullable = false)
+    private LocalDate archivedDate;
+}
@@ -2,6 +2,9 @@ package com.library.entity;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -19,10 +22,12 @@ public class Book {
     private Long bookId;
     
     @Schema(description = "Title of the book", example = "The Great Gatsby", required = true)
+    @NotBlank
     @Column(nullable = false)
     private String title;
     
     @Schema(description = "Author of the book", example = "F. Scott Fitzgerald", required = true)
+    @NotBlank
     @Column(nullable = false)
     private String author;
     
@@ -37,10 +42,16 @@ public class Book {
     private Integer yearPublished;
     
     @Schema(description = "Number of copies currently available for borrowing", example = "3", required = true)
+    @NotNull
+    @Min(0)
     @Column(nullable = false)
     private Integer availableCopies;
     
     @Schema(description = "Total number of copies owned by the library", example = "5", required = true)
     @Column(nullable = false)
     private Integer totalCopies;
+    
+    @Schema(description = "Incremented on every change; the book's ETag", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    @Version
+    private Long version;
 }
@@ -9,7 +9,8 @@ import java.time.LocalDate;
 
 @Schema(description = "Borrowing transaction entity representing a book borrowing record")
 @Entity
-@Table(name = "borrowing_transactions")
+@Table(name = "borrowing_transactions",
+       indexes = @Index(name = "idx_borrowing_member_borrow_date", columnList = "member_id, borrow_date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,46 @@
+package com.library.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One committed change to a book or member. The change ID is the version clients sync from; a
+ * delete leaves a DELETE entry behind as its tombstone, since the row itself is gone.
+ */
+@Entity
+@Table(name = "change_log",
+       indexes = @Index(name = "idx_change_log_type_change", columnList = "entity_type, change_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+    // Assigned by ChangeFeedService in the order changes start
+    @Id
+    @Column(name = "change_id")
+    private Long changeId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private EntityType entityType;
+    
+    @Column(nullable = false)
+    private Long entityId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+    
+    @Column(nullable = false)
+    private LocalDateTime changedAt = LocalDateTime.now();
+    
+    public enum EntityType {
+        BOOK, MEMBER
+    }
+    
+    public enum Operation {
+        UPSERT, DELETE
+    }
+}
@@ -40,6 +40,10 @@ public class Member {
     @Schema(description = "Date when the member registered", example = "2024-01-15", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDate registrationDate = LocalDate.now();
     
+    @Schema(description = "Incremented on every change; the member's ETag", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    @Version
+    private Long version;
+    
     public enum MembershipStatus {
         ACTIVE, SUSPENDED, EXPIRED
     }
@@ -0,0 +1,28 @@
+package com.library.latency;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/** Times methods marked {@link RecordLatency}, including those that throw. */
+@Aspect
+@Component
+public class LatencyAspect {
+    
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+    
+    @Around("@within(com.library.latency.RecordLatency) || @annotation(com.library.latency.RecordLatency)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        LatencyRecorder.Series series = latencyRecorder.series(((MethodSignature) joinPoint.getSignature()).getMethod());
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            series.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.latency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+/**
+ * {@code /actuator/latency}: percentile distributions of the last interval and since the last
+ * reset, for every method marked {@link RecordLatency}; {@code /actuator/latency/{name}} for one.
+ * DELETE starts every series afresh.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+    
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+    
+    @ReadOperation
+    public Map<String, Map<String, Object>> latencies() {
+        return latencyRecorder.report();
+    }
+    
+    @ReadOperation
+    public Map<String, Object> latency(@Selector String name) {
+        return latencyRecorder.report(name);
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        latencyRecorder.reset();
+    }
+}
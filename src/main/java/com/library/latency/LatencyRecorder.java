@@ -0,0 +1,160 @@
+package com.library.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency distributions per named series, in nanoseconds. Each series writes into an HdrHistogram
+ * {@link Recorder}: recording is wait-free and allocates nothing, so it can sit on every request.
+ * Every {@code interval-ms} the recorder's histogram is swapped for an empty one; the swapped-out
+ * histogram becomes the series' last interval and is added to its running total.
+ * <p>
+ * Histograms span 1 ns to {@code max-value} at {@code significant-digits} digits of precision;
+ * a fixed range keeps recording cheaper than an auto-resizing one, and anything slower is
+ * counted at {@code max-value}. At the defaults a series costs about 30 KB per histogram.
+ */
+@Component
+public class LatencyRecorder {
+    
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99, 100.0};
+    
+    @Value("${library.latency.max-value:60s}")
+    private Duration maxValue = Duration.ofSeconds(60);
+    
+    @Value("${library.latency.significant-digits:2}")
+    private int significantDigits = 2;
+    
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private final Map<Method, Series> seriesByMethod = new ConcurrentHashMap<>();
+    
+    /** The series for a method, named {@code SimpleClassName.method}; overloads share one. */
+    public Series series(Method method) {
+        Series found = seriesByMethod.get(method);
+        if (found == null) {
+            found = seriesByMethod.computeIfAbsent(method,
+                key -> series(key.getDeclaringClass().getSimpleName() + "." + key.getName()));
+        }
+        return found;
+    }
+    
+    public Series series(String name) {
+        Series found = series.get(name);
+        return found != null ? found : series.computeIfAbsent(name, key -> new Series(maxValue.toNanos(), significantDigits));
+    }
+    
+    /** Closes the current interval of every series and starts the next. */
+    @Scheduled(fixedRateString = "${library.latency.interval-ms:10000}")
+    public synchronized void rollInterval() {
+        for (Series each : series.values()) {
+            each.roll();
+        }
+    }
+    
+    /** Last interval and running total of every series, by name. */
+    public synchronized Map<String, Map<String, Object>> report() {
+        Map<String, Map<String, Object>> report = new TreeMap<>();
+        series.forEach((name, each) -> report.put(name, each.describe()));
+        return report;
+    }
+    
+    /** Last interval and running total of one series, or null if nothing was recorded under the name. */
+    public synchronized Map<String, Object> report(String name) {
+        Series found = series.get(name);
+        return found != null ? found.describe() : null;
+    }
+    
+    /** Empties every series, including what has been recorded in the current interval. */
+    public synchronized void reset() {
+        for (Series each : series.values()) {
+            each.reset();
+        }
+    }
+    
+    public static final class Series {
+        
+        private final long maxValue;
+        private final Recorder recorder;
+        private final Histogram total;
+        private Histogram lastInterval;
+        
+        Series(long maxValue, int significantDigits) {
+            this.maxValue = maxValue;
+            recorder = new Recorder(1, maxValue, significantDigits);
+            total = new Histogram(1, maxValue, significantDigits);
+            total.setStartTimeStamp(System.currentTimeMillis());
+        }
+        
+        public void record(long nanos) {
+            recorder.recordValue(Math.max(1, Math.min(nanos, maxValue)));
+        }
+        
+        // Guarded by the owning LatencyRecorder
+        void roll() {
+            // The previous interval's histogram is handed back for reuse, so rolling allocates nothing either
+            lastInterval = recorder.getIntervalHistogram(lastInterval);
+            total.add(lastInterval);
+            total.setEndTimeStamp(lastInterval.getEndTimeStamp());
+        }
+        
+        void reset() {
+            recorder.reset();
+            total.reset();
+            total.setStartTimeStamp(System.currentTimeMillis());
+            lastInterval = null;
+        }
+        
+        Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("interval", lastInterval != null ? describe(lastInterval) : null);
+            description.put("total", describe(total));
+            return description;
+        }
+        
+        private static Map<String, Object> describe(Histogram histogram) {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("start", Instant.ofEpochMilli(histogram.getStartTimeStamp()));
+            description.put("end", histogram.getEndTimeStamp() > 0 ? Instant.ofEpochMilli(histogram.getEndTimeStamp()) : null);
+            long count = histogram.getTotalCount();
+            description.put("count", count);
+            if (count == 0) {
+                return description;
+            }
+            description.put("minMicros", micros(histogram.getMinValue()));
+            description.put("meanMicros", histogram.getMean() / 1000.0);
+            description.put("maxMicros", micros(histogram.getMaxValue()));
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                percentiles.put(String.valueOf(percentile), micros(histogram.getValueAtPercentile(percentile)));
+            }
+            description.put("percentiles", percentiles);
+            // Percentile ticks that halve the remaining distance to 100%, as HdrHistogram prints them
+            List<Map<String, Object>> distribution = new ArrayList<>();
+            for (HistogramIterationValue value : histogram.percentiles(1)) {
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("percentile", value.getPercentileLevelIteratedTo());
+                point.put("micros", micros(histogram.highestEquivalentValue(value.getValueIteratedTo())));
+                point.put("count", value.getTotalCountToThisValue());
+                distribution.add(point);
+            }
+            description.put("distribution", distribution);
+            return description;
+        }
+        
+        private static double micros(long nanos) {
+            return nanos / 1000.0;
+        }
+    }
+}
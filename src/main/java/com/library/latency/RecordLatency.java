@@ -0,0 +1,17 @@
+package com.library.latency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the latency of the annotated method, or of every public method of the annotated class,
+ * into {@link LatencyRecorder} under {@code SimpleClassName.method}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RecordLatency {
+}
@@ -0,0 +1,171 @@
+package com.library.recommendation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from positive int keys to int values, without boxing. Zero marks an
+ * empty slot, which is why keys must be positive; book IDs always are.
+ */
+final class IntIntHashMap {
+    
+    private int[] keys;
+    private int[] values;
+    private int size;
+    
+    IntIntHashMap() {
+        this(8);
+    }
+    
+    IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+    
+    /** Adds {@code delta} to the key's value, starting from zero, and returns the new value. */
+    int addTo(int key, int delta) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        size++;
+        return delta;
+    }
+    
+    /** Subtracts one from the key's value if it is present, and removes the key once it reaches zero. */
+    void decrement(int key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                if (--values[slot] <= 0) {
+                    removeAt(slot);
+                }
+                return;
+            }
+        }
+    }
+    
+    void forEach(Consumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+    
+    /** Keeps the {@code limit} entries with the largest values and drops the rest. */
+    void retainLargest(int limit) {
+        if (size <= limit) {
+            return;
+        }
+        int[] sorted = new int[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                sorted[n++] = values[slot];
+            }
+        }
+        Arrays.sort(sorted);
+        int threshold = sorted[size - limit];
+        // Everything above the threshold stays; ties at the threshold fill whatever room is left
+        int ties = limit;
+        for (int i = size - limit; i < size; i++) {
+            if (sorted[i] > threshold) {
+                ties--;
+            }
+        }
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[Integer.highestOneBit(Math.max(4, limit * 2 - 1)) << 1];
+        values = new int[keys.length];
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] == 0 || oldValues[slot] < threshold) {
+                continue;
+            }
+            if (oldValues[slot] == threshold) {
+                if (ties == 0) {
+                    continue;
+                }
+                ties--;
+            }
+            insertNew(oldKeys[slot], oldValues[slot]);
+        }
+    }
+    
+    @FunctionalInterface
+    interface Consumer {
+        void accept(int key, int value);
+    }
+    
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                insertNew(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+    
+    // Shifts later entries of the probe run back into the freed slot, so lookups never stop at a gap
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int free = slot;
+        for (int next = (free + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry unless its home lies cyclically in (free, next]
+            if (free <= next ? (home <= free || home > next) : (home <= free && home > next)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = 0;
+        values[free] = 0;
+        size--;
+    }
+    
+    private void insertNew(int key, int value) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+    
+    // Book IDs are sequential; spread them so neighbouring IDs do not cluster in the probe sequence
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
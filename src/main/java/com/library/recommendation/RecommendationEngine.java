@@ -0,0 +1,297 @@
+package com.library.recommendation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * "Members who borrowed this also borrowed" over a sparse item-item co-occurrence matrix: for
+ * each book, how many members borrowed it together with each other book. Rows are primitive
+ * maps capped at the heaviest {@code maxNeighbours} pairs. Only the {@code maxMembers} most
+ * recently active members count, each with their {@code maxHistory} most recent distinct books:
+ * a book that drops out of a member's history, or a member that drops out altogether, is taken
+ * back out of the counts. Memory stays bounded however long the history grows.
+ * <p>
+ * The matrix is built once from history with {@link #rebuild} and then follows every committed
+ * borrow through {@link #record}. Books are ranked by cosine similarity of their borrower sets,
+ * so popular books do not crowd out closer matches.
+ */
+@Component
+public class RecommendationEngine {
+    
+    private static final Comparator<Recommendation> RANKING = Comparator
+        .comparingDouble(Recommendation::score).reversed()
+        .thenComparing(Comparator.comparingInt(Recommendation::sharedBorrowers).reversed())
+        .thenComparingLong(Recommendation::bookId);
+    
+    @Value("${library.recommendations.max-neighbours:200}")
+    private int maxNeighbours = 200;
+    
+    @Value("${library.recommendations.max-history:100}")
+    private int maxHistory = 100;
+    
+    @Value("${library.recommendations.max-members:100000}")
+    private int maxMembers = 100000;
+    
+    private Matrix matrix = new Matrix(0);
+    private List<long[]> recordedDuringRebuild;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Replaces the matrix with one counted from the given borrows, each member's books in borrow
+     * order and the members in order of their latest borrow, most recent last; only the last
+     * {@code maxMembers} members count. Rows are split among worker threads by book ID, so no two
+     * threads touch one row.
+     * Borrows recorded while the rebuild runs are replayed onto the new matrix; replaying a borrow
+     * the history already contained changes nothing.
+     */
+    public void rebuild(Map<Long, List<Long>> booksByMember) {
+        lock.writeLock().lock();
+        try {
+            recordedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Matrix rebuilt;
+        try {
+            rebuilt = build(booksByMember);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                recordedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            for (long[] borrow : recordedDuringRebuild) {
+                rebuilt.record(borrow[0], (int) borrow[1]);
+            }
+            recordedDuringRebuild = null;
+            matrix = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /** Counts a committed borrow; a member borrowing a book again adds nothing. */
+    public void record(Long memberId, Long bookId) {
+        int book = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            matrix.record(memberId, book);
+            if (recordedDuringRebuild != null) {
+                recordedDuringRebuild.add(new long[]{memberId, book});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /** The {@code limit} books most often borrowed by the same members, most similar first. */
+    public List<Recommendation> similar(Long bookId, int limit) {
+        int book = Math.toIntExact(bookId);
+        lock.readLock().lock();
+        try {
+            return matrix.similar(book, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** A similar book with its cosine similarity and the number of members who borrowed both. */
+    public record Recommendation(long bookId, double score, int sharedBorrowers) {
+    }
+    
+    private Matrix build(Map<Long, List<Long>> booksByMember) {
+        int maxBook = 0;
+        Map<Long, MemberHistory> histories = new LinkedHashMap<>(booksByMember.size() * 2);
+        int skipped = Math.max(0, booksByMember.size() - maxMembers);
+        for (Map.Entry<Long, List<Long>> entry : booksByMember.entrySet()) {
+            if (skipped > 0) {
+                skipped--;
+                continue;
+            }
+            MemberHistory history = new MemberHistory(maxHistory);
+            for (Long bookId : entry.getValue()) {
+                int book = Math.toIntExact(bookId);
+                history.add(book);
+                maxBook = Math.max(maxBook, book);
+            }
+            histories.put(entry.getKey(), history);
+        }
+        Matrix built = new Matrix(maxBook + 1);
+        built.histories.putAll(histories);
+        MemberHistory[] members = histories.values().toArray(new MemberHistory[0]);
+        for (MemberHistory history : members) {
+            for (int i = 0; i < history.size; i++) {
+                built.popularity[history.books[i]]++;
+            }
+        }
+        int workers = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        IntStream.range(0, workers).parallel().forEach(worker -> {
+            for (MemberHistory history : members) {
+                for (int i = 0; i < history.size; i++) {
+                    int book = history.books[i];
+                    if (book % workers != worker) {
+                        continue;
+                    }
+                    for (int j = 0; j < history.size; j++) {
+                        if (j != i) {
+                            built.addPair(book, history.books[j]);
+                        }
+                    }
+                }
+            }
+        });
+        return built;
+    }
+    
+    private final class Matrix {
+        
+        private IntIntHashMap[] rows;
+        private int[] popularity;
+        // Least recently active first; the member that falls off the end is taken out of the counts
+        private final Map<Long, MemberHistory> histories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MemberHistory> eldest) {
+                if (size() <= maxMembers) {
+                    return false;
+                }
+                forget(eldest.getValue());
+                return true;
+            }
+        };
+        
+        Matrix(int books) {
+            rows = new IntIntHashMap[Math.max(books, 16)];
+            popularity = new int[rows.length];
+        }
+        
+        void record(long memberId, int book) {
+            MemberHistory history = histories.computeIfAbsent(memberId, id -> new MemberHistory(maxHistory));
+            if (history.contains(book)) {
+                return;
+            }
+            if (book >= rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(book + 1, rows.length * 2));
+                popularity = Arrays.copyOf(popularity, rows.length);
+            }
+            int evicted = history.add(book);
+            if (evicted != 0) {
+                popularity[evicted]--;
+            }
+            popularity[book]++;
+            for (int i = 0; i < history.size - 1; i++) {
+                int other = history.books[i];
+                if (evicted != 0) {
+                    removePair(evicted, other);
+                    removePair(other, evicted);
+                }
+                addPair(book, other);
+                addPair(other, book);
+            }
+        }
+        
+        void forget(MemberHistory history) {
+            for (int i = 0; i < history.size; i++) {
+                popularity[history.books[i]]--;
+                for (int j = 0; j < history.size; j++) {
+                    if (j != i) {
+                        removePair(history.books[i], history.books[j]);
+                    }
+                }
+            }
+        }
+        
+        void addPair(int book, int other) {
+            IntIntHashMap row = rows[book];
+            if (row == null) {
+                row = new IntIntHashMap();
+                rows[book] = row;
+            }
+            row.addTo(other, 1);
+            // Let rows overshoot before pruning so the sort is paid once per maxNeighbours additions
+            if (row.size() > 2 * maxNeighbours) {
+                row.retainLargest(maxNeighbours);
+            }
+        }
+        
+        // A pair pruned from the row earlier has nothing left to take back
+        void removePair(int book, int other) {
+            IntIntHashMap row = rows[book];
+            if (row != null) {
+                row.decrement(other);
+            }
+        }
+        
+        List<Recommendation> similar(int book, int limit) {
+            IntIntHashMap row = book < rows.length ? rows[book] : null;
+            if (row == null || limit < 1) {
+                return Collections.emptyList();
+            }
+            double ownPopularity = popularity[book];
+            PriorityQueue<Recommendation> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            row.forEach((other, shared) -> {
+                double score = shared / Math.sqrt(ownPopularity * popularity[other]);
+                best.add(new Recommendation(other, score, shared));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            });
+            List<Recommendation> result = new ArrayList<>(best);
+            result.sort(RANKING);
+            return result;
+        }
+    }
+    
+    /** A member's most recent distinct books, oldest first, up to {@code capacity} of them. */
+    private static final class MemberHistory {
+        
+        private final int capacity;
+        private int[] books = new int[4];
+        private int size;
+        
+        MemberHistory(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        boolean contains(int book) {
+            for (int i = 0; i < size; i++) {
+                if (books[i] == book) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /** Appends a book not yet in the history; returns the oldest book it pushed out, or 0 if none. */
+        int add(int book) {
+            if (contains(book)) {
+                return 0;
+            }
+            int evicted = 0;
+            if (size == capacity) {
+                evicted = books[0];
+                System.arraycopy(books, 1, books, 0, size - 1);
+                size--;
+            } else if (size == books.length) {
+                books = Arrays.copyOf(books, Math.min(capacity, books.length * 2));
+            }
+            books[size++] = book;
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.library.recommendation;
+
+import com.library.repository.ArchivedBorrowingTransactionRepository;
+import com.library.repository.BorrowingTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Builds the {@link RecommendationEngine} from the borrowing history once the application has
+ * started. Both the active and the archive table are read in keyset pages; only the transaction,
+ * member and book IDs are fetched.
+ */
+@Component
+public class RecommendationInitializer {
+    
+    private static final Logger log = LoggerFactory.getLogger(RecommendationInitializer.class);
+    private static final int PAGE_SIZE = 5000;
+    
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+    
+    @Autowired
+    private ArchivedBorrowingTransactionRepository archivedBorrowingRepository;
+    
+    @Autowired
+    private RecommendationEngine recommendationEngine;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, List<long[]>> borrowsByMember = new HashMap<>();
+        // Active table first: a row archived while we read it is then still found in the archive
+        long rows = load(borrowingRepository::findBorrowsAfter, borrowsByMember)
+            + load(archivedBorrowingRepository::findBorrowsAfter, borrowsByMember);
+        
+        // Put each member's books back in borrow order so the most recent ones are kept, and the
+        // members in order of their latest borrow so the most recently active ones are kept
+        List<Map.Entry<Long, List<long[]>>> members = new ArrayList<>(borrowsByMember.entrySet());
+        for (Map.Entry<Long, List<long[]>> entry : members) {
+            entry.getValue().sort(Comparator.comparingLong(borrow -> borrow[0]));
+        }
+        members.sort(Comparator.comparingLong(entry -> entry.getValue().get(entry.getValue().size() - 1)[0]));
+        Map<Long, List<Long>> booksByMember = new LinkedHashMap<>(members.size() * 2);
+        for (Map.Entry<Long, List<long[]>> entry : members) {
+            List<Long> books = new ArrayList<>(entry.getValue().size());
+            for (long[] borrow : entry.getValue()) {
+                books.add(borrow[1]);
+            }
+            booksByMember.put(entry.getKey(), books);
+        }
+        recommendationEngine.rebuild(booksByMember);
+        log.info("Built co-borrow recommendations from {} borrowings by {} members", rows, booksByMember.size());
+    }
+    
+    private long load(BiFunction<Long, Pageable, List<Object[]>> pageQuery, Map<Long, List<long[]>> borrowsByMember) {
+        long rows = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> page = pageQuery.apply(afterId, PageRequest.of(0, PAGE_SIZE));
+            for (Object[] row : page) {
+                long transactionId = (Long) row[0];
+                borrowsByMember.computeIfAbsent((Long) row[1], id -> new ArrayList<>())
+                    .add(new long[]{transactionId, (Long) row[2]});
+                afterId = transactionId;
+            }
+            rows += page.size();
+            if (page.size() < PAGE_SIZE) {
+                return rows;
+            }
+        }
+    }
+}
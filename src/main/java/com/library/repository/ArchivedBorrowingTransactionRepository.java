@@ -0,0 +1,32 @@
+package com.library.repository;
+
+import com.library.dto.BorrowingHistoryEntry;
+import com.library.entity.ArchivedBorrowingTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ArchivedBorrowingTransactionRepository extends JpaRepository<ArchivedBorrowingTransaction, Long> {
+    @Query("SELECT new com.library.dto.BorrowingHistoryEntry(at.transactionId, at.bookId, at.memberId, " +
+           "at.borrowDate, at.dueDate, at.returnDate, at.status, TRUE) " +
+           "FROM ArchivedBorrowingTransaction at WHERE at.memberId = :memberId " +
+           "AND at.borrowDate >= :from AND at.borrowDate <= :to " +
+           "AND (at.borrowDate < :afterDate OR (at.borrowDate = :afterDate AND at.transactionId < :afterId)) " +
+           "ORDER BY at.borrowDate DESC, at.transactionId DESC")
+    List<BorrowingHistoryEntry> findMemberHistoryPage(@Param("memberId") Long memberId,
+                                                      @Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to,
+                                                      @Param("afterDate") LocalDate afterDate,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+    
+    // Keyset page of (transactionId, memberId, bookId) rows for rebuilding co-borrow counts
+    @Query("SELECT at.transactionId, at.memberId, at.bookId FROM ArchivedBorrowingTransaction at " +
+           "WHERE at.transactionId > :afterId ORDER BY at.transactionId")
+    List<Object[]> findBorrowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -2,10 +2,13 @@ package com.library.repository;
 
 import com.library.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
@@ -19,4 +22,18 @@ public interface BookRepository extends JpaRepository<Book, Long> {
            "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(b.genre) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Book> searchBooks(@Param("keyword") String keyword);
+    
+    @Query("SELECT b.version FROM Book b WHERE b.bookId = :bookId")
+    Optional<Long> findVersionById(@Param("bookId") Long bookId);
+    
+    // Bulk updates bypass @Version, so both copy counters bump it themselves
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1, b.version = b.version + 1 WHERE b.bookId = :bookId")
+    int incrementAvailableCopies(@Param("bookId") Long bookId);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, b.version = b.version + 1 WHERE b.bookId = :bookId AND b.availableCopies > 0")
+    int decrementAvailableCopies(@Param("bookId") Long bookId);
 }
@@ -1,21 +1,85 @@
 package com.library.repository;
 
+import com.library.dto.BorrowingHistoryEntry;
 import com.library.entity.BorrowingTransaction;
 import com.library.entity.Member;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BorrowingTransactionRepository extends JpaRepository<BorrowingTransaction, Long> {
     List<BorrowingTransaction> findByMemberAndStatus(Member member, BorrowingTransaction.TransactionStatus status);
     List<BorrowingTransaction> findByStatus(BorrowingTransaction.TransactionStatus status);
     
+    @Query("SELECT bt FROM BorrowingTransaction bt JOIN FETCH bt.book JOIN FETCH bt.member " +
+           "WHERE bt.transactionId = :transactionId")
+    Optional<BorrowingTransaction> findByIdWithBookAndMember(@Param("transactionId") Long transactionId);
+    
+    // Only succeeds for a transaction that is still BORROWED, so concurrent returns cannot both win
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BorrowingTransaction bt SET bt.status = 'RETURNED', bt.returnDate = :returnDate " +
+           "WHERE bt.transactionId = :transactionId AND bt.status = 'BORROWED'")
+    int markReturned(@Param("transactionId") Long transactionId, @Param("returnDate") LocalDate returnDate);
+    
+    @Query("SELECT bt FROM BorrowingTransaction bt JOIN FETCH bt.book " +
+           "WHERE bt.member.memberId = :memberId AND bt.status = 'BORROWED' ORDER BY bt.dueDate, bt.transactionId")
+    List<BorrowingTransaction> findActiveLoansWithBook(@Param("memberId") Long memberId);
+    
     @Query("SELECT bt FROM BorrowingTransaction bt WHERE bt.dueDate < :currentDate AND bt.status = 'BORROWED'")
     List<BorrowingTransaction> findOverdueTransactions(LocalDate currentDate);
     
     @Query("SELECT COUNT(bt) FROM BorrowingTransaction bt WHERE bt.member = :member AND bt.status = 'BORROWED'")
     long countActiveBorrowingsByMember(Member member);
+    
+    @Query("SELECT COUNT(bt) FROM BorrowingTransaction bt WHERE bt.member.memberId = :memberId AND bt.status = 'BORROWED'")
+    long countActiveBorrowingsByMemberId(@Param("memberId") Long memberId);
+    
+    @Query("SELECT bt.member.memberId, COUNT(bt) FROM BorrowingTransaction bt " +
+           "WHERE bt.member.memberId IN :memberIds AND bt.status = 'BORROWED' GROUP BY bt.member.memberId")
+    List<Object[]> countActiveBorrowingsByMemberIds(@Param("memberIds") List<Long> memberIds);
+    
+    // Keyset page over the (member_id, borrow_date) index, newest first; the cursor is the last row returned
+    @Query("SELECT new com.library.dto.BorrowingHistoryEntry(bt.transactionId, bt.book.bookId, bt.member.memberId, " +
+           "bt.borrowDate, bt.dueDate, bt.returnDate, bt.status, FALSE) " +
+           "FROM BorrowingTransaction bt WHERE bt.member.memberId = :memberId " +
+           "AND bt.borrowDate >= :from AND bt.borrowDate <= :to " +
+           "AND (bt.borrowDate < :afterDate OR (bt.borrowDate = :afterDate AND bt.transactionId < :afterId)) " +
+           "ORDER BY bt.borrowDate DESC, bt.transactionId DESC")
+    List<BorrowingHistoryEntry> findMemberHistoryPage(@Param("memberId") Long memberId,
+                                                      @Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to,
+                                                      @Param("afterDate") LocalDate afterDate,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+    
+    // Keyset page of (transactionId, memberId, bookId) rows for rebuilding co-borrow counts
+    @Query("SELECT bt.transactionId, bt.member.memberId, bt.book.bookId FROM BorrowingTransaction bt " +
+           "WHERE bt.transactionId > :afterId ORDER BY bt.transactionId")
+    List<Object[]> findBorrowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Transactions referenced by a fine stay in the active table so the fine keeps its foreign key
+    @Query("SELECT bt.transactionId FROM BorrowingTransaction bt WHERE bt.status = 'RETURNED' " +
+           "AND bt.returnDate < :cutoff " +
+           "AND NOT EXISTS (SELECT f FROM Fine f WHERE f.transaction = bt) " +
+           "ORDER BY bt.transactionId")
+    List<Long> findArchivableTransactionIds(@Param("cutoff") LocalDate cutoff, Pageable pageable);
+    
+    @Modifying
+    @Query("INSERT INTO ArchivedBorrowingTransaction " +
+           "(transactionId, bookId, memberId, borrowDate, dueDate, returnDate, status, archivedDate) " +
+           "SELECT bt.transactionId, bt.book.bookId, bt.member.memberId, bt.borrowDate, bt.dueDate, " +
+           "bt.returnDate, bt.status, CURRENT_DATE " +
+           "FROM BorrowingTransaction bt WHERE bt.transactionId IN :ids")
+    int copyToArchive(@Param("ids") List<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM BorrowingTransaction bt WHERE bt.transactionId IN :ids")
+    int deleteByTransactionIds(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,42 @@
+package com.library.repository;
+
+import com.library.entity.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    
+    // Range scan of the primary key; changes at or above :before may still be uncommitted
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.changeId > :since AND c.changeId < :before ORDER BY c.changeId")
+    List<ChangeLogEntry> findPage(@Param("since") long since, @Param("before") long before, Pageable pageable);
+    
+    // Range scan of the (entity_type, change_id) index
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.entityType = :type " +
+           "AND c.changeId > :since AND c.changeId < :before ORDER BY c.changeId")
+    List<ChangeLogEntry> findPageByType(@Param("type") ChangeLogEntry.EntityType type,
+                                        @Param("since") long since,
+                                        @Param("before") long before,
+                                        Pageable pageable);
+    
+    // The ID is assigned by the caller; a save would first select to tell an insert from an update
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO change_log (change_id, entity_type, entity_id, operation, changed_at) " +
+                   "VALUES (:changeId, :entityType, :entityId, :operation, :changedAt)", nativeQuery = true)
+    void insert(@Param("changeId") long changeId,
+                @Param("entityType") String entityType,
+                @Param("entityId") Long entityId,
+                @Param("operation") String operation,
+                @Param("changedAt") LocalDateTime changedAt);
+    
+    @Query("SELECT COALESCE(MAX(c.changeId), 0) FROM ChangeLogEntry c")
+    long findMaxChangeId();
+}
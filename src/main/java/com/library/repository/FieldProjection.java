@@ -0,0 +1,85 @@
+package com.library.repository;
+
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Member;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields a list endpoint may be asked for with {@code ?fields=}, each mapped to the attribute
+ * path it is selected from. Only listed fields can be requested, so a client cannot reach
+ * attributes that are not part of the API.
+ */
+public enum FieldProjection {
+    
+    BOOK(Book.class, "bookId", Map.of(
+        "title", "title",
+        "author", "author",
+        "genre", "genre",
+        "isbn", "isbn",
+        "yearPublished", "yearPublished",
+        "availableCopies", "availableCopies",
+        "totalCopies", "totalCopies")),
+    
+    MEMBER(Member.class, "memberId", Map.of(
+        "name", "name",
+        "email", "email",
+        "phone", "phone",
+        "address", "address",
+        "membershipStatus", "membershipStatus",
+        "registrationDate", "registrationDate")),
+    
+    BORROWING(BorrowingTransaction.class, "transactionId", Map.of(
+        "bookId", "book.bookId",
+        "bookTitle", "book.title",
+        "memberId", "member.memberId",
+        "memberName", "member.name",
+        "borrowDate", "borrowDate",
+        "dueDate", "dueDate",
+        "returnDate", "returnDate",
+        "status", "status"));
+    
+    private final Class<?> entity;
+    private final String idField;
+    private final Map<String, String> paths;
+    
+    FieldProjection(Class<?> entity, String idField, Map<String, String> paths) {
+        this.entity = entity;
+        this.idField = idField;
+        this.paths = paths;
+    }
+    
+    public Class<?> entity() {
+        return entity;
+    }
+    
+    public String idField() {
+        return idField;
+    }
+    
+    /**
+     * Field names to select, each with its attribute path, in the order requested and always
+     * starting with the ID. Throws IllegalArgumentException for a field that cannot be requested.
+     */
+    public Map<String, String> resolve(List<String> fields) {
+        Set<String> unique = new LinkedHashSet<>(fields);
+        unique.remove(idField);
+        Map<String, String> selected = new LinkedHashMap<>();
+        selected.put(idField, idField);
+        for (String field : unique) {
+            String path = paths.get(field);
+            if (path == null) {
+                List<String> known = new ArrayList<>(paths.keySet());
+                known.sort(null);
+                throw new IllegalArgumentException("Unknown field '" + field + "'; expected one of " + known);
+            }
+            selected.put(field, path);
+        }
+        return selected;
+    }
+}
@@ -1,7 +1,10 @@
 package com.library.repository;
 
 import com.library.entity.Member;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import java.util.List;
@@ -9,6 +12,10 @@ import java.util.List;
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
     Optional<Member> findByEmail(String email);
-    List<Member> findByNameContainingIgnoreCase(String name);
+    List<Member> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrPhoneContainingIgnoreCase(String name, String email, String phone);
+    List<Member> findByMemberIdGreaterThan(Long memberId, Pageable pageable);
     List<Member> findByMembershipStatus(Member.MembershipStatus status);
+    
+    @Query("SELECT m.version FROM Member m WHERE m.memberId = :memberId")
+    Optional<Long> findVersionById(@Param("memberId") Long memberId);
 }
@@ -0,0 +1,57 @@
+package com.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads only the requested columns of a {@link FieldProjection}, as one tuple query, and returns
+ * each row as a field-to-value map ready to serialize. No entity is built or managed, so a narrow
+ * projection costs less to query, to hold and to send.
+ */
+@Repository
+public class ProjectionRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public List<Map<String, Object>> findAll(FieldProjection projection, List<String> fields) {
+        Map<String, String> selected = projection.resolve(fields);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<?> root = query.from(projection.entity());
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        selected.forEach((field, path) -> selections.add(path(root, path).alias(field)));
+        query.multiselect(selections).orderBy(builder.asc(root.get(projection.idField())));
+        
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>(selected.size() * 2);
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+    
+    private static Path<?> path(Root<?> root, String dotted) {
+        Path<?> path = root;
+        for (String attribute : dotted.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,542 @@
+package com.library.search;
+
+import com.library.dto.AutocompleteSuggestion;
+import com.library.entity.Book;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix completion over distinct titles, authors and genres. Each distinct value is one entry
+ * weighted by the number of books carrying it, and is reachable from the start of the value and
+ * from the start of each of its first few words, so "rowl" finds "J.K. Rowling".
+ * <p>
+ * Keys live in a radix tree whose nodes cache the {@value #TOP_K} heaviest entries below them,
+ * so a lookup is a walk down the typed prefix followed by reading one small array. Writes only
+ * touch the nodes along the changed keys.
+ * <p>
+ * Measured footprint is about 650 bytes per distinct value, so roughly 650 MB per million,
+ * including the per-book bookkeeping; a lookup takes a couple of microseconds.
+ */
+@Component
+public class AutocompleteIndex implements BookIndex {
+    
+    static final int TOP_K = 10;
+    private static final int MAX_WORD_STARTS = 4;
+    private static final int[] NONE = new int[0];
+    
+    enum Field {
+        TITLE, AUTHOR, GENRE
+    }
+    
+    private Node root = new Node("", 0, 0, 0);
+    private final List<Map<String, Entry>> entriesByKey = List.of(new HashMap<>(), new HashMap<>(), new HashMap<>());
+    private Entry[] entries = new Entry[1024];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+    private final Map<Long, int[]> bookEntries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getBookId());
+            int[] ids = new int[3];
+            int count = 0;
+            count = acquire(ids, count, Field.TITLE, book.getTitle());
+            count = acquire(ids, count, Field.AUTHOR, book.getAuthor());
+            count = acquire(ids, count, Field.GENRE, book.getGenre());
+            if (count > 0) {
+                bookEntries.put(book.getBookId(), Arrays.copyOf(ids, count));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root = new Node("", 0, 0, 0);
+            entriesByKey.forEach(Map::clear);
+            entries = new Entry[1024];
+            freeCount = 0;
+            nextId = 0;
+            bookEntries.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} completions of {@code prefix}, most common first. At most
+     * {@value #TOP_K} suggestions are kept per prefix.
+     */
+    public List<AutocompleteSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<AutocompleteSuggestion> suggestions = new ArrayList<>();
+        if (key.isEmpty()) {
+            return suggestions;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int depth = 0;
+            while (depth < key.length()) {
+                Node child = node.child(key.charAt(depth));
+                if (child == null) {
+                    return suggestions;
+                }
+                int labelEnd = Math.min(child.end, child.start + key.length() - depth);
+                for (int i = child.start; i < labelEnd; i++, depth++) {
+                    if (child.charAt(i) != key.charAt(depth)) {
+                        return suggestions;
+                    }
+                }
+                node = child;
+            }
+            for (int i = 0; i < node.top.length && i < limit; i++) {
+                Entry entry = entries[idOf(node.top[i])];
+                suggestions.add(new AutocompleteSuggestion(entry.text, entry.field.name(), entry.weight));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entriesByKey.stream().mapToInt(Map::size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    static String normalize(String text) {
+        return String.join(" ", SearchTokenizer.tokenize(text));
+    }
+    
+    private int acquire(int[] ids, int count, Field field, String text) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return count;
+        }
+        Entry entry = entriesByKey.get(field.ordinal()).get(key);
+        if (entry == null) {
+            entry = new Entry(allocateId(), field, text.trim(), key);
+            entries[entry.id] = entry;
+            entriesByKey.get(field.ordinal()).put(key, entry);
+            entry.weight = 1;
+            for (int offset : wordStarts(key)) {
+                insert(key, offset, entry.id);
+            }
+        } else {
+            entry.weight++;
+            for (int offset : wordStarts(key)) {
+                promote(key, offset, entry.id);
+            }
+        }
+        ids[count] = entry.id;
+        return count + 1;
+    }
+    
+    private void release(int id) {
+        Entry entry = entries[id];
+        entry.weight--;
+        if (entry.weight == 0) {
+            for (int offset : wordStarts(entry.key)) {
+                delete(entry.key, offset, id);
+            }
+            entriesByKey.get(entry.field.ordinal()).remove(entry.key);
+            entries[id] = null;
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            }
+            freeIds[freeCount++] = id;
+        } else {
+            for (int offset : wordStarts(entry.key)) {
+                demote(entry.key, offset, id);
+            }
+        }
+    }
+    
+    private void removeLocked(Long bookId) {
+        int[] ids = bookEntries.remove(bookId);
+        if (ids != null) {
+            for (int id : ids) {
+                release(id);
+            }
+        }
+    }
+    
+    private int allocateId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (nextId == entries.length) {
+            entries = Arrays.copyOf(entries, nextId * 2);
+        }
+        return nextId++;
+    }
+    
+    // A value is keyed from its start and from the start of each of its next few words
+    private static int[] wordStarts(String key) {
+        int[] offsets = new int[MAX_WORD_STARTS];
+        int count = 1;
+        for (int i = key.indexOf(' '); i >= 0 && count < MAX_WORD_STARTS; i = key.indexOf(' ', i + 1)) {
+            offsets[count++] = i + 1;
+        }
+        return count == MAX_WORD_STARTS ? offsets : Arrays.copyOf(offsets, count);
+    }
+    
+    // Keys are suffixes of an entry's text, addressed as (text, offset) so no substrings are kept
+    private void insert(String text, int offset, int id) {
+        int length = text.length() - offset;
+        Node[] path = new Node[length + 1];
+        int size = 0;
+        path[size++] = root;
+        Node node = root;
+        int depth = 0;
+        while (depth < length) {
+            int index = node.childIndex(text.charAt(offset + depth));
+            if (index < 0) {
+                Node leaf = new Node(text, offset, depth, length);
+                leaf.addTerminal(id);
+                leaf.top = new long[] {rank(entries[id])};
+                node.insertChild(-index - 1, leaf);
+                offerUpwards(path, size, id);
+                return;
+            }
+            Node child = node.children[index];
+            int matched = 0;
+            int labelLength = child.end - child.start;
+            while (matched < labelLength && depth + matched < length
+                    && child.charAt(child.start + matched) == text.charAt(offset + depth + matched)) {
+                matched++;
+            }
+            if (matched < labelLength) {
+                // The key leaves this edge part-way along, so split it at the divergence point
+                Node split = new Node(child.source, child.base, child.start, child.start + matched);
+                child.start += matched;
+                split.children = new Node[] {child};
+                split.top = child.top.clone();
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            depth += matched;
+            path[size++] = node;
+        }
+        node.addTerminal(id);
+        offerUpwards(path, size, id);
+    }
+    
+    private void promote(String text, int offset, int id) {
+        Node[] path = new Node[text.length() - offset + 1];
+        offerUpwards(path, find(text, offset, path), id);
+    }
+    
+    // A node whose top entries reject the id has ancestors that reject it too, so the walk stops there
+    private void offerUpwards(Node[] path, int size, int id) {
+        long rank = rank(entries[id]);
+        for (int i = size - 1; i >= 0; i--) {
+            if (!path[i].offer(id, rank)) {
+                return;
+            }
+        }
+    }
+    
+    private void demote(String text, int offset, int id) {
+        Node[] path = new Node[text.length() - offset + 1];
+        int size = find(text, offset, path);
+        for (int i = size - 1; i >= 0; i--) {
+            Node node = path[i];
+            // A node that did not list the entry cannot have ancestors listing it through this key
+            if (i < size - 1 && indexOf(node.top, id) < 0) {
+                return;
+            }
+            node.recompute(entries);
+        }
+    }
+    
+    private void delete(String text, int offset, int id) {
+        Node[] path = new Node[text.length() - offset + 1];
+        int size = find(text, offset, path);
+        Node last = path[size - 1];
+        last.removeTerminal(id);
+        for (int i = size - 1; i >= 0; i--) {
+            Node node = path[i];
+            boolean listed = indexOf(node.top, id) >= 0;
+            boolean reshaped = false;
+            if (i > 0 && node.terminalCount == 0 && node.children.length == 0) {
+                path[i - 1].removeChild(node);
+                reshaped = true;
+            } else if (i > 0 && node.terminalCount == 0 && node.children.length == 1) {
+                // Fold a pass-through node into its only child to keep the tree compact
+                Node only = node.children[0];
+                only.start = node.start;
+                path[i - 1].replaceChild(node, only);
+                reshaped = true;
+            } else if (listed) {
+                node.recompute(entries);
+            }
+            if (!listed && !reshaped) {
+                return;
+            }
+        }
+    }
+    
+    private int find(String text, int offset, Node[] path) {
+        int size = 0;
+        path[size++] = root;
+        Node node = root;
+        int depth = 0;
+        int length = text.length() - offset;
+        while (depth < length) {
+            node = node.child(text.charAt(offset + depth));
+            depth += node.end - node.start;
+            path[size++] = node;
+        }
+        return size;
+    }
+    
+    /**
+     * Packs an entry's weight and id into one long so cached tops rank without touching the
+     * entries: heavier first, then lower id first.
+     */
+    private static long rank(Entry entry) {
+        return ((long) entry.weight << 32) | (Integer.MAX_VALUE - entry.id);
+    }
+    
+    private static int idOf(long rank) {
+        return Integer.MAX_VALUE - (int) rank;
+    }
+    
+    private static int indexOf(long[] top, int id) {
+        for (int i = 0; i < top.length; i++) {
+            if (idOf(top[i]) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static final class Entry {
+        
+        private final int id;
+        private final Field field;
+        private final String text;
+        private final String key;
+        private int weight;
+        
+        Entry(int id, Field field, String text, String key) {
+            this.id = id;
+            this.field = field;
+            this.text = text;
+            this.key = key;
+        }
+    }
+    
+    /**
+     * Radix tree node covering key depths {@code [start, end)}. Its label is read from the text of
+     * some entry passing through it, shifted by that key's word offset {@code base}, so labels
+     * share the entries' strings instead of copying them.
+     */
+    private static final class Node {
+        
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final long[] NO_RANKS = new long[0];
+        
+        private final String source;
+        private final int base;
+        private int start;
+        private final int end;
+        private Node[] children = NO_CHILDREN;
+        private int[] terminals = NONE;
+        private int terminalCount;
+        private long[] top = NO_RANKS;
+        
+        Node(String source, int base, int start, int end) {
+            this.source = source;
+            this.base = base;
+            this.start = start;
+            this.end = end;
+        }
+        
+        char charAt(int depth) {
+            return source.charAt(base + depth);
+        }
+        
+        char first() {
+            return charAt(start);
+        }
+        
+        Node child(char c) {
+            int index = childIndex(c);
+            return index < 0 ? null : children[index];
+        }
+        
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = children[mid].first();
+                if (key < c) {
+                    low = mid + 1;
+                } else if (key > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+        
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+        
+        void removeChild(Node child) {
+            Node[] kept = new Node[children.length - 1];
+            int count = 0;
+            for (Node candidate : children) {
+                if (candidate != child) {
+                    kept[count++] = candidate;
+                }
+            }
+            children = kept;
+        }
+        
+        void replaceChild(Node old, Node replacement) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == old) {
+                    children[i] = replacement;
+                }
+            }
+        }
+        
+        // Many values can share one key, e.g. every title ending in "stories", so this grows by doubling
+        void addTerminal(int id) {
+            if (terminalCount == terminals.length) {
+                terminals = Arrays.copyOf(terminals, Math.max(1, terminalCount * 2));
+            }
+            terminals[terminalCount++] = id;
+        }
+        
+        void removeTerminal(int id) {
+            for (int i = 0; i < terminalCount; i++) {
+                if (terminals[i] == id) {
+                    terminals[i] = terminals[--terminalCount];
+                    return;
+                }
+            }
+        }
+        
+        /** Moves {@code id} into place after its weight grew; returns false when it does not make the cut. */
+        boolean offer(int id, long rank) {
+            int position = indexOf(top, id);
+            if (position < 0) {
+                if (top.length < TOP_K) {
+                    top = Arrays.copyOf(top, top.length + 1);
+                } else if (rank <= top[TOP_K - 1]) {
+                    return false;
+                }
+                position = top.length - 1;
+            }
+            top[position] = rank;
+            while (position > 0 && rank > top[position - 1]) {
+                top[position] = top[position - 1];
+                top[--position] = rank;
+            }
+            return true;
+        }
+        
+        /**
+         * Rebuilds the cached top entries from this node's own terminals and its children's tops.
+         * The children's lists are already ranked, so this is a K-way selection over their heads.
+         */
+        void recompute(Entry[] entries) {
+            long[][] sources = new long[children.length + 1][];
+            for (int c = 0; c < children.length; c++) {
+                sources[c] = children[c].top;
+            }
+            sources[children.length] = rankTerminals(entries);
+            int[] cursors = new int[sources.length];
+            long[] best = new long[TOP_K];
+            int kept = 0;
+            while (kept < TOP_K) {
+                long winner = -1;
+                int source = -1;
+                for (int c = 0; c < sources.length; c++) {
+                    long[] ranks = sources[c];
+                    // One entry can arrive from several sources when two of its keys share a prefix
+                    while (cursors[c] < ranks.length && taken(best, kept, ranks[cursors[c]])) {
+                        cursors[c]++;
+                    }
+                    if (cursors[c] < ranks.length && ranks[cursors[c]] > winner) {
+                        winner = ranks[cursors[c]];
+                        source = c;
+                    }
+                }
+                if (source < 0) {
+                    break;
+                }
+                cursors[source]++;
+                best[kept++] = winner;
+            }
+            top = kept == TOP_K ? best : Arrays.copyOf(best, kept);
+        }
+        
+        // The best ranks among this node's own terminals, in one pass with insertion into a short array
+        private long[] rankTerminals(Entry[] entries) {
+            long[] ranks = new long[Math.min(TOP_K, terminalCount)];
+            int size = 0;
+            for (int i = 0; i < terminalCount; i++) {
+                long rank = rank(entries[terminals[i]]);
+                if (size == ranks.length && rank <= ranks[size - 1]) {
+                    continue;
+                }
+                int position = size == ranks.length ? size - 1 : size++;
+                while (position > 0 && rank > ranks[position - 1]) {
+                    ranks[position] = ranks[position - 1];
+                    position--;
+                }
+                ranks[position] = rank;
+            }
+            return ranks;
+        }
+        
+        private static boolean taken(long[] best, int kept, long rank) {
+            for (int i = 0; i < kept; i++) {
+                if (idOf(best[i]) == idOf(rank)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmap of the IDs of books with at least one copy on the shelf, next to each
+ * book's copy count and the book version it was read at. Saves, borrows and returns all report
+ * the count with the version they committed, and a report older than the one already applied is
+ * ignored, so commit callbacks that run in a different order from their commits cannot leave the
+ * index behind the database.
+ */
+@Component
+public class AvailabilityIndex implements BookIndex {
+    
+    private final RoaringBitmap indexed = new RoaringBitmap();
+    private final RoaringBitmap available = new RoaringBitmap();
+    private int[] availableCopies = new int[1024];
+    private long[] versions = new long[1024];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @Override
+    public void index(Book book) {
+        int id = Math.toIntExact(book.getBookId());
+        lock.writeLock().lock();
+        try {
+            indexed.add(id);
+            setCopies(id, book.getAvailableCopies() == null ? 0 : book.getAvailableCopies(),
+                book.getVersion() == null ? 0 : book.getVersion());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(Long bookId) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            if (indexed.checkedRemove(id)) {
+                available.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            indexed.clear();
+            available.clear();
+            availableCopies = new int[1024];
+            versions = new long[1024];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Kept even for a book that is not indexed yet, so a borrow whose callback overtakes the save
+     * that created the book is not undone by the save's older count.
+     */
+    @Override
+    public void availableCopiesChanged(Long bookId, int copies, long version) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            setCopies(id, copies, version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean isAvailable(Long bookId) {
+        lock.readLock().lock();
+        try {
+            return available.contains(Math.toIntExact(bookId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** Copy of the current bitmap, for callers that combine it with bitmaps of their own. */
+    public RoaringBitmap snapshot() {
+        lock.readLock().lock();
+        try {
+            return available.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** One page of available book IDs in ascending order, with the number of available books. */
+    public Page page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int total = available.getCardinality();
+            List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+            if (offset < total) {
+                // select() jumps straight to the offset instead of walking the bitmap from the start
+                PeekableIntIterator iterator = available.getIntIterator();
+                iterator.advanceIfNeeded(available.select(offset));
+                while (iterator.hasNext() && ids.size() < limit) {
+                    ids.add((long) iterator.next());
+                }
+            }
+            return new Page(total, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void setCopies(int id, int copies, long version) {
+        if (id >= availableCopies.length) {
+            int length = Math.max(id + 1, availableCopies.length * 2);
+            availableCopies = Arrays.copyOf(availableCopies, length);
+            versions = Arrays.copyOf(versions, length);
+        }
+        if (version >= versions[id]) {
+            availableCopies[id] = copies;
+            versions[id] = version;
+        }
+        if (availableCopies[id] > 0 && indexed.contains(id)) {
+            available.add(id);
+        } else {
+            available.remove(id);
+        }
+    }
+    
+    public record Page(long total, List<Long> bookIds) {
+    }
+}
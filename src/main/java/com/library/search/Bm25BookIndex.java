@@ -0,0 +1,401 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Relevance-ranked search over title, author, genre and ISBN using BM25F: per-field term
+ * frequencies are length-normalised, weighted by the field boost and summed before the BM25
+ * saturation is applied. Only the best {@code limit} books are kept while scoring, in a bounded
+ * min-heap, so a query never sorts every match.
+ */
+@Component
+public class Bm25BookIndex implements BookIndex {
+    
+    static final int TITLE = 0;
+    static final int AUTHOR = 1;
+    static final int GENRE = 2;
+    static final int ISBN = 3;
+    private static final int FIELD_COUNT = 4;
+    // Term frequency per field is packed into one int, eight bits per field
+    private static final int TF_BITS = 8;
+    private static final int TF_MAX = (1 << TF_BITS) - 1;
+    
+    @Value("${library.search.bm25.k1:1.2}")
+    private double k1 = 1.2;
+    
+    @Value("${library.search.bm25.b:0.75}")
+    private double b = 0.75;
+    
+    @Value("${library.search.bm25.boost.title:3.0}")
+    private double titleBoost = 3.0;
+    
+    @Value("${library.search.bm25.boost.author:2.0}")
+    private double authorBoost = 2.0;
+    
+    @Value("${library.search.bm25.boost.genre:1.0}")
+    private double genreBoost = 1.0;
+    
+    @Value("${library.search.bm25.boost.isbn:5.0}")
+    private double isbnBoost = 5.0;
+    
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] bookIds = new long[1024];
+    private int[][] fieldLengths = new int[FIELD_COUNT][1024];
+    private String[][] docTerms = new String[1024][];
+    private final long[] totalFieldLengths = new long[FIELD_COUNT];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int nextOrdinal;
+    private int documentCount;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @Override
+    public void index(Book book) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int[] lengths = new int[FIELD_COUNT];
+        lengths[TITLE] = count(frequencies, SearchTokenizer.tokenize(book.getTitle()), TITLE);
+        lengths[AUTHOR] = count(frequencies, SearchTokenizer.tokenize(book.getAuthor()), AUTHOR);
+        lengths[GENRE] = count(frequencies, SearchTokenizer.tokenize(book.getGenre()), GENRE);
+        String isbn = normalizeIsbn(book.getIsbn());
+        lengths[ISBN] = isbn == null ? 0 : count(frequencies, List.of(isbn), ISBN);
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getBookId());
+            int ordinal = allocateOrdinal();
+            bookIds[ordinal] = book.getBookId();
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                fieldLengths[field][ordinal] = lengths[field];
+                totalFieldLengths[field] += lengths[field];
+            }
+            String[] terms = new String[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(ordinal, entry.getValue());
+                terms[i++] = entry.getKey();
+            }
+            docTerms[ordinal] = terms;
+            ordinals.put(book.getBookId(), ordinal);
+            documentCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinals.clear();
+            bookIds = new long[1024];
+            fieldLengths = new int[FIELD_COUNT][1024];
+            docTerms = new String[1024][];
+            Arrays.fill(totalFieldLengths, 0);
+            freeCount = 0;
+            nextOrdinal = 0;
+            documentCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ids of the {@code limit} best-scoring books, highest score first. Ties are
+     * broken by lower book id so the order is stable.
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        String isbn = normalizeIsbn(query);
+        if (isbn != null && looksLikeIsbn(isbn)) {
+            queryTerms.add(isbn);
+        }
+        Scratch work = scratch.get();
+        lock.readLock().lock();
+        try {
+            work.ensureCapacity(nextOrdinal);
+            double[] boosts = {titleBoost, authorBoost, genreBoost, isbnBoost};
+            double[] averageLengths = new double[FIELD_COUNT];
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                averageLengths[field] = documentCount == 0 ? 0 : (double) totalFieldLengths[field] / documentCount;
+            }
+            for (String term : queryTerms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int ordinal = list.ordinals[i];
+                    int packed = list.frequencies[i];
+                    double weighted = 0;
+                    for (int field = 0; field < FIELD_COUNT; field++) {
+                        int tf = (packed >>> (field * TF_BITS)) & TF_MAX;
+                        if (tf != 0) {
+                            double norm = averageLengths[field] == 0 ? 1
+                                : 1 - b + b * fieldLengths[field][ordinal] / averageLengths[field];
+                            weighted += boosts[field] * tf / norm;
+                        }
+                    }
+                    work.add(ordinal, (float) (idf * weighted / (k1 + weighted)));
+                }
+            }
+            TopKHeap heap = new TopKHeap(Math.min(limit, work.touchedCount));
+            for (int i = 0; i < work.touchedCount; i++) {
+                int ordinal = work.touched[i];
+                heap.offer(bookIds[ordinal], work.scores[ordinal]);
+            }
+            return heap.drainDescending();
+        } finally {
+            lock.readLock().unlock();
+            work.reset();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // ISBNs are indexed as one token with separators dropped, so "978-0-7475-3269-9" finds "9780747532699"
+    static String normalizeIsbn(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c) || c == 'x' || c == 'X') {
+                digits.append(Character.toLowerCase(c));
+            } else if (c != '-' && c != ' ') {
+                return null;
+            }
+        }
+        return digits.length() == 0 ? null : digits.toString();
+    }
+    
+    private static boolean looksLikeIsbn(String normalized) {
+        return normalized.length() == 10 || normalized.length() == 13;
+    }
+    
+    private static int count(Map<String, Integer> frequencies, List<String> tokens, int field) {
+        int shift = field * TF_BITS;
+        for (String token : tokens) {
+            frequencies.merge(token, 1 << shift, (packed, one) -> {
+                int tf = (packed >>> shift) & TF_MAX;
+                return tf == TF_MAX ? packed : packed + one;
+            });
+        }
+        return tokens.size();
+    }
+    
+    private int allocateOrdinal() {
+        if (freeCount > 0) {
+            return freeOrdinals[--freeCount];
+        }
+        if (nextOrdinal == bookIds.length) {
+            int capacity = bookIds.length * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                fieldLengths[field] = Arrays.copyOf(fieldLengths[field], capacity);
+            }
+        }
+        return nextOrdinal++;
+    }
+    
+    private void removeLocked(Long bookId) {
+        Integer ordinal = ordinals.remove(bookId);
+        if (ordinal == null) {
+            return;
+        }
+        for (String term : docTerms[ordinal]) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(ordinal) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            totalFieldLengths[field] -= fieldLengths[field][ordinal];
+            fieldLengths[field][ordinal] = 0;
+        }
+        docTerms[ordinal] = null;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+        documentCount--;
+    }
+    
+    /** Books containing one term, as parallel arrays of ordinal and packed per-field frequency. */
+    private static final class Postings {
+        
+        private int[] ordinals = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+        
+        void add(int ordinal, int packedFrequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = packedFrequency;
+            size++;
+        }
+        
+        // Order inside a posting list does not matter, so the last entry fills the gap
+        boolean remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    frequencies[i] = frequencies[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /** Per-thread score accumulator indexed by ordinal; only touched slots are reset after a query. */
+    private static final class Scratch {
+        
+        private float[] scores = new float[0];
+        private boolean[] seen = new boolean[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+        
+        void ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                seen = new boolean[capacity];
+            }
+        }
+        
+        void add(int ordinal, float score) {
+            if (!seen[ordinal]) {
+                seen[ordinal] = true;
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = ordinal;
+            }
+            scores[ordinal] += score;
+        }
+        
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+                seen[touched[i]] = false;
+            }
+            touchedCount = 0;
+        }
+    }
+    
+    /** Min-heap of at most {@code capacity} (score, bookId) pairs; the root is the weakest kept hit. */
+    static final class TopKHeap {
+        
+        private final long[] ids;
+        private final float[] scores;
+        private int size;
+        
+        TopKHeap(int capacity) {
+            ids = new long[capacity];
+            scores = new float[capacity];
+        }
+        
+        void offer(long id, float score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && weaker(ids[0], scores[0], id, score)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+        
+        List<Long> drainDescending() {
+            Long[] result = new Long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return new ArrayList<>(Arrays.asList(result));
+        }
+        
+        // Lower score is weaker; on equal scores the higher id is weaker, so lower ids win ties
+        private static boolean weaker(long idA, float scoreA, long idB, float scoreB) {
+            return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+        }
+        
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!weaker(ids[index], scores[index], ids[parent], scores[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+        
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int weakest = left;
+                int right = left + 1;
+                if (right < size && weaker(ids[right], scores[right], ids[left], scores[left])) {
+                    weakest = right;
+                }
+                if (!weaker(ids[weakest], scores[weakest], ids[index], scores[index])) {
+                    return;
+                }
+                swap(index, weakest);
+                index = weakest;
+            }
+        }
+        
+        private void swap(int i, int j) {
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            float score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.search;
+
+import com.library.entity.Book;
+
+/**
+ * In-memory structure over the catalogue that {@link com.library.service.BookService} keeps in
+ * sync on every book write. Implementations must be safe for concurrent reads and writes.
+ */
+public interface BookIndex {
+    
+    void index(Book book);
+    
+    void remove(Long bookId);
+    
+    void clear();
+    
+    /** Called once a borrow or return that left the book with {@code copies} at {@code version} has committed. */
+    default void availableCopiesChanged(Long bookId, int copies, long version) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Loads the catalogue into every {@link BookIndex} once the application has started.
+ * Books are read page by page so the whole table is never held in memory at once.
+ */
+@Component
+public class BookIndexInitializer {
+    
+    private static final Logger log = LoggerFactory.getLogger(BookIndexInitializer.class);
+    private static final int PAGE_SIZE = 1000;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private List<BookIndex> bookIndexes;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        bookIndexes.forEach(BookIndex::clear);
+        long indexed = 0;
+        Slice<Book> page = bookRepository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("bookId")));
+        while (true) {
+            for (Book book : page) {
+                bookIndexes.forEach(index -> index.index(book));
+            }
+            indexed += page.getNumberOfElements();
+            if (!page.hasNext()) {
+                break;
+            }
+            page = bookRepository.findAll(page.nextPageable());
+        }
+        log.info("Indexed {} books into {} search indexes", indexed, bookIndexes.size());
+    }
+}
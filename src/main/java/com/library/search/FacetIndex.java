@@ -0,0 +1,262 @@
+package com.library.search;
+
+import com.library.dto.FacetCount;
+import com.library.entity.Book;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Genre, author, decade and availability facets over the catalogue, each value holding a
+ * compressed bitmap of book IDs. Filters are answered by OR-ing the selected values of a facet
+ * and AND-ing across facets; counts come from bitmap intersections, never from the database.
+ * Availability is read from the {@link AvailabilityIndex}.
+ */
+@Component
+public class FacetIndex implements BookIndex {
+    
+    public static final String GENRE = "genre";
+    public static final String AUTHOR = "author";
+    public static final String DECADE = "decade";
+    public static final String AVAILABILITY = "availability";
+    
+    private final Facet genres = new Facet();
+    private final Facet authors = new Facet();
+    private final Facet decades = new Facet();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    
+    @Override
+    public void index(Book book) {
+        int id = Math.toIntExact(book.getBookId());
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            genres.add(book.getGenre(), id);
+            authors.add(book.getAuthor(), id);
+            decades.add(decadeOf(book.getYearPublished()), id);
+            all.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(Math.toIntExact(bookId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            genres.clear();
+            authors.clear();
+            decades.clear();
+            all.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Finds books matching every given filter. Within one facet the selected values are
+     * alternatives; empty or null selections leave that facet unfiltered. Facet counts cover all
+     * matches and are limited to the {@code facetLimit} largest values per facet.
+     */
+    public Result search(Collection<String> genreFilter, Collection<String> authorFilter, Collection<Integer> decadeFilter,
+                         Boolean availableFilter, int offset, int limit, int facetLimit) {
+        RoaringBitmap available = availabilityIndex.snapshot();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = all;
+            matches = restrict(matches, genres.union(genreFilter));
+            matches = restrict(matches, authors.union(authorFilter));
+            matches = restrict(matches, decades.union(decadeFilter == null ? null : decadeFilter.stream().map(FacetIndex::decadeOf).toList()));
+            if (availableFilter != null) {
+                matches = availableFilter ? RoaringBitmap.and(matches, available) : RoaringBitmap.andNot(matches, available);
+            }
+            int total = matches.getCardinality();
+            Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+            if (matches == all) {
+                counts.put(GENRE, genres.top(genres.sizes, facetLimit));
+                counts.put(AUTHOR, authors.top(authors.sizes, facetLimit));
+                counts.put(DECADE, decades.top(decades.sizes, facetLimit));
+            } else {
+                // One walk over the matches tallies every facet; cheaper than intersecting each value's bitmap
+                int[] genreCounts = new int[genres.labels.size()];
+                int[] authorCounts = new int[authors.labels.size()];
+                int[] decadeCounts = new int[decades.labels.size()];
+                matches.forEach((int id) -> {
+                    genres.tally(genreCounts, id);
+                    authors.tally(authorCounts, id);
+                    decades.tally(decadeCounts, id);
+                });
+                counts.put(GENRE, genres.top(genreCounts, facetLimit));
+                counts.put(AUTHOR, authors.top(authorCounts, facetLimit));
+                counts.put(DECADE, decades.top(decadeCounts, facetLimit));
+            }
+            long availableCount = RoaringBitmap.andCardinality(matches, available);
+            counts.put(AVAILABILITY, List.of(new FacetCount("available", availableCount),
+                    new FacetCount("unavailable", total - availableCount)));
+            return new Result(total, page(matches, offset, limit), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    static String decadeOf(Integer year) {
+        return year == null ? null : String.valueOf(Math.floorDiv(year, 10) * 10);
+    }
+    
+    private static RoaringBitmap restrict(RoaringBitmap matches, RoaringBitmap selection) {
+        return selection == null ? matches : RoaringBitmap.and(matches, selection);
+    }
+    
+    private static List<Long> page(RoaringBitmap matches, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        if (offset >= matches.getCardinality()) {
+            return ids;
+        }
+        // select() jumps straight to the offset instead of walking the bitmap from the start
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded(matches.select(offset));
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+    
+    private void removeLocked(int id) {
+        if (!all.contains(id)) {
+            return;
+        }
+        genres.remove(id);
+        authors.remove(id);
+        decades.remove(id);
+        all.remove(id);
+    }
+    
+    public record Result(long total, List<Long> bookIds, Map<String, List<FacetCount>> facets) {
+    }
+    
+    /**
+     * Values of one facet, matched case-insensitively. Each value has the bitmap of books carrying
+     * it and its size; each book ID maps back to its value ordinal plus one, zero meaning none.
+     */
+    private final class Facet {
+        
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+        private int[] sizes = new int[16];
+        private int[] valueOf = new int[1024];
+        
+        void add(String value, int id) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String label = value.trim();
+            int ordinal = ordinals.computeIfAbsent(label.toLowerCase(Locale.ROOT), key -> {
+                labels.add(label);
+                bitmaps.add(new RoaringBitmap());
+                return labels.size() - 1;
+            });
+            if (ordinal >= sizes.length) {
+                sizes = Arrays.copyOf(sizes, sizes.length * 2);
+            }
+            if (id >= valueOf.length) {
+                valueOf = Arrays.copyOf(valueOf, Math.max(id + 1, valueOf.length * 2));
+            }
+            bitmaps.get(ordinal).add(id);
+            sizes[ordinal]++;
+            valueOf[id] = ordinal + 1;
+        }
+        
+        void remove(int id) {
+            int ordinal = id < valueOf.length ? valueOf[id] - 1 : -1;
+            if (ordinal >= 0) {
+                bitmaps.get(ordinal).remove(id);
+                sizes[ordinal]--;
+                valueOf[id] = 0;
+            }
+        }
+        
+        void clear() {
+            ordinals.clear();
+            labels.clear();
+            bitmaps.clear();
+            sizes = new int[16];
+            valueOf = new int[1024];
+        }
+        
+        RoaringBitmap union(Collection<String> values) {
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            RoaringBitmap union = new RoaringBitmap();
+            for (String value : values) {
+                Integer ordinal = value == null ? null : ordinals.get(value.trim().toLowerCase(Locale.ROOT));
+                if (ordinal != null) {
+                    union.or(bitmaps.get(ordinal));
+                }
+            }
+            return union;
+        }
+        
+        void tally(int[] counts, int id) {
+            int ordinal = valueOf[id] - 1;
+            if (ordinal >= 0) {
+                counts[ordinal]++;
+            }
+        }
+        
+        List<FacetCount> top(int[] counts, int facetLimit) {
+            // Keep the largest values in a bounded min-heap rather than sorting every value
+            Comparator<Integer> bySize = Comparator.<Integer>comparingInt(ordinal -> counts[ordinal])
+                .thenComparing(ordinal -> labels.get(ordinal), Comparator.reverseOrder());
+            PriorityQueue<Integer> largest = new PriorityQueue<>(bySize);
+            int weakest = -1;
+            for (int ordinal = 0; ordinal < labels.size(); ordinal++) {
+                int count = counts[ordinal];
+                if (count == 0 || (weakest >= 0 && (count < counts[weakest]
+                        || (count == counts[weakest] && labels.get(ordinal).compareTo(labels.get(weakest)) > 0)))) {
+                    continue;
+                }
+                largest.add(ordinal);
+                if (largest.size() > facetLimit) {
+                    largest.poll();
+                }
+                weakest = largest.size() == facetLimit ? largest.peek() : -1;
+            }
+            List<FacetCount> result = new ArrayList<>(largest.size());
+            while (!largest.isEmpty()) {
+                int ordinal = largest.poll();
+                result.add(new FacetCount(labels.get(ordinal), counts[ordinal]));
+            }
+            Collections.reverse(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant lookup over title and author tokens. Distinct tokens live in a
+ * {@link LevenshteinTrie}; each token maps to the books that contain it. Results are ranked by
+ * how many query tokens matched, then by total edit distance.
+ */
+@Component
+public class FuzzyBookIndex implements BookIndex {
+    
+    private final LevenshteinTrie terms = new LevenshteinTrie();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> bookTerms = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @Override
+    public void index(Book book) {
+        Set<String> tokens = new LinkedHashSet<>(SearchTokenizer.tokenize(book.getTitle()));
+        tokens.addAll(SearchTokenizer.tokenize(book.getAuthor()));
+        lock.writeLock().lock();
+        try {
+            removeLocked(book.getBookId());
+            for (String token : tokens) {
+                Set<Long> books = postings.get(token);
+                if (books == null) {
+                    books = new HashSet<>(4);
+                    postings.put(token, books);
+                    terms.add(token);
+                }
+                books.add(book.getBookId());
+            }
+            bookTerms.put(book.getBookId(), tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            postings.clear();
+            bookTerms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = SearchTokenizer.tokenize(query);
+        // bookId -> {matched query tokens, summed distance}
+        Map<Long, int[]> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> best = new HashMap<>();
+                terms.search(queryToken, maxDistance(queryToken), (term, distance) -> {
+                    Set<Long> books = postings.get(term);
+                    if (books != null) {
+                        for (Long bookId : books) {
+                            best.merge(bookId, distance, Math::min);
+                        }
+                    }
+                });
+                best.forEach((bookId, distance) -> {
+                    int[] score = scores.computeIfAbsent(bookId, id -> new int[2]);
+                    score[0]++;
+                    score[1] += distance;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<Long, int[]>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((x, y) -> {
+            int byMatches = Integer.compare(y.getValue()[0], x.getValue()[0]);
+            if (byMatches != 0) {
+                return byMatches;
+            }
+            int byDistance = Integer.compare(x.getValue()[1], y.getValue()[1]);
+            return byDistance != 0 ? byDistance : x.getKey().compareTo(y.getKey());
+        });
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+    
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Short tokens tolerate fewer typos, otherwise everything three letters long matches everything
+    static int maxDistance(String token) {
+        if (token.length() <= 3) {
+            return token.length() <= 2 ? 0 : 1;
+        }
+        return token.length() <= 6 ? 1 : 2;
+    }
+    
+    private void removeLocked(Long bookId) {
+        Set<String> tokens = bookTerms.remove(bookId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Set<Long> books = postings.get(token);
+            if (books != null) {
+                books.remove(bookId);
+                if (books.isEmpty()) {
+                    postings.remove(token);
+                    terms.remove(token);
+                }
+            }
+        }
+    }
+}
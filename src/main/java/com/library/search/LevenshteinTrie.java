@@ -0,0 +1,159 @@
+package com.library.search;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Trie of terms searched with a Levenshtein automaton simulated one dynamic-programming row per
+ * trie edge. A subtree is abandoned as soon as every cell of its row exceeds the allowed
+ * distance, so a lookup touches only prefixes that can still lead to a match. Not thread-safe;
+ * callers lock around it.
+ */
+class LevenshteinTrie {
+    
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        String term;
+        
+        Node child(char key) {
+            int slot = Arrays.binarySearch(keys, key);
+            return slot >= 0 ? children[slot] : null;
+        }
+        
+        Node addChild(char key) {
+            int slot = Arrays.binarySearch(keys, key);
+            if (slot >= 0) {
+                return children[slot];
+            }
+            int insertAt = -slot - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+        
+        void removeChild(char key) {
+            int slot = Arrays.binarySearch(keys, key);
+            if (slot < 0) {
+                return;
+            }
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            System.arraycopy(keys, slot + 1, newKeys, slot, keys.length - slot - 1);
+            System.arraycopy(children, slot + 1, newChildren, slot, children.length - slot - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+    
+    private Node root = new Node();
+    private int size;
+    private int maxLength;
+    
+    void add(String term) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.addChild(term.charAt(i));
+        }
+        if (node.term == null) {
+            node.term = term;
+            size++;
+            maxLength = Math.max(maxLength, term.length());
+        }
+    }
+    
+    /**
+     * Removes {@code term} and prunes the nodes left with neither a term nor children. The longest
+     * length seen is kept, which only sizes the rows a search allocates.
+     */
+    void remove(String term) {
+        Node[] path = new Node[term.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].child(term.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[term.length()];
+        if (node.term == null) {
+            return;
+        }
+        node.term = null;
+        size--;
+        for (int depth = term.length(); depth > 0 && path[depth].term == null && path[depth].keys.length == 0; depth--) {
+            path[depth - 1].removeChild(term.charAt(depth - 1));
+        }
+    }
+    
+    void search(String query, int maxDistance, ObjIntConsumer<String> matches) {
+        int width = query.length() + 1;
+        // One reusable row per trie depth keeps the walk allocation-free after this point
+        int[][] rows = new int[Math.min(maxLength, query.length() + maxDistance) + 1][width];
+        for (int j = 0; j < width; j++) {
+            rows[0][j] = j;
+        }
+        if (root.term != null && query.length() <= maxDistance) {
+            matches.accept(root.term, query.length());
+        }
+        for (int i = 0; i < root.keys.length; i++) {
+            walk(root.children[i], root.keys[i], 1, query, maxDistance, rows, matches);
+        }
+    }
+    
+    private void walk(Node node, char key, int depth, String query, int maxDistance,
+                      int[][] rows, ObjIntConsumer<String> matches) {
+        if (depth >= rows.length) {
+            return;
+        }
+        int[] previous = rows[depth - 1];
+        int[] current = rows[depth];
+        current[0] = depth;
+        int rowMin = depth;
+        for (int j = 1; j < current.length; j++) {
+            int cost = query.charAt(j - 1) == key ? 0 : 1;
+            int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            current[j] = value;
+            if (value < rowMin) {
+                rowMin = value;
+            }
+        }
+        int distance = current[current.length - 1];
+        if (node.term != null && distance <= maxDistance) {
+            matches.accept(node.term, distance);
+        }
+        if (rowMin <= maxDistance) {
+            for (int i = 0; i < node.keys.length; i++) {
+                walk(node.children[i], node.keys[i], depth + 1, query, maxDistance, rows, matches);
+            }
+        }
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    void clear() {
+        root = new Node();
+        size = 0;
+        maxLength = 0;
+    }
+}
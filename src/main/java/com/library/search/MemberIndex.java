@@ -0,0 +1,254 @@
+package com.library.search;
+
+import com.library.entity.Member;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Trigram index over member name, email and phone: for every three-character run of each
+ * lower-cased field, a compressed bitmap of the members whose field contains it. A substring
+ * search intersects the bitmaps of the term's trigrams, rarest first, which narrows millions of
+ * members to a few candidates without scanning the table.
+ * <p>
+ * Candidates are a superset of the matches: a member holding every trigram of a term need not
+ * hold the term itself, and an edited member keeps the trigrams of its old values until the next
+ * {@link #rebuild}, which {@link MemberIndexInitializer} runs periodically once members have been
+ * edited. Callers load the candidates and check them against the term.
+ */
+@Component
+public class MemberIndex {
+    
+    public static final int MIN_TERM_LENGTH = 3;
+    
+    private Map<Long, RoaringBitmap> postings = new HashMap<>();
+    private RoaringBitmap live = new RoaringBitmap();
+    private List<Change> changedDuringRebuild;
+    private long edited;
+    private volatile boolean ready;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public void index(Member member) {
+        int id = Math.toIntExact(member.getMemberId());
+        lock.writeLock().lock();
+        try {
+            if (live.contains(id)) {
+                edited++;
+            }
+            add(postings, id, member);
+            live.add(id);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(new Change(id, member));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long memberId) {
+        int id = Math.toIntExact(memberId);
+        lock.writeLock().lock();
+        try {
+            live.remove(id);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(new Change(id, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replaces the index with one built from all members, which also drops the trigrams of old
+     * field values. Members indexed or removed while the rebuild reads the table are replayed onto
+     * the new index, so nothing committed meanwhile is lost.
+     */
+    public void rebuild(Iterable<Member> members) {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        PostingsBuilder builder = new PostingsBuilder();
+        RoaringBitmap rebuiltLive = new RoaringBitmap();
+        try {
+            for (Member member : members) {
+                int id = Math.toIntExact(member.getMemberId());
+                builder.add(id, member);
+                rebuiltLive.add(id);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        Map<Long, RoaringBitmap> rebuilt = builder.build();
+        lock.writeLock().lock();
+        try {
+            // A replayed edit may add to trigrams the table read already took from the old values
+            edited = 0;
+            for (Change change : changedDuringRebuild) {
+                if (change.member() == null) {
+                    rebuiltLive.remove(change.id());
+                } else {
+                    if (rebuiltLive.contains(change.id())) {
+                        edited++;
+                    }
+                    add(rebuilt, change.id(), change.member());
+                    rebuiltLive.add(change.id());
+                }
+            }
+            changedDuringRebuild = null;
+            postings = rebuilt;
+            live = rebuiltLive;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * IDs of the members whose name, email or phone may contain the term, in ascending order; null
+     * when the term is too short to narrow the search or the index has not been built yet.
+     */
+    public RoaringBitmap candidates(String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        if (needle.length() < MIN_TERM_LENGTH || !ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(needle.length() - 2);
+            for (int i = 0; i + MIN_TERM_LENGTH <= needle.length(); i++) {
+                RoaringBitmap bitmap = postings.get(trigram(needle, i));
+                if (bitmap == null) {
+                    return new RoaringBitmap();
+                }
+                bitmaps.add(bitmap);
+            }
+            bitmaps.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+            bitmaps.add(live);
+            return FastAggregation.naive_and(bitmaps.iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** Members re-indexed since the last rebuild, whose old trigrams may still be in the index. */
+    public long editedSinceRebuild() {
+        lock.readLock().lock();
+        try {
+            return edited;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /** An indexed member, or a removed one when {@code member} is null. */
+    private record Change(int id, Member member) {
+    }
+    
+    /**
+     * Collects (trigram, member) pairs and adds them to the bitmaps one sorted batch at a time.
+     * Adding member by member touches a different bitmap for every trigram, and on millions of
+     * members those scattered writes are most of the build time.
+     */
+    private static final class PostingsBuilder {
+        
+        private static final int BATCH_SIZE = 1 << 20;
+        
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+        private final long[] pairs = new long[BATCH_SIZE];
+        private final int[] ids = new int[BATCH_SIZE];
+        private int size;
+        
+        void add(int id, Member member) {
+            forEachTrigram(member, gram -> {
+                if (size == pairs.length) {
+                    flush();
+                }
+                Integer code = codes.get(gram);
+                if (code == null) {
+                    code = bitmaps.size();
+                    bitmaps.add(new RoaringBitmap());
+                    codes.put(gram, code);
+                }
+                pairs[size++] = (long) code << 32 | id;
+            });
+        }
+        
+        Map<Long, RoaringBitmap> build() {
+            flush();
+            Map<Long, RoaringBitmap> postings = new HashMap<>(codes.size() * 2);
+            codes.forEach((gram, code) -> {
+                RoaringBitmap bitmap = bitmaps.get(code);
+                // Dense postings such as those of a shared email domain shrink to runs
+                bitmap.runOptimize();
+                postings.put(gram, bitmap);
+            });
+            return postings;
+        }
+        
+        private void flush() {
+            Arrays.sort(pairs, 0, size);
+            int i = 0;
+            while (i < size) {
+                int code = (int) (pairs[i] >>> 32);
+                int n = 0;
+                while (i < size && (int) (pairs[i] >>> 32) == code) {
+                    ids[n++] = (int) pairs[i++];
+                }
+                bitmaps.get(code).addN(ids, 0, n);
+            }
+            size = 0;
+        }
+    }
+    
+    private static void add(Map<Long, RoaringBitmap> postings, int id, Member member) {
+        forEachTrigram(member, gram -> postings.computeIfAbsent(gram, key -> new RoaringBitmap()).add(id));
+    }
+    
+    private static void forEachTrigram(Member member, LongConsumer action) {
+        // Fields are indexed separately so no trigram spans the end of one and the start of the next
+        for (String field : new String[]{member.getName(), member.getEmail(), member.getPhone()}) {
+            if (field == null) {
+                continue;
+            }
+            String value = field.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + MIN_TERM_LENGTH <= value.length(); i++) {
+                action.accept(trigram(value, i));
+            }
+        }
+    }
+    
+    private static long trigram(String value, int start) {
+        long packed = ((long) value.charAt(start) << 32) | ((long) value.charAt(start + 1) << 16) | value.charAt(start + 2);
+        // Long.hashCode folds the first character onto the other two and would pile trigrams into a
+        // few HashMap bins; an odd multiplier keeps keys distinct and spreads them over all bits
+        return packed * 0x9E3779B97F4A7C15L;
+    }
+}
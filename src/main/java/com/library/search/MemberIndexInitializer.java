@@ -0,0 +1,86 @@
+package com.library.search;
+
+import com.library.entity.Member;
+import com.library.repository.MemberRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Builds the {@link MemberIndex} once the application has started, and again every
+ * {@code refresh-interval-ms} if members have been edited since, to drop the trigrams of their
+ * old values. Members are read in keyset pages, so neither the whole table nor a deep offset scan
+ * is ever needed.
+ */
+@Component
+public class MemberIndexInitializer {
+    
+    private static final Logger log = LoggerFactory.getLogger(MemberIndexInitializer.class);
+    private static final int PAGE_SIZE = 5000;
+    
+    @Autowired
+    private MemberRepository memberRepository;
+    
+    @Autowired
+    private MemberIndex memberIndex;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        memberIndex.rebuild(this::allMembers);
+        log.info("Indexed {} members for search", memberIndex.size());
+    }
+    
+    @Scheduled(fixedDelayString = "${library.member-index.refresh-interval-ms:3600000}",
+               initialDelayString = "${library.member-index.refresh-interval-ms:3600000}")
+    public void refresh() {
+        long edited = memberIndex.editedSinceRebuild();
+        if (edited > 0) {
+            log.info("Rebuilding the member index after {} edits", edited);
+            rebuild();
+        }
+    }
+    
+    private Iterator<Member> allMembers() {
+        return new Iterator<>() {
+            
+            private List<Member> page = List.of();
+            private int next;
+            private long afterId;
+            private boolean last;
+            
+            @Override
+            public boolean hasNext() {
+                if (next < page.size()) {
+                    return true;
+                }
+                if (last) {
+                    return false;
+                }
+                page = memberRepository.findByMemberIdGreaterThan(afterId, PageRequest.of(0, PAGE_SIZE, Sort.by("memberId")));
+                next = 0;
+                last = page.size() < PAGE_SIZE;
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getMemberId();
+                }
+                return !page.isEmpty();
+            }
+            
+            @Override
+            public Member next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(next++);
+            }
+        };
+    }
+}
@@ -0,0 +1,5 @@
+package com.library.search;
+
+public enum SearchMode {
+    SUBSTRING, FUZZY, RELEVANCE
+}
@@ -1,43 +1,181 @@
 package com.library.service;
 
+import com.library.cache.BookCache;
+import com.library.cache.BookSearchCache;
+import com.library.dto.AutocompleteSuggestion;
+import com.library.dto.BatchResult;
+import com.library.dto.BookPage;
+import com.library.dto.FacetedSearchResult;
+import com.library.dto.RecommendedBook;
 import com.library.entity.Book;
+import com.library.entity.ChangeLogEntry;
+import com.library.latency.RecordLatency;
+import com.library.recommendation.RecommendationEngine;
 import com.library.repository.BookRepository;
+import com.library.repository.FieldProjection;
+import com.library.repository.ProjectionRepository;
+import com.library.search.AutocompleteIndex;
+import com.library.search.AvailabilityIndex;
+import com.library.search.Bm25BookIndex;
+import com.library.search.BookIndex;
+import com.library.search.FacetIndex;
+import com.library.search.FuzzyBookIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed("library.service")
 public class BookService {
     
     @Autowired
     private BookRepository bookRepository;
     
+    @Autowired
+    private ProjectionRepository projectionRepository;
+    
+    @Autowired
+    private FuzzyBookIndex fuzzyBookIndex;
+    
+    @Autowired
+    private Bm25BookIndex bm25BookIndex;
+    
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
+    @Autowired
+    private FacetIndex facetIndex;
+    
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    
+    @Autowired
+    private BookCache bookCache;
+    
+    @Autowired
+    private BookSearchCache bookSearchCache;
+    
+    @Autowired
+    private RecommendationEngine recommendationEngine;
+    
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    
+    @Autowired
+    private List<BookIndex> bookIndexes = new ArrayList<>();
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
     
+    /** All books with only the given fields and the ID selected. */
+    public List<Map<String, Object>> getAllBooks(List<String> fields) {
+        return projectionRepository.findAll(FieldProjection.BOOK, fields);
+    }
+    
     public Optional<Book> getBookById(Long id) {
         return bookRepository.findById(id);
     }
     
+    /** The book's version without loading the rest of the row, empty if there is no such book. */
+    public Optional<Long> getBookVersion(Long id) {
+        return bookRepository.findVersionById(id);
+    }
+    
+    /** Version of the whole catalogue; it moves whenever any book changes. */
+    public String getCatalogueVersion() {
+        return changeFeedService.collectionVersion(ChangeLogEntry.EntityType.BOOK);
+    }
+    
+    public BatchResult<Book> getBooksByIds(List<Long> ids) {
+        return BatchResult.of(ids, bookCache.getAll(ids), Book::getBookId);
+    }
+    
+    @Transactional
     public Book saveBook(Book book) {
         if (book.getTotalCopies() == null) {
             book.setTotalCopies(book.getAvailableCopies());
         }
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        changeFeedService.record(ChangeLogEntry.EntityType.BOOK, savedBook.getBookId(), ChangeLogEntry.Operation.UPSERT);
+        TransactionCallbacks.afterCommit(() -> {
+            bookCache.invalidate(savedBook.getBookId());
+            bookSearchCache.invalidate(savedBook.getBookId(), savedBook);
+            bookIndexes.forEach(index -> index.index(savedBook));
+        });
+        return savedBook;
     }
     
+    @Transactional
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        changeFeedService.record(ChangeLogEntry.EntityType.BOOK, id, ChangeLogEntry.Operation.DELETE);
+        TransactionCallbacks.afterCommit(() -> {
+            bookCache.invalidate(id);
+            bookSearchCache.invalidate(id, null);
+            bookIndexes.forEach(index -> index.remove(id));
+        });
     }
     
+    @RecordLatency
     public List<Book> searchBooks(String keyword) {
-        return bookRepository.searchBooks(keyword);
+        return bookSearchCache.get(keyword);
+    }
+    
+    @RecordLatency
+    public List<Book> searchBooksFuzzy(String keyword, int limit) {
+        return findAllInOrder(fuzzyBookIndex.search(keyword, limit));
+    }
+    
+    @RecordLatency
+    public List<Book> searchBooksByRelevance(String keyword, int limit) {
+        return findAllInOrder(bm25BookIndex.search(keyword, limit));
+    }
+    
+    public List<AutocompleteSuggestion> autocomplete(String prefix, int limit) {
+        return autocompleteIndex.suggest(prefix, limit);
+    }
+    
+    public FacetedSearchResult searchByFacets(List<String> genres, List<String> authors, List<Integer> decades,
+                                              Boolean available, int offset, int limit, int facetLimit) {
+        FacetIndex.Result result = facetIndex.search(genres, authors, decades, available, offset, limit, facetLimit);
+        return new FacetedSearchResult(result.total(), findAllInOrder(result.bookIds()), result.facets());
+    }
+    
+    public BookPage getAvailableBooks(int offset, int limit) {
+        AvailabilityIndex.Page page = availabilityIndex.page(offset, limit);
+        return new BookPage(page.total(), bookCache.getAll(page.bookIds()));
     }
     
-    public List<Book> getAvailableBooks() {
-        return bookRepository.findByAvailableCopiesGreaterThan(0);
+    public List<RecommendedBook> getRecommendations(Long bookId, int limit) {
+        List<RecommendationEngine.Recommendation> recommendations = recommendationEngine.similar(bookId, limit);
+        List<Long> ids = new ArrayList<>(recommendations.size());
+        for (RecommendationEngine.Recommendation recommendation : recommendations) {
+            ids.add(recommendation.bookId());
+        }
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookCache.getAll(ids)) {
+            books.put(book.getBookId(), book);
+        }
+        List<RecommendedBook> result = new ArrayList<>(recommendations.size());
+        for (RecommendationEngine.Recommendation recommendation : recommendations) {
+            Book book = books.get(recommendation.bookId());
+            if (book != null) {
+                result.add(new RecommendedBook(book, recommendation.score(), recommendation.sharedBorrowers()));
+            }
+        }
+        return result;
     }
     
     public boolean isBookAvailable(Long bookId) {
@@ -45,23 +183,53 @@ public class BookService {
         return book.isPresent() && book.get().getAvailableCopies() > 0;
     }
     
-    public void decreaseAvailableCopies(Long bookId) {
-        Optional<Book> bookOpt = bookRepository.findById(bookId);
-        if (bookOpt.isPresent()) {
-            Book book = bookOpt.get();
-            if (book.getAvailableCopies() > 0) {
-                book.setAvailableCopies(book.getAvailableCopies() - 1);
-                bookRepository.save(book);
-            }
+    /**
+     * Takes one copy off the shelf with a conditional update, so concurrent borrows of the last
+     * copy cannot both succeed. Returns false if the book is missing or has no copy left.
+     */
+    public boolean decreaseAvailableCopies(Long bookId) {
+        if (bookRepository.decrementAvailableCopies(bookId) == 0) {
+            return false;
         }
+        availableCopiesChanged(bookId);
+        return true;
     }
     
     public void increaseAvailableCopies(Long bookId) {
-        Optional<Book> bookOpt = bookRepository.findById(bookId);
-        if (bookOpt.isPresent()) {
-            Book book = bookOpt.get();
-            book.setAvailableCopies(book.getAvailableCopies() + 1);
-            bookRepository.save(book);
+        if (bookRepository.incrementAvailableCopies(bookId) > 0) {
+            availableCopiesChanged(bookId);
+        }
+    }
+    
+    // The bulk update bypasses the persistence context, so the book is refreshed for the caller and
+    // its new count and version, which the update's row lock holds until commit, go to the indexes.
+    // Search results are left alone: a change of copies cannot change which books a term matches,
+    // and the copies they show catch up within the search cache's refresh-after
+    private void availableCopiesChanged(Long bookId) {
+        Book book = entityManager.getReference(Book.class, bookId);
+        entityManager.refresh(book);
+        int copies = book.getAvailableCopies();
+        long version = book.getVersion();
+        changeFeedService.record(ChangeLogEntry.EntityType.BOOK, bookId, ChangeLogEntry.Operation.UPSERT);
+        TransactionCallbacks.afterCommit(() -> {
+            bookCache.invalidate(bookId);
+            bookIndexes.forEach(index -> index.availableCopiesChanged(bookId, copies, version));
+        });
+    }
+    
+    // Loads books by ID and returns them in the order of the given IDs, skipping missing ones
+    private List<Book> findAllInOrder(List<Long> ids) {
+        Map<Long, Book> byId = new HashMap<>();
+        for (Book book : bookRepository.findAllById(ids)) {
+            byId.put(book.getBookId(), book);
+        }
+        List<Book> books = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                books.add(book);
+            }
         }
+        return books;
     }
 }
@@ -0,0 +1,67 @@
+package com.library.service;
+
+import com.library.repository.BorrowingTransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves returned transactions older than the retention period from {@code borrowing_transactions}
+ * into {@code borrowing_transactions_archive}. Each batch is copied and deleted in its own
+ * transaction so the active table is never locked for the whole run.
+ */
+@Service
+@Timed("library.service")
+public class BorrowingArchiveService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BorrowingArchiveService.class);
+    
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${library.archive.retention-days:90}")
+    private int retentionDays;
+    
+    @Value("${library.archive.batch-size:500}")
+    private int batchSize;
+    
+    @Scheduled(cron = "${library.archive.cron:0 30 2 * * *}")
+    public void archiveReturnedTransactions() {
+        int archived = archiveReturnedBefore(LocalDate.now().minusDays(retentionDays));
+        if (archived > 0) {
+            log.info("Archived {} returned borrowing transactions", archived);
+        }
+    }
+    
+    public int archiveReturnedBefore(LocalDate cutoff) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += archived;
+        } while (archived == batchSize);
+        return total;
+    }
+    
+    private int archiveBatch(LocalDate cutoff) {
+        List<Long> ids = borrowingRepository.findArchivableTransactionIds(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        borrowingRepository.copyToArchive(ids);
+        return borrowingRepository.deleteByTransactionIds(ids);
+    }
+}
@@ -1,49 +1,114 @@
 package com.library.service;
 
+import com.library.cache.ActiveLoanCounter;
+import com.library.cache.BookCache;
+import com.library.dto.BorrowingHistoryEntry;
+import com.library.dto.BorrowingHistoryPage;
+import com.library.dto.TrendingBook;
 import com.library.entity.BorrowingTransaction;
 import com.library.entity.Book;
 import com.library.entity.Member;
+import com.library.latency.RecordLatency;
+import com.library.repository.ArchivedBorrowingTransactionRepository;
+import com.library.recommendation.RecommendationEngine;
 import com.library.repository.BorrowingTransactionRepository;
+import com.library.repository.FieldProjection;
+import com.library.repository.ProjectionRepository;
+import com.library.trending.TrendingTracker;
+import com.library.trending.TrendingWindow;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed("library.service")
 public class BorrowingService {
     
     @Autowired
     private BorrowingTransactionRepository borrowingRepository;
     
+    @Autowired
+    private ArchivedBorrowingTransactionRepository archivedBorrowingRepository;
+    
+    @Autowired
+    private ProjectionRepository projectionRepository;
+    
     @Autowired
     private BookService bookService;
     
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private ActiveLoanCounter activeLoanCounter;
+    
+    @Autowired
+    private TrendingTracker trendingTracker;
+    
+    @Autowired
+    private RecommendationEngine recommendationEngine;
+    
+    @Autowired
+    private BookCache bookCache;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     private static final int MAX_BORROWING_LIMIT = 5;
     private static final int BORROWING_PERIOD_DAYS = 14;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_TRENDING_SIZE = 100;
+    private static final LocalDate HISTORY_START_DATE = LocalDate.of(1900, 1, 1);
+    private static final Comparator<BorrowingHistoryEntry> HISTORY_ORDER =
+        Comparator.comparing(BorrowingHistoryEntry::getBorrowDate)
+            .thenComparing(BorrowingHistoryEntry::getTransactionId)
+            .reversed();
     
     public List<BorrowingTransaction> getAllTransactions() {
         return borrowingRepository.findAll();
     }
     
+    /** All transactions with only the given fields and the ID selected. */
+    public List<Map<String, Object>> getAllTransactions(List<String> fields) {
+        return projectionRepository.findAll(FieldProjection.BORROWING, fields);
+    }
+    
     public Optional<BorrowingTransaction> getTransactionById(Long id) {
         return borrowingRepository.findById(id);
     }
     
+    @RecordLatency
+    @Counted(value = "library.borrowings", description = "Borrow attempts, tagged by result and exception")
     @Transactional
     public BorrowingTransaction borrowBook(Long bookId, Long memberId) {
-        // Check if member has reached borrowing limit
-        Member member = new Member();
-        member.setMemberId(memberId);
-        long activeBorrowings = borrowingRepository.countActiveBorrowingsByMember(member);
-        
-        if (activeBorrowings >= MAX_BORROWING_LIMIT) {
+        // Reserve a loan slot; the slot is handed back if this transaction rolls back
+        if (!activeLoanCounter.tryAcquire(memberId, MAX_BORROWING_LIMIT)) {
             throw new RuntimeException("Member has reached maximum borrowing limit");
         }
+        TransactionCallbacks.afterRollback(() -> activeLoanCounter.release(memberId));
+        TransactionCallbacks.afterCompletion(() -> activeLoanCounter.settle(memberId));
+        
+        // Loaded rather than new instances: a versioned entity without its version is rejected on save
+        Member member = entityManager.find(Member.class, memberId);
+        if (member == null) {
+            throw new RuntimeException("Member not found");
+        }
         
         // Check if book is available
         if (!bookService.isBookAvailable(bookId)) {
@@ -52,16 +117,19 @@ public class BorrowingService {
         
         // Create borrowing transaction
         BorrowingTransaction transaction = new BorrowingTransaction();
-        Book book = new Book();
-        book.setBookId(bookId);
+        // Already in the persistence context since the availability check
+        Book book = entityManager.find(Book.class, bookId);
         transaction.setBook(book);
         transaction.setMember(member);
         transaction.setBorrowDate(LocalDate.now());
         transaction.setDueDate(LocalDate.now().plusDays(BORROWING_PERIOD_DAYS));
         transaction.setStatus(BorrowingTransaction.TransactionStatus.BORROWED);
         
-        // Decrease available copies
-        bookService.decreaseAvailableCopies(bookId);
+        // Take a copy off the shelf, which refreshes the book with its new count and version;
+        // another borrower may have taken the last one since the check
+        if (!bookService.decreaseAvailableCopies(bookId)) {
+            throw new RuntimeException("Book is not available for borrowing");
+        }
         
         // Save transaction
         BorrowingTransaction savedTransaction = borrowingRepository.save(transaction);
@@ -69,12 +137,21 @@ public class BorrowingService {
         // Send notification
         notificationService.sendBorrowingConfirmation(member, book);
         
+        // Count towards the trending list and recommendations only once the borrow is committed
+        TransactionCallbacks.afterCommit(() -> {
+            trendingTracker.record(bookId);
+            recommendationEngine.record(memberId, bookId);
+        });
+        
         return savedTransaction;
     }
     
+    @RecordLatency
+    @Counted(value = "library.returns", description = "Return attempts, tagged by result and exception")
     @Transactional
     public BorrowingTransaction returnBook(Long transactionId) {
-        Optional<BorrowingTransaction> transactionOpt = borrowingRepository.findById(transactionId);
+        // One select brings the transaction together with its book and member
+        Optional<BorrowingTransaction> transactionOpt = borrowingRepository.findByIdWithBookAndMember(transactionId);
         
         if (transactionOpt.isEmpty()) {
             throw new RuntimeException("Transaction not found");
@@ -86,20 +163,31 @@ public class BorrowingService {
             throw new RuntimeException("Book is already returned");
         }
         
-        // Update transaction
-        transaction.setReturnDate(LocalDate.now());
+        // Hold the member's loan counter before the loan changes; the slot is released once the
+        // return is committed, and the counter is kept meanwhile so it is neither reloaded nor
+        // reconciled against a count that already excludes the loan
+        Long memberId = transaction.getMember().getMemberId();
+        activeLoanCounter.hold(memberId);
+        TransactionCallbacks.afterCompletion(() -> activeLoanCounter.settle(memberId));
+        
+        // Update transaction only if nobody returned it in the meantime
+        LocalDate returnDate = LocalDate.now();
+        if (borrowingRepository.markReturned(transactionId, returnDate) == 0) {
+            throw new RuntimeException("Book is already returned");
+        }
+        transaction.setReturnDate(returnDate);
         transaction.setStatus(BorrowingTransaction.TransactionStatus.RETURNED);
         
         // Increase available copies
-        bookService.increaseAvailableCopies(transaction.getBook().getBookId());
-        
-        // Save transaction
-        BorrowingTransaction savedTransaction = borrowingRepository.save(transaction);
+        Book book = transaction.getBook();
+        Member member = transaction.getMember();
+        bookService.increaseAvailableCopies(book.getBookId());
         
-        // Send notification
-        notificationService.sendReturnConfirmation(transaction.getMember(), transaction.getBook());
+        // Release the loan slot and send the notification once the return is committed
+        TransactionCallbacks.afterCommit(() -> activeLoanCounter.release(memberId));
+        TransactionCallbacks.afterCommit(() -> notificationService.sendReturnConfirmation(member, book));
         
-        return savedTransaction;
+        return transaction;
     }
     
     public List<BorrowingTransaction> getMemberBorrowings(Long memberId) {
@@ -108,6 +196,101 @@ public class BorrowingService {
         return borrowingRepository.findByMemberAndStatus(member, BorrowingTransaction.TransactionStatus.BORROWED);
     }
     
+    /** The member's open loans, earliest due first, with their books loaded. */
+    public List<BorrowingTransaction> getActiveLoans(Long memberId) {
+        return borrowingRepository.findActiveLoansWithBook(memberId);
+    }
+    
+    public BorrowingHistoryPage getMemberHistory(Long memberId, LocalDate from, LocalDate to, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("History page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        LocalDate rangeStart = from != null ? from : HISTORY_START_DATE;
+        LocalDate rangeEnd = to != null ? to : LocalDate.now();
+        
+        // Start just past the newest possible row, or resume after the last row of the previous page
+        LocalDate afterDate = rangeEnd.plusDays(1);
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            HistoryPosition position = decodeHistoryCursor(cursor);
+            afterDate = position.borrowDate();
+            afterId = position.transactionId();
+        }
+        
+        // Fetch one extra row from each source to know whether another page exists
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<BorrowingHistoryEntry> active = borrowingRepository.findMemberHistoryPage(
+            memberId, rangeStart, rangeEnd, afterDate, afterId, window);
+        List<BorrowingHistoryEntry> archived = archivedBorrowingRepository.findMemberHistoryPage(
+            memberId, rangeStart, rangeEnd, afterDate, afterId, window);
+        
+        List<BorrowingHistoryEntry> merged = new ArrayList<>(Math.min(active.size() + archived.size(), limit + 1));
+        int a = 0;
+        int b = 0;
+        while (merged.size() <= limit && (a < active.size() || b < archived.size())) {
+            if (b >= archived.size() || (a < active.size()
+                    && HISTORY_ORDER.compare(active.get(a), archived.get(b)) <= 0)) {
+                merged.add(active.get(a++));
+            } else {
+                merged.add(archived.get(b++));
+            }
+        }
+        
+        String nextCursor = null;
+        if (merged.size() > limit) {
+            merged.remove(limit);
+            BorrowingHistoryEntry last = merged.get(limit - 1);
+            nextCursor = encodeHistoryCursor(last.getBorrowDate(), last.getTransactionId());
+        }
+        return new BorrowingHistoryPage(merged, nextCursor);
+    }
+    
+    private static String encodeHistoryCursor(LocalDate borrowDate, Long transactionId) {
+        String position = borrowDate + ":" + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Every malformed cursor, whatever part of it fails to parse, is an IllegalArgumentException
+    private static HistoryPosition decodeHistoryCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+            return new HistoryPosition(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+    }
+    
+    private record HistoryPosition(LocalDate borrowDate, long transactionId) {
+    }
+    
+    public List<TrendingBook> getTrendingBooks(TrendingWindow window, int limit) {
+        if (limit < 1 || limit > MAX_TRENDING_SIZE) {
+            throw new IllegalArgumentException("Trending list size must be between 1 and " + MAX_TRENDING_SIZE);
+        }
+        List<TrendingTracker.Entry> entries = trendingTracker.top(window, limit);
+        List<Long> bookIds = new ArrayList<>(entries.size());
+        for (TrendingTracker.Entry entry : entries) {
+            bookIds.add(entry.bookId());
+        }
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookCache.getAll(bookIds)) {
+            books.put(book.getBookId(), book);
+        }
+        // Books deleted since they were borrowed drop off the list
+        List<TrendingBook> trending = new ArrayList<>(entries.size());
+        for (TrendingTracker.Entry entry : entries) {
+            Book book = books.get(entry.bookId());
+            if (book != null) {
+                trending.add(new TrendingBook(book, entry.borrows(), entry.maxOverestimate()));
+            }
+        }
+        return trending;
+    }
+    
     public List<BorrowingTransaction> getOverdueTransactions() {
         return borrowingRepository.findOverdueTransactions(LocalDate.now());
     }
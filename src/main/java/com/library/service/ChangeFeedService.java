@@ -0,0 +1,176 @@
+package com.library.service;
+
+import com.library.dto.ChangeFeedEntry;
+import com.library.dto.ChangeFeedPage;
+import com.library.entity.Book;
+import com.library.entity.ChangeLogEntry;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.ChangeLogRepository;
+import com.library.repository.MemberRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change feed over books and members. Writers {@link #record} every save and delete in their own
+ * transaction, and clients page through the log with the last version they saw, so they fetch
+ * only what changed since.
+ * <p>
+ * Change IDs are handed out here in the order changes start, not the order they commit: change
+ * 11 may commit while change 10 is still open. A page therefore stops below the oldest change this
+ * application still has open, or a client could step past change 10 and never see it. The counter
+ * and that watermark are kept in memory, so they assume a single application instance writes the
+ * log.
+ */
+@Service
+@Timed("library.service")
+public class ChangeFeedService {
+    
+    /** Most changes one page returns. */
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private MemberRepository memberRepository;
+    
+    private final ConcurrentSkipListSet<Long> open = new ConcurrentSkipListSet<>();
+    private long maxAssigned;
+    private final Map<ChangeLogEntry.EntityType, AtomicLong> transitions = new EnumMap<>(ChangeLogEntry.EntityType.class);
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    
+    public ChangeFeedService() {
+        for (ChangeLogEntry.EntityType type : ChangeLogEntry.EntityType.values()) {
+            transitions.put(type, new AtomicLong());
+        }
+    }
+    
+    @PostConstruct
+    void init() {
+        synchronized (this) {
+            maxAssigned = changeLogRepository.findMaxChangeId();
+        }
+    }
+    
+    /** Logs a change in the caller's transaction; it becomes visible to the feed once that commits. */
+    public void record(ChangeLogEntry.EntityType type, Long entityId, ChangeLogEntry.Operation operation) {
+        AtomicLong typeTransitions = transitions.get(type);
+        typeTransitions.incrementAndGet();
+        long changeId;
+        // Assigning the ID and marking it open happen together, so no reader sees one without the
+        // other; the insert runs after, outside the lock
+        synchronized (this) {
+            changeId = ++maxAssigned;
+            open.add(changeId);
+        }
+        try {
+            changeLogRepository.insert(changeId, type.name(), entityId, operation.name(), LocalDateTime.now());
+        } catch (RuntimeException e) {
+            open.remove(changeId);
+            throw e;
+        }
+        TransactionCallbacks.afterCompletion(() -> {
+            open.remove(changeId);
+            typeTransitions.incrementAndGet();
+        });
+    }
+    
+    /**
+     * Version of every book or every member taken together, for collection ETags. It moves when a
+     * change of that type starts and again when it commits or rolls back, so a list read at one
+     * value cannot differ from a list read later at the same value. A max-version query cannot
+     * promise that: updating any row but the newest leaves the maximum where it was.
+     */
+    public String collectionVersion(ChangeLogEntry.EntityType type) {
+        return epoch + "-" + transitions.get(type).get();
+    }
+    
+    /**
+     * Changes after {@code since}, oldest first, optionally of one entity type. Each entity appears
+     * at most once per page, with its latest change and its current state; one that no longer
+     * exists is reported as deleted.
+     */
+    public ChangeFeedPage getChanges(long since, ChangeLogEntry.EntityType type, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long before = watermark();
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<ChangeLogEntry> entries = type == null
+            ? changeLogRepository.findPage(since, before, page)
+            : changeLogRepository.findPageByType(type, since, before, page);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+        long nextToken = entries.isEmpty() ? since : entries.get(entries.size() - 1).getChangeId();
+        return new ChangeFeedPage(toFeedEntries(entries), nextToken, hasMore);
+    }
+    
+    // Changes below this ID have all committed or rolled back
+    private synchronized long watermark() {
+        return open.isEmpty() ? maxAssigned + 1 : open.first();
+    }
+    
+    private List<ChangeFeedEntry> toFeedEntries(List<ChangeLogEntry> entries) {
+        // Walk newest first so each entity keeps only its latest change
+        List<ChangeLogEntry> latest = new ArrayList<>();
+        Set<Long> bookIds = new HashSet<>();
+        Set<Long> memberIds = new HashSet<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            ChangeLogEntry entry = entries.get(i);
+            if (!seen.add(entry.getEntityType() + ":" + entry.getEntityId())) {
+                continue;
+            }
+            latest.add(entry);
+            if (entry.getOperation() == ChangeLogEntry.Operation.UPSERT) {
+                (entry.getEntityType() == ChangeLogEntry.EntityType.BOOK ? bookIds : memberIds).add(entry.getEntityId());
+            }
+        }
+        Collections.reverse(latest);
+        Map<Long, Book> books = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            for (Book book : bookRepository.findAllById(bookIds)) {
+                books.put(book.getBookId(), book);
+            }
+        }
+        Map<Long, Member> members = new HashMap<>();
+        if (!memberIds.isEmpty()) {
+            for (Member member : memberRepository.findAllById(memberIds)) {
+                members.put(member.getMemberId(), member);
+            }
+        }
+        List<ChangeFeedEntry> result = new ArrayList<>(latest.size());
+        for (ChangeLogEntry entry : latest) {
+            Object data = entry.getOperation() == ChangeLogEntry.Operation.DELETE ? null
+                : entry.getEntityType() == ChangeLogEntry.EntityType.BOOK ? books.get(entry.getEntityId())
+                : members.get(entry.getEntityId());
+            // Deleted after this change; the tombstone follows in a later page
+            ChangeLogEntry.Operation operation = data == null ? ChangeLogEntry.Operation.DELETE : entry.getOperation();
+            result.add(new ChangeFeedEntry(entry.getChangeId(), entry.getEntityType(), entry.getEntityId(), operation, data));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package com.library.service;
+
+import com.library.dto.DashboardFine;
+import com.library.dto.DashboardLoan;
+import com.library.dto.DashboardNotification;
+import com.library.dto.MemberDashboard;
+import com.library.entity.Fine;
+import com.library.entity.Member;
+import com.library.repository.FineRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the member page in one call. The member, loans, notifications, unread count and
+ * fines are independent queries, so they run side by side on the dashboard executor and the
+ * response takes about as long as the slowest of them. A dashboard that takes longer than
+ * {@code library.dashboard.timeout} fails with a {@link QueryTimeoutException}.
+ */
+@Service
+@Timed("library.service")
+public class MemberDashboardService {
+    
+    static final int RECENT_NOTIFICATIONS = 10;
+    
+    @Autowired
+    private MemberService memberService;
+    
+    @Autowired
+    private BorrowingService borrowingService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private FineRepository fineRepository;
+    
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private Executor dashboardExecutor;
+    
+    @Value("${library.dashboard.timeout:5s}")
+    private Duration timeout = Duration.ofSeconds(5);
+    
+    public Optional<MemberDashboard> getDashboard(Long memberId) {
+        Member member = new Member();
+        member.setMemberId(memberId);
+        CompletableFuture<Optional<Member>> found = submit(() -> memberService.getMemberById(memberId));
+        CompletableFuture<List<DashboardLoan>> loans = submit(() ->
+            borrowingService.getActiveLoans(memberId).stream().map(DashboardLoan::from).toList());
+        CompletableFuture<List<DashboardNotification>> notifications = submit(() ->
+            notificationService.getRecentNotifications(memberId, RECENT_NOTIFICATIONS).stream()
+                .map(DashboardNotification::from).toList());
+        CompletableFuture<Long> unread = submit(() -> notificationService.countUnreadNotifications(memberId));
+        CompletableFuture<List<DashboardFine>> fines = submit(() ->
+            fineRepository.findByMemberAndStatus(member, Fine.FineStatus.PENDING).stream().map(DashboardFine::from).toList());
+        
+        try {
+            CompletableFuture.allOf(found, loans, notifications, unread, fines)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .join();
+        } catch (CompletionException e) {
+            // Stop whatever is still queued; the request has failed either way
+            List.of(found, loans, notifications, unread, fines).forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof TimeoutException) {
+                throw new QueryTimeoutException("Dashboard for member " + memberId + " took longer than " + timeout, e.getCause());
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        
+        if (found.join().isEmpty()) {
+            return Optional.empty();
+        }
+        List<DashboardFine> pendingFines = fines.join();
+        BigDecimal total = pendingFines.stream().map(DashboardFine::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Optional.of(new MemberDashboard(found.join().get(), loans.join(), notifications.join(), unread.join(),
+            pendingFines, total));
+    }
+    
+    private <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, dashboardExecutor);
+    }
+}
@@ -1,32 +1,97 @@
 package com.library.service;
 
+import com.library.cache.ActiveLoanCounter;
+import com.library.cache.MemberCache;
+import com.library.cache.MemberSearchCache;
+import com.library.dto.BatchResult;
+import com.library.entity.ChangeLogEntry;
 import com.library.entity.Member;
+import com.library.repository.FieldProjection;
 import com.library.repository.MemberRepository;
+import com.library.repository.ProjectionRepository;
+import com.library.search.MemberIndex;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
+@Timed("library.service")
 public class MemberService {
     
     @Autowired
     private MemberRepository memberRepository;
     
+    @Autowired
+    private ProjectionRepository projectionRepository;
+    
+    @Autowired
+    private MemberCache memberCache;
+    
+    @Autowired
+    private MemberSearchCache memberSearchCache;
+    
+    @Autowired
+    private MemberIndex memberIndex;
+    
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    
+    @Autowired
+    private ActiveLoanCounter activeLoanCounter;
+    
     public List<Member> getAllMembers() {
         return memberRepository.findAll();
     }
     
+    /** All members with only the given fields and the ID selected. */
+    public List<Map<String, Object>> getAllMembers(List<String> fields) {
+        return projectionRepository.findAll(FieldProjection.MEMBER, fields);
+    }
+    
     public Optional<Member> getMemberById(Long id) {
         return memberRepository.findById(id);
     }
     
+    /** The member's version without loading the rest of the row, empty if there is no such member. */
+    public Optional<Long> getMemberVersion(Long id) {
+        return memberRepository.findVersionById(id);
+    }
+    
+    /** Version of the whole member list; it moves whenever any member changes. */
+    public String getMembersVersion() {
+        return changeFeedService.collectionVersion(ChangeLogEntry.EntityType.MEMBER);
+    }
+    
+    public BatchResult<Member> getMembersByIds(List<Long> ids) {
+        return BatchResult.of(ids, memberCache.getAll(ids), Member::getMemberId);
+    }
+    
+    @Transactional
     public Member saveMember(Member member) {
-        return memberRepository.save(member);
+        Member savedMember = memberRepository.save(member);
+        changeFeedService.record(ChangeLogEntry.EntityType.MEMBER, savedMember.getMemberId(), ChangeLogEntry.Operation.UPSERT);
+        TransactionCallbacks.afterCommit(() -> {
+            memberCache.invalidate(savedMember.getMemberId());
+            memberIndex.index(savedMember);
+            memberSearchCache.invalidate(savedMember.getMemberId(), savedMember);
+        });
+        return savedMember;
     }
     
+    @Transactional
     public void deleteMember(Long id) {
         memberRepository.deleteById(id);
+        changeFeedService.record(ChangeLogEntry.EntityType.MEMBER, id, ChangeLogEntry.Operation.DELETE);
+        TransactionCallbacks.afterCommit(() -> {
+            memberCache.invalidate(id);
+            memberIndex.remove(id);
+            memberSearchCache.invalidate(id, null);
+            activeLoanCounter.invalidate(id);
+        });
     }
     
     public Optional<Member> getMemberByEmail(String email) {
@@ -34,7 +99,7 @@ public class MemberService {
     }
     
     public List<Member> searchMembers(String name) {
-        return memberRepository.findByNameContainingIgnoreCase(name);
+        return memberSearchCache.get(name);
     }
     
     public List<Member> getActiveMembers() {
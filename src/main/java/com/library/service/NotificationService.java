@@ -4,11 +4,17 @@ import com.library.entity.Book;
 import com.library.entity.Member;
 import com.library.entity.Notification;
 import com.library.repository.NotificationRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
+@Timed("library.service")
 public class NotificationService {
     
     @Autowired
@@ -17,16 +23,20 @@ public class NotificationService {
     public void sendBorrowingConfirmation(Member member, Book book) {
         Notification notification = new Notification();
         notification.setMember(member);
-        notification.setMessage(String.format("You have successfully borrowed '%s'. Due date: %s", 
-            book.getTitle(), java.time.LocalDate.now().plusDays(14)));
+        // Messages are concatenated: String.format parses its pattern on every call and allocates
+        // several times the finished message
+        notification.setMessage("You have successfully borrowed '" + book.getTitle() + "'. Due date: "
+            + LocalDate.now().plusDays(14));
         notification.setType(Notification.NotificationType.GENERAL);
         notificationRepository.save(notification);
     }
     
+    // Runs after the return has committed, so it needs a transaction of its own
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void sendReturnConfirmation(Member member, Book book) {
         Notification notification = new Notification();
         notification.setMember(member);
-        notification.setMessage(String.format("You have successfully returned '%s'. Thank you!", book.getTitle()));
+        notification.setMessage("You have successfully returned '" + book.getTitle() + "'. Thank you!");
         notification.setType(Notification.NotificationType.GENERAL);
         notificationRepository.save(notification);
     }
@@ -34,8 +44,8 @@ public class NotificationService {
     public void sendOverdueNotice(Member member, Book book, int daysOverdue) {
         Notification notification = new Notification();
         notification.setMember(member);
-        notification.setMessage(String.format("Your book '%s' is %d days overdue. Please return it immediately to avoid additional fines.", 
-            book.getTitle(), daysOverdue));
+        notification.setMessage("Your book '" + book.getTitle() + "' is " + daysOverdue
+            + " days overdue. Please return it immediately to avoid additional fines.");
         notification.setType(Notification.NotificationType.OVERDUE_NOTICE);
         notificationRepository.save(notification);
     }
@@ -45,4 +55,16 @@ public class NotificationService {
         member.setMemberId(memberId);
         return notificationRepository.findByMemberOrderByDateSentDesc(member);
     }
+    
+    public List<Notification> getRecentNotifications(Long memberId, int limit) {
+        Member member = new Member();
+        member.setMemberId(memberId);
+        return notificationRepository.findByMemberOrderByDateSentDesc(member, PageRequest.of(0, limit));
+    }
+    
+    public long countUnreadNotifications(Long memberId) {
+        Member member = new Member();
+        member.setMemberId(memberId);
+        return notificationRepository.countByMemberAndIsRead(member, false);
+    }
 }
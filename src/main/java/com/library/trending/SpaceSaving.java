@@ -0,0 +1,180 @@
+package com.library.trending;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the most frequent book IDs in a stream, in a fixed number of counters.
+ * An unseen ID takes over the counter with the smallest count and inherits that count as its
+ * error, so every estimate is at most {@code error} above the true count.
+ * <p>
+ * Counters with equal counts share a group, and groups form a list in ascending count order
+ * (the stream-summary layout). A +1 only ever moves a counter into the next group, so each
+ * offer is O(1).
+ */
+final class SpaceSaving {
+    
+    private static final int NONE = -1;
+    
+    private final int capacity;
+    private final Map<Long, Integer> slots;
+    private final long[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] groupOf;
+    private final int[] nextInGroup;
+    private final int[] prevInGroup;
+    
+    private final long[] groupCount;
+    private final int[] groupHead;
+    private final int[] groupNext;
+    private final int[] groupPrev;
+    private final int[] freeGroups;
+    private int freeGroupCount;
+    private int minGroup = NONE;
+    private int size;
+    
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+        this.items = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.groupOf = new int[capacity];
+        this.nextInGroup = new int[capacity];
+        this.prevInGroup = new int[capacity];
+        // One spare group: an increment links the counter's next group before its old one can empty
+        this.groupCount = new long[capacity + 1];
+        this.groupHead = new int[capacity + 1];
+        this.groupNext = new int[capacity + 1];
+        this.groupPrev = new int[capacity + 1];
+        this.freeGroups = new int[capacity + 1];
+        clear();
+    }
+    
+    void offer(long item) {
+        Integer slot = slots.get(item);
+        if (slot != null) {
+            increment(slot);
+            return;
+        }
+        int newSlot;
+        if (size < capacity) {
+            newSlot = size++;
+            counts[newSlot] = 0;
+            errors[newSlot] = 0;
+            groupOf[newSlot] = NONE;
+        } else {
+            // Evict the least counted item; the newcomer may have been seen up to that many times
+            newSlot = groupHead[minGroup];
+            slots.remove(items[newSlot]);
+            errors[newSlot] = counts[newSlot];
+        }
+        items[newSlot] = item;
+        slots.put(item, newSlot);
+        increment(newSlot);
+    }
+    
+    void clear() {
+        slots.clear();
+        size = 0;
+        minGroup = NONE;
+        freeGroupCount = freeGroups.length;
+        for (int i = 0; i < freeGroups.length; i++) {
+            freeGroups[i] = i;
+        }
+    }
+    
+    boolean isFull() {
+        return size == capacity;
+    }
+    
+    /** Smallest count held; an item without a counter was seen at most this many times. */
+    long minCount() {
+        return minGroup == NONE ? 0 : groupCount[minGroup];
+    }
+    
+    void forEach(CounterConsumer consumer) {
+        for (int slot = 0; slot < size; slot++) {
+            consumer.accept(items[slot], counts[slot], errors[slot]);
+        }
+    }
+    
+    @FunctionalInterface
+    interface CounterConsumer {
+        void accept(long item, long count, long error);
+    }
+    
+    private void increment(int slot) {
+        int group = groupOf[slot];
+        long count = counts[slot] + 1;
+        int next = group == NONE ? minGroup : groupNext[group];
+        int target;
+        if (next != NONE && groupCount[next] == count) {
+            target = next;
+        } else {
+            target = newGroup(count, group, next);
+        }
+        if (group != NONE) {
+            detach(slot, group);
+        }
+        attach(slot, target);
+        counts[slot] = count;
+    }
+    
+    // Links a new group between prev and next; prev is NONE when it becomes the smallest group
+    private int newGroup(long count, int prev, int next) {
+        int group = freeGroups[--freeGroupCount];
+        groupCount[group] = count;
+        groupHead[group] = NONE;
+        groupPrev[group] = prev;
+        groupNext[group] = next;
+        if (prev != NONE) {
+            groupNext[prev] = group;
+        } else {
+            minGroup = group;
+        }
+        if (next != NONE) {
+            groupPrev[next] = group;
+        }
+        return group;
+    }
+    
+    private void attach(int slot, int group) {
+        int head = groupHead[group];
+        nextInGroup[slot] = head;
+        prevInGroup[slot] = NONE;
+        if (head != NONE) {
+            prevInGroup[head] = slot;
+        }
+        groupHead[group] = slot;
+        groupOf[slot] = group;
+    }
+    
+    private void detach(int slot, int group) {
+        int prev = prevInGroup[slot];
+        int next = nextInGroup[slot];
+        if (prev != NONE) {
+            nextInGroup[prev] = next;
+        } else {
+            groupHead[group] = next;
+        }
+        if (next != NONE) {
+            prevInGroup[next] = prev;
+        }
+        if (groupHead[group] == NONE) {
+            // Unlink the emptied group and hand it back to the pool
+            int before = groupPrev[group];
+            int after = groupNext[group];
+            if (before != NONE) {
+                groupNext[before] = after;
+            } else {
+                minGroup = after;
+            }
+            if (after != NONE) {
+                groupPrev[after] = before;
+            }
+            freeGroups[freeGroupCount++] = group;
+        }
+    }
+}
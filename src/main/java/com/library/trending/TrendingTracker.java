@@ -0,0 +1,117 @@
+package com.library.trending;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Most borrowed books over the last hour, day and week, kept from the stream of borrows rather
+ * than counted from the transactions table. Each window is a ring of time buckets, and each
+ * bucket a {@link SpaceSaving} summary of a fixed number of counters, so memory is bounded and
+ * a borrow costs O(1) per window. A window covers the current bucket and the ones before it, so
+ * it reaches back between 11/12 and the whole of its length.
+ * <p>
+ * Counts live in memory only and start from zero when the application starts.
+ */
+@Component
+public class TrendingTracker {
+    
+    public static final int BUCKETS_PER_WINDOW = 12;
+    
+    @Value("${library.trending.counters-per-bucket:500}")
+    private int countersPerBucket = 500;
+    
+    private final Map<TrendingWindow, Ring> rings = new EnumMap<>(TrendingWindow.class);
+    
+    @PostConstruct
+    void init() {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            rings.put(window, new Ring(window.getLength().toMillis() / BUCKETS_PER_WINDOW));
+        }
+    }
+    
+    public void record(Long bookId) {
+        record(bookId, System.currentTimeMillis());
+    }
+    
+    void record(long bookId, long now) {
+        for (Ring ring : rings.values()) {
+            ring.offer(bookId, now);
+        }
+    }
+    
+    /** The {@code limit} most borrowed books in the window, most borrowed first. */
+    public List<Entry> top(TrendingWindow window, int limit) {
+        return top(window, limit, System.currentTimeMillis());
+    }
+    
+    List<Entry> top(TrendingWindow window, int limit, long now) {
+        return rings.get(window).top(limit, now);
+    }
+    
+    /**
+     * A book's estimated borrows. The true number lies between
+     * {@code borrows - maxOverestimate} and {@code borrows}.
+     */
+    public record Entry(long bookId, long borrows, long maxOverestimate) {
+    }
+    
+    private final class Ring {
+        
+        private final long bucketMillis;
+        private final SpaceSaving[] buckets = new SpaceSaving[BUCKETS_PER_WINDOW];
+        private final long[] epochs = new long[BUCKETS_PER_WINDOW];
+        
+        Ring(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+        
+        synchronized void offer(long bookId, long now) {
+            long epoch = now / bucketMillis;
+            int index = (int) (epoch % BUCKETS_PER_WINDOW);
+            if (buckets[index] == null) {
+                buckets[index] = new SpaceSaving(countersPerBucket);
+            } else if (epochs[index] != epoch) {
+                buckets[index].clear();
+            }
+            epochs[index] = epoch;
+            buckets[index].offer(bookId);
+        }
+        
+        synchronized List<Entry> top(int limit, long now) {
+            long epoch = now / bucketMillis;
+            // Per book: summed count, summed error, and the minimum counts of full buckets holding it
+            Map<Long, long[]> merged = new HashMap<>();
+            long fullBucketMinimums = 0;
+            for (int i = 0; i < BUCKETS_PER_WINDOW; i++) {
+                SpaceSaving bucket = buckets[i];
+                if (bucket == null || epochs[i] > epoch || epochs[i] <= epoch - BUCKETS_PER_WINDOW) {
+                    continue;
+                }
+                long minimum = bucket.isFull() ? bucket.minCount() : 0;
+                fullBucketMinimums += minimum;
+                bucket.forEach((bookId, count, error) -> {
+                    long[] totals = merged.computeIfAbsent(bookId, id -> new long[3]);
+                    totals[0] += count;
+                    totals[1] += error;
+                    totals[2] += minimum;
+                });
+            }
+            // A full bucket without a counter for the book may still have seen it up to its minimum count
+            List<Entry> entries = new ArrayList<>(merged.size());
+            for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+                long[] totals = entry.getValue();
+                long unseen = fullBucketMinimums - totals[2];
+                entries.add(new Entry(entry.getKey(), totals[0] + unseen, totals[1] + unseen));
+            }
+            entries.sort(Comparator.comparingLong(Entry::borrows).reversed().thenComparingLong(Entry::bookId));
+            return new ArrayList<>(entries.subList(0, Math.min(limit, entries.size())));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.library.trending;
+
+import java.time.Duration;
+
+/**
+ * Sliding windows the trending list is kept for. Each window is split into
+ * {@link TrendingTracker#BUCKETS_PER_WINDOW} buckets that expire one at a time.
+ */
+public enum TrendingWindow {
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1)),
+    WEEK(Duration.ofDays(7));
+    
+    private final Duration length;
+    
+    TrendingWindow(Duration length) {
+        this.length = length;
+    }
+    
+    public Duration getLength() {
+        return length;
+    }
+}
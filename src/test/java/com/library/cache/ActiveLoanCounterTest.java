@@ -0,0 +1,228 @@
+package com.library.cache;
+
+import com.library.repository.BorrowingTransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ActiveLoanCounter Tests")
+class ActiveLoanCounterTest {
+
+    @Mock
+    private BorrowingTransactionRepository borrowingRepository;
+
+    @InjectMocks
+    private ActiveLoanCounter activeLoanCounter;
+
+    @Nested
+    @DisplayName("Acquire and Release")
+    class AcquireAndReleaseTests {
+
+        @Test
+        @DisplayName("Should load the count once and enforce the limit from memory")
+        void shouldLoadCountOnceAndEnforceLimit() {
+            // Given
+            when(borrowingRepository.countActiveBorrowingsByMemberId(1L)).thenReturn(3L);
+
+            // When & Then
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isTrue();
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isTrue();
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isFalse();
+            activeLoanCounter.release(1L);
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isTrue();
+            verify(borrowingRepository, times(1)).countActiveBorrowingsByMemberId(1L);
+        }
+
+        @Test
+        @DisplayName("Should never exceed the limit under concurrent borrows by one member")
+        void shouldNeverExceedLimitUnderConcurrentBorrows() throws Exception {
+            // Given
+            when(borrowingRepository.countActiveBorrowingsByMemberId(1L)).thenReturn(0L);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return activeLoanCounter.tryAcquire(1L, 5);
+                }));
+            }
+
+            // When
+            start.countDown();
+            int granted = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(5, TimeUnit.SECONDS)) {
+                    granted++;
+                }
+            }
+            executor.shutdown();
+
+            // Then
+            assertThat(granted).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should ignore release for members that are not cached")
+        void shouldIgnoreReleaseForUncachedMembers() {
+            // When
+            activeLoanCounter.release(42L);
+
+            // Then
+            assertThat(activeLoanCounter.size()).isZero();
+            verifyNoInteractions(borrowingRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bounds and Reconciliation")
+    class BoundsAndReconciliationTests {
+
+        @Test
+        @DisplayName("Should stay within the configured number of members")
+        void shouldStayWithinConfiguredNumberOfMembers() {
+            // Given
+            ReflectionTestUtils.setField(activeLoanCounter, "maxMembers", 10);
+            when(borrowingRepository.countActiveBorrowingsByMemberId(anyLong())).thenReturn(1L);
+
+            // When
+            for (long memberId = 1; memberId <= 50; memberId++) {
+                activeLoanCounter.tryAcquire(memberId, 5);
+                activeLoanCounter.settle(memberId);
+            }
+
+            // Then
+            assertThat(activeLoanCounter.size()).isLessThanOrEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Should correct drifted counters from the database")
+        void shouldCorrectDriftedCounters() {
+            // Given
+            when(borrowingRepository.countActiveBorrowingsByMemberId(1L)).thenReturn(4L);
+            activeLoanCounter.tryAcquire(1L, 5);
+            activeLoanCounter.settle(1L);
+            when(borrowingRepository.countActiveBorrowingsByMemberIds(anyList()))
+                    .thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+
+            // When
+            activeLoanCounter.reconcile();
+
+            // Then
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isTrue();
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isTrue();
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isTrue();
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should not reconcile a member whose borrow is not yet committed")
+        void shouldNotReconcileMemberWithBorrowInFlight() {
+            // Given
+            when(borrowingRepository.countActiveBorrowingsByMemberId(1L)).thenReturn(4L);
+            activeLoanCounter.tryAcquire(1L, 5);
+
+            // When
+            activeLoanCounter.reconcile();
+
+            // Then
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isFalse();
+            verify(borrowingRepository, never()).countActiveBorrowingsByMemberIds(anyList());
+        }
+
+        @Test
+        @DisplayName("Should not reconcile a member whose return settles during the sweep")
+        void shouldNotReconcileMemberThatMovedDuringSweep() {
+            // Given
+            when(borrowingRepository.countActiveBorrowingsByMemberId(1L)).thenReturn(5L);
+            activeLoanCounter.tryAcquire(1L, 6);
+            activeLoanCounter.settle(1L);
+            when(borrowingRepository.countActiveBorrowingsByMemberIds(anyList())).thenAnswer(invocation -> {
+                activeLoanCounter.hold(1L);
+                activeLoanCounter.release(1L);
+                activeLoanCounter.settle(1L);
+                return List.<Object[]>of(new Object[]{1L, 6L});
+            });
+
+            // When
+            activeLoanCounter.reconcile();
+
+            // Then
+            assertThat(activeLoanCounter.tryAcquire(1L, 6)).isTrue();
+            assertThat(activeLoanCounter.tryAcquire(1L, 6)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should load an uncached member's counter on hold so the committed return is released once")
+        void shouldLoadCounterOnHoldForUncachedMember() {
+            // Given a member with five loans, not cached, returning one
+            when(borrowingRepository.countActiveBorrowingsByMemberId(1L)).thenReturn(5L);
+            activeLoanCounter.hold(1L);
+
+            // When a borrow arrives after the return committed but before its release
+            boolean beforeRelease = activeLoanCounter.tryAcquire(1L, 5);
+            activeLoanCounter.release(1L);
+            activeLoanCounter.settle(1L);
+
+            // Then
+            assertThat(beforeRelease).isFalse();
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isTrue();
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isFalse();
+            verify(borrowingRepository, times(1)).countActiveBorrowingsByMemberId(1L);
+        }
+
+        @Test
+        @DisplayName("Should forget a deleted member's counter unless a loan is in flight")
+        void shouldInvalidateIdleCounterOnly() {
+            // Given
+            when(borrowingRepository.countActiveBorrowingsByMemberId(anyLong())).thenReturn(0L);
+            activeLoanCounter.tryAcquire(1L, 5);
+            activeLoanCounter.settle(1L);
+            activeLoanCounter.tryAcquire(2L, 5);
+
+            // When
+            activeLoanCounter.invalidate(1L);
+            activeLoanCounter.invalidate(2L);
+
+            // Then
+            assertThat(activeLoanCounter.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should keep members with a borrow in flight when evicting")
+        void shouldKeepMembersWithBorrowInFlightWhenEvicting() {
+            // Given
+            ReflectionTestUtils.setField(activeLoanCounter, "maxMembers", 10);
+            when(borrowingRepository.countActiveBorrowingsByMemberId(anyLong())).thenReturn(4L);
+            activeLoanCounter.tryAcquire(1L, 5);
+
+            // When
+            for (long memberId = 2; memberId <= 50; memberId++) {
+                activeLoanCounter.tryAcquire(memberId, 5);
+                activeLoanCounter.settle(memberId);
+            }
+
+            // Then
+            assertThat(activeLoanCounter.tryAcquire(1L, 5)).isFalse();
+            verify(borrowingRepository, times(1)).countActiveBorrowingsByMemberId(1L);
+        }
+    }
+}
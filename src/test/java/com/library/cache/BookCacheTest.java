@@ -0,0 +1,116 @@
+package com.library.cache;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.testdata.BookTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookCache Tests")
+class BookCacheTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        bookCache.init();
+    }
+
+    private Book book(Long id, int availableCopies) {
+        return BookTestDataBuilder.aBook().withId(id).withAvailableCopies(availableCopies).build();
+    }
+
+    @Test
+    @DisplayName("Should load only the missing books and keep the requested order")
+    void shouldLoadOnlyMissingBooksInOrder() {
+        // Given
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(book(2L, 1), book(1L, 1)));
+        when(bookRepository.findAllById(Set.of(3L))).thenReturn(List.of(book(3L, 1)));
+        bookCache.getAll(List.of(1L, 2L));
+
+        // When
+        List<Book> result = bookCache.getAll(List.of(3L, 1L, 2L));
+
+        // Then
+        assertThat(result).extracting(Book::getBookId).containsExactly(3L, 1L, 2L);
+        verify(bookRepository).findAllById(Set.of(3L));
+    }
+
+    @Test
+    @DisplayName("Should load a long list of misses in chunks")
+    void shouldLoadMissesInChunks() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, EntityCache.LOAD_CHUNK_SIZE + 1).boxed().toList();
+        when(bookRepository.findAllById(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> chunk = invocation.getArgument(0);
+            return chunk.stream().map(id -> book(id, 1)).toList();
+        });
+
+        // When
+        List<Book> result = bookCache.getAll(ids);
+
+        // Then
+        assertThat(result).extracting(Book::getBookId).isEqualTo(ids);
+        verify(bookRepository, times(2)).findAllById(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should skip books that do not exist")
+    void shouldSkipMissingBooks() {
+        // Given
+        when(bookRepository.findAllById(Set.of(1L, 99L))).thenReturn(List.of(book(1L, 1)));
+
+        // When & Then
+        assertThat(bookCache.getAll(List.of(99L, 1L))).extracting(Book::getBookId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should reload a book after it is invalidated")
+    void shouldReloadAfterInvalidate() {
+        // Given
+        when(bookRepository.findAllById(Set.of(1L))).thenReturn(List.of(book(1L, 1)), List.of(book(1L, 0)));
+        bookCache.getAll(List.of(1L));
+
+        // When
+        bookCache.invalidate(1L);
+
+        // Then
+        assertThat(bookCache.getAll(List.of(1L)).get(0).getAvailableCopies()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not keep books loaded while an invalidation happened")
+    void shouldNotKeepBooksLoadedDuringInvalidation() {
+        // Given a change commits while the stale row is being read
+        when(bookRepository.findAllById(Set.of(1L))).thenAnswer(invocation -> {
+            bookCache.invalidate(1L);
+            return List.of(book(1L, 1));
+        }).thenReturn(List.of(book(1L, 0)));
+        bookCache.getAll(List.of(1L));
+
+        // When
+        List<Book> result = bookCache.getAll(List.of(1L));
+
+        // Then
+        assertThat(result.get(0).getAvailableCopies()).isZero();
+        verify(bookRepository, times(2)).findAllById(Set.of(1L));
+    }
+}
@@ -0,0 +1,167 @@
+package com.library.cache;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.testdata.BookTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookSearchCache Tests")
+class BookSearchCacheTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookSearchCache bookSearchCache;
+
+    private Book tolkien;
+    private Book rowling;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchCache.init();
+        tolkien = BookTestDataBuilder.aBook().withId(1L).withTitle("The Hobbit").withAuthor("J.R.R. Tolkien").build();
+        rowling = BookTestDataBuilder.aBook().withId(2L).withTitle("Harry Potter").withAuthor("J.K. Rowling").build();
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated search from the cache regardless of case")
+    void shouldServeRepeatedSearchFromCache() {
+        // Given
+        when(bookRepository.searchBooks("tolkien")).thenReturn(List.of(tolkien));
+        bookSearchCache.get("Tolkien");
+
+        // When
+        List<Book> result = bookSearchCache.get("TOLKIEN");
+
+        // Then
+        assertThat(result).containsExactly(tolkien);
+        verify(bookRepository, times(1)).searchBooks("tolkien");
+        assertThat(bookSearchCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop only the terms whose results hold the changed book")
+    void shouldDropOnlyTermsHoldingChangedBook() {
+        // Given
+        when(bookRepository.searchBooks("tolkien")).thenReturn(List.of(tolkien));
+        when(bookRepository.searchBooks("rowling")).thenReturn(List.of(rowling));
+        bookSearchCache.get("tolkien");
+        bookSearchCache.get("rowling");
+
+        // When
+        bookSearchCache.invalidate(1L, null);
+        bookSearchCache.get("tolkien");
+        bookSearchCache.get("rowling");
+
+        // Then
+        verify(bookRepository, times(2)).searchBooks("tolkien");
+        verify(bookRepository, times(1)).searchBooks("rowling");
+    }
+
+    @Test
+    @DisplayName("Should drop the terms a saved book now matches")
+    void shouldDropTermsSavedBookNowMatches() {
+        // Given
+        when(bookRepository.searchBooks("rowling")).thenReturn(List.of(rowling));
+        when(bookRepository.searchBooks("hobbit")).thenReturn(List.of(tolkien));
+        bookSearchCache.get("rowling");
+        bookSearchCache.get("hobbit");
+        Book newBook = BookTestDataBuilder.aBook().withId(3L).withTitle("Quidditch").withAuthor("J.K. Rowling").build();
+
+        // When
+        bookSearchCache.invalidate(3L, newBook);
+        bookSearchCache.get("rowling");
+        bookSearchCache.get("hobbit");
+
+        // Then
+        verify(bookRepository, times(2)).searchBooks("rowling");
+        verify(bookRepository, times(1)).searchBooks("hobbit");
+    }
+
+    @Test
+    @DisplayName("Should drop wildcard terms on any saved book")
+    void shouldDropWildcardTermsOnAnySave() {
+        // Given
+        when(bookRepository.searchBooks("h%t")).thenReturn(List.of(rowling));
+        bookSearchCache.get("h%t");
+
+        // When
+        bookSearchCache.invalidate(3L, tolkien);
+        bookSearchCache.get("h%t");
+
+        // Then
+        verify(bookRepository, times(2)).searchBooks("h%t");
+    }
+
+    @Test
+    @DisplayName("Should not keep results loaded while a write committed")
+    void shouldNotKeepResultsLoadedDuringWrite() {
+        // Given the book is saved after the query read it but before its results are cached
+        when(bookRepository.searchBooks("hobbit")).thenAnswer(invocation -> {
+            bookSearchCache.invalidate(1L, tolkien);
+            return List.of(tolkien);
+        }).thenReturn(List.of(tolkien));
+
+        // When
+        List<Book> first = bookSearchCache.get("hobbit");
+        bookSearchCache.get("hobbit");
+        bookSearchCache.get("hobbit");
+
+        // Then
+        assertThat(first).containsExactly(tolkien);
+        verify(bookRepository, times(2)).searchBooks("hobbit");
+    }
+
+    @Test
+    @DisplayName("Should bound the cache by result rows rather than terms")
+    void shouldBoundCacheByResultRows() {
+        // Given
+        ReflectionTestUtils.setField(bookSearchCache, "maxRows", 100L);
+        bookSearchCache.init();
+        List<Book> broad = new ArrayList<>();
+        for (long id = 1; id <= 150; id++) {
+            broad.add(BookTestDataBuilder.aBook().withId(id).build());
+        }
+        when(bookRepository.searchBooks("the")).thenReturn(broad);
+        when(bookRepository.searchBooks("hobbit")).thenReturn(List.of(tolkien));
+
+        // When
+        bookSearchCache.get("the");
+        bookSearchCache.get("hobbit");
+        bookSearchCache.cache().cleanUp();
+
+        // Then
+        assertThat(bookSearchCache.cache().asMap()).containsOnlyKeys("hobbit");
+    }
+
+    @Test
+    @DisplayName("Should keep serving verified results after an unrelated write")
+    void shouldKeepVerifiedResultsAfterUnrelatedWrite() {
+        // Given
+        when(bookRepository.searchBooks("hobbit")).thenReturn(List.of(tolkien));
+        bookSearchCache.get("hobbit");
+
+        // When
+        bookSearchCache.invalidate(2L, null);
+        bookSearchCache.get("hobbit");
+        bookSearchCache.get("hobbit");
+
+        // Then
+        verify(bookRepository, times(1)).searchBooks("hobbit");
+    }
+}
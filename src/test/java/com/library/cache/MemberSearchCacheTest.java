@@ -0,0 +1,76 @@
+package com.library.cache;
+
+import com.library.entity.Member;
+import com.library.repository.MemberRepository;
+import com.library.search.MemberIndex;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MemberSearchCache Tests")
+class MemberSearchCacheTest {
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private MemberIndex memberIndex;
+
+    @InjectMocks
+    private MemberSearchCache memberSearchCache;
+
+    @BeforeEach
+    void setUp() {
+        memberSearchCache.init();
+    }
+
+    private Member member(Long id, String name, String email) {
+        return MemberTestDataBuilder.aMember().withId(id).withName(name).withEmail(email).build();
+    }
+
+    @Test
+    @DisplayName("Should load the index candidates by ID and keep only real matches")
+    void shouldLoadIndexCandidatesAndKeepMatches() {
+        // Given the index also offers a member who does not contain the term
+        Member anna = member(1L, "Annabel Lee", "annabel@example.com");
+        Member other = member(2L, "Hannah Abbott", "hannah@example.com");
+        when(memberIndex.candidates("annab")).thenReturn(RoaringBitmap.bitmapOf(1, 2));
+        when(memberRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(other, anna));
+
+        // When
+        List<Member> result = memberSearchCache.get("Annab");
+
+        // Then
+        assertThat(result).containsExactly(anna);
+        verify(memberRepository, never()).findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrPhoneContainingIgnoreCase(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should scan the table for terms the index cannot narrow")
+    void shouldScanTableForShortTerms() {
+        // Given
+        Member jo = member(1L, "Jo March", "jo@example.com");
+        when(memberIndex.candidates("jo")).thenReturn(null);
+        when(memberRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCaseOrPhoneContainingIgnoreCase("jo", "jo", "jo"))
+                .thenReturn(List.of(jo));
+
+        // When
+        List<Member> result = memberSearchCache.get("jo");
+
+        // Then
+        assertThat(result).containsExactly(jo);
+        verify(memberRepository, never()).findAllById(any());
+    }
+}
@@ -1,6 +1,12 @@
 package com.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.AutocompleteSuggestion;
+import com.library.dto.BatchResult;
+import com.library.dto.BookPage;
+import com.library.dto.FacetCount;
+import com.library.dto.FacetedSearchResult;
+import com.library.dto.RecommendedBook;
 import com.library.entity.Book;
 import com.library.service.BookService;
 import com.library.testdata.BookTestDataBuilder;
@@ -11,11 +17,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
@@ -50,6 +60,7 @@ class BookControllerTest {
                 .withYearPublished(2024)
                 .withAvailableCopies(5)
                 .withTotalCopies(5)
+                .withVersion(3L)
                 .build();
     }
 
@@ -95,6 +106,98 @@ class BookControllerTest {
 
             verify(bookService).getAllBooks();
         }
+
+        @Test
+        @DisplayName("Should answer 304 from the catalogue version without loading the books")
+        void shouldReturn304WhenCatalogueUnchanged() throws Exception {
+            // Given
+            when(bookService.getCatalogueVersion()).thenReturn("abc-4");
+
+            // When & Then
+            mockMvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, "\"abc-4\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"abc-4\""));
+
+            verify(bookService, never()).getAllBooks();
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/books?fields=")
+    class GetBookFieldsTests {
+
+        @Test
+        @DisplayName("Should return only the requested fields")
+        void shouldReturnRequestedFields() throws Exception {
+            // Given
+            when(bookService.getAllBooks(List.of("title"))).thenReturn(List.of(Map.of("bookId", 1L, "title", "Test Book")));
+
+            // When & Then
+            mockMvc.perform(get("/api/books").param("fields", "title"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].title", is("Test Book")))
+                    .andExpect(jsonPath("$[0].author").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should tag the projection apart from the full list")
+        void shouldIncludeFieldsInETag() throws Exception {
+            // Given
+            when(bookService.getCatalogueVersion()).thenReturn("abc-4");
+            when(bookService.getAllBooks(List.of("title", "author", "title")))
+                    .thenReturn(List.of(Map.of("bookId", 1L, "title", "Test Book", "author", "Test Author")));
+
+            // When & Then
+            mockMvc.perform(get("/api/books").param("fields", "title,author,title")
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"abc-4\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"abc-4;title,author\""));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an unknown field")
+        void shouldRejectUnknownField() throws Exception {
+            // Given
+            when(bookService.getAllBooks(List.of("secret"))).thenThrow(new IllegalArgumentException("Unknown field 'secret'"));
+
+            // When & Then
+            mockMvc.perform(get("/api/books").param("fields", "secret"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/books?ids=")
+    class GetBooksByIdsTests {
+
+        @Test
+        @DisplayName("Should return the books in request order with the missing IDs")
+        void shouldReturnBooksAndMissingIds() throws Exception {
+            // Given
+            when(bookService.getBooksByIds(List.of(1L, 99L))).thenReturn(new BatchResult<>(List.of(testBook), List.of(99L)));
+
+            // When & Then
+            mockMvc.perform(get("/api/books").param("ids", "1,99"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(1)))
+                    .andExpect(jsonPath("$.items[0].bookId", is(1)))
+                    .andExpect(jsonPath("$.missingIds[0]", is(99)));
+
+            verify(bookService, never()).getAllBooks();
+        }
+
+        @Test
+        @DisplayName("Should reject more IDs than one batch accepts")
+        void shouldRejectTooManyIds() throws Exception {
+            // Given
+            String ids = String.join(",", Collections.nCopies(BatchResult.MAX_IDS + 1, "1"));
+
+            // When & Then
+            mockMvc.perform(get("/api/books").param("ids", ids))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(bookService);
+        }
     }
 
     @Nested
@@ -111,12 +214,41 @@ class BookControllerTest {
             mockMvc.perform(get("/api/books/1"))
                     .andExpect(status().isOk())
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                     .andExpect(jsonPath("$.bookId", is(1)))
                     .andExpect(jsonPath("$.title", is("Test Book")));
 
             verify(bookService).getBookById(1L);
         }
 
+        @Test
+        @DisplayName("Should answer 304 from the version alone when the ETag still matches")
+        void shouldReturn304WhenVersionUnchanged() throws Exception {
+            // Given
+            when(bookService.getBookVersion(1L)).thenReturn(Optional.of(3L));
+
+            // When & Then
+            mockMvc.perform(get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+            verify(bookService, never()).getBookById(any());
+        }
+
+        @Test
+        @DisplayName("Should return the book when its ETag no longer matches")
+        void shouldReturnBookWhenVersionChanged() throws Exception {
+            // Given
+            when(bookService.getBookVersion(1L)).thenReturn(Optional.of(3L));
+            when(bookService.getBookById(1L)).thenReturn(Optional.of(testBook));
+
+            // When & Then
+            mockMvc.perform(get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                    .andExpect(jsonPath("$.version", is(3)));
+        }
+
         @Test
         @DisplayName("Should return 404 when book does not exist")
         void shouldReturn404WhenBookDoesNotExist() throws Exception {
@@ -221,6 +353,56 @@ class BookControllerTest {
             verify(bookService).getBookById(999L);
             verify(bookService, never()).saveBook(any());
         }
+
+        @Test
+        @DisplayName("Should save against the version If-Match named and return the new ETag")
+        void shouldUpdateBookWhenIfMatchIsCurrent() throws Exception {
+            // Given
+            Book updatedBook = BookTestDataBuilder.aBook().withId(1L).withTitle("Updated Book").withVersion(4L).build();
+            when(bookService.getBookById(1L)).thenReturn(Optional.of(testBook));
+            when(bookService.saveBook(any(Book.class))).thenReturn(updatedBook);
+
+            // When & Then
+            mockMvc.perform(put("/api/books/1")
+                    .header(HttpHeaders.IF_MATCH, "\"3\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(updatedBook)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+            verify(bookService).saveBook(argThat(book -> book.getVersion() == 3L));
+        }
+
+        @Test
+        @DisplayName("Should return 412 without saving when If-Match names an older version")
+        void shouldReturn412WhenIfMatchIsStale() throws Exception {
+            // Given
+            when(bookService.getBookById(1L)).thenReturn(Optional.of(testBook));
+
+            // When & Then
+            mockMvc.perform(put("/api/books/1")
+                    .header(HttpHeaders.IF_MATCH, "\"2\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(testBook)))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+            verify(bookService, never()).saveBook(any());
+        }
+
+        @Test
+        @DisplayName("Should return 409 when another update commits first")
+        void shouldReturn409WhenConcurrentUpdateWins() throws Exception {
+            // Given
+            when(bookService.getBookById(1L)).thenReturn(Optional.of(testBook));
+            when(bookService.saveBook(any(Book.class))).thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 1L));
+
+            // When & Then
+            mockMvc.perform(put("/api/books/1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(testBook)))
+                    .andExpect(status().isConflict());
+        }
     }
 
     @Nested
@@ -278,6 +460,139 @@ class BookControllerTest {
 
             verify(bookService).searchBooks(keyword);
         }
+
+        @Test
+        @DisplayName("Should use the fuzzy index when mode is fuzzy")
+        void shouldUseFuzzyIndexWhenModeIsFuzzy() throws Exception {
+            // Given
+            when(bookService.searchBooksFuzzy("Tset", 5)).thenReturn(Arrays.asList(testBook));
+
+            // When & Then
+            mockMvc.perform(get("/api/books/search")
+                    .param("keyword", "Tset")
+                    .param("mode", "fuzzy")
+                    .param("limit", "5"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].title", is("Test Book")));
+
+            verify(bookService).searchBooksFuzzy("Tset", 5);
+            verify(bookService, never()).searchBooks(any());
+        }
+
+        @Test
+        @DisplayName("Should use BM25 ranking when mode is relevance")
+        void shouldUseBm25RankingWhenModeIsRelevance() throws Exception {
+            // Given
+            when(bookService.searchBooksByRelevance("test book", 3)).thenReturn(Arrays.asList(testBook));
+
+            // When & Then
+            mockMvc.perform(get("/api/books/search")
+                    .param("keyword", "test book")
+                    .param("mode", "RELEVANCE")
+                    .param("limit", "3"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)));
+
+            verify(bookService).searchBooksByRelevance("test book", 3);
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an unknown search mode")
+        void shouldReturn400ForUnknownSearchMode() throws Exception {
+            mockMvc.perform(get("/api/books/search")
+                    .param("keyword", "Test")
+                    .param("mode", "telepathic"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(bookService);
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a limit above 100")
+        void shouldReturn400ForLimitAbove100() throws Exception {
+            mockMvc.perform(get("/api/books/search")
+                    .param("keyword", "Test")
+                    .param("mode", "relevance")
+                    .param("limit", "101"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(bookService);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/books/autocomplete")
+    class AutocompleteTests {
+
+        @Test
+        @DisplayName("Should return suggestions for the prefix")
+        void shouldReturnSuggestionsForPrefix() throws Exception {
+            // Given
+            when(bookService.autocomplete("tes", 10))
+                    .thenReturn(List.of(new AutocompleteSuggestion("Test Book", "TITLE", 1)));
+
+            // When & Then
+            mockMvc.perform(get("/api/books/autocomplete").param("prefix", "tes"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].text", is("Test Book")))
+                    .andExpect(jsonPath("$[0].field", is("TITLE")))
+                    .andExpect(jsonPath("$[0].books", is(1)));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a non-positive limit")
+        void shouldReturn400ForNonPositiveLimit() throws Exception {
+            mockMvc.perform(get("/api/books/autocomplete").param("prefix", "tes").param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(bookService);
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a limit above 10")
+        void shouldReturn400ForLimitAbove10() throws Exception {
+            mockMvc.perform(get("/api/books/autocomplete").param("prefix", "tes").param("limit", "11"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(bookService);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/books/facets")
+    class FacetsTests {
+
+        @Test
+        @DisplayName("Should pass repeated filters through and return books with counts")
+        void shouldReturnBooksWithCounts() throws Exception {
+            // Given
+            FacetedSearchResult result = new FacetedSearchResult(1, List.of(testBook),
+                    Map.of("genre", List.of(new FacetCount("Fiction", 1))));
+            when(bookService.searchByFacets(List.of("Fiction", "Fantasy"), null, List.of(1990), true, 0, 20, 10))
+                    .thenReturn(result);
+
+            // When & Then
+            mockMvc.perform(get("/api/books/facets")
+                    .param("genre", "Fiction", "Fantasy")
+                    .param("decade", "1990")
+                    .param("available", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total", is(1)))
+                    .andExpect(jsonPath("$.books[0].title", is("Test Book")))
+                    .andExpect(jsonPath("$.facets.genre[0].value", is("Fiction")))
+                    .andExpect(jsonPath("$.facets.genre[0].count", is(1)));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an out-of-range limit")
+        void shouldReturn400ForOutOfRangeLimit() throws Exception {
+            mockMvc.perform(get("/api/books/facets").param("limit", "500"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(bookService);
+        }
     }
 
     @Nested
@@ -285,20 +600,73 @@ class BookControllerTest {
     class GetAvailableBooksTests {
 
         @Test
-        @DisplayName("Should return available books")
+        @DisplayName("Should return the first page of available books by default")
         void shouldReturnAvailableBooks() throws Exception {
             // Given
-            List<Book> availableBooks = Arrays.asList(testBook);
-            when(bookService.getAvailableBooks()).thenReturn(availableBooks);
+            when(bookService.getAvailableBooks(0, 20)).thenReturn(new BookPage(1, List.of(testBook)));
 
             // When & Then
             mockMvc.perform(get("/api/books/available"))
                     .andExpect(status().isOk())
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.total", is(1)))
+                    .andExpect(jsonPath("$.books", hasSize(1)))
+                    .andExpect(jsonPath("$.books[0].availableCopies", is(5)));
+
+            verify(bookService).getAvailableBooks(0, 20);
+        }
+
+        @Test
+        @DisplayName("Should pass offset and limit through")
+        void shouldPassOffsetAndLimitThrough() throws Exception {
+            // Given
+            when(bookService.getAvailableBooks(40, 10)).thenReturn(new BookPage(41, List.of(testBook)));
+
+            // When & Then
+            mockMvc.perform(get("/api/books/available").param("offset", "40").param("limit", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total", is(41)));
+        }
+
+        @Test
+        @DisplayName("Should reject a negative offset or out-of-range limit")
+        void shouldRejectInvalidPaging() throws Exception {
+            // When & Then
+            mockMvc.perform(get("/api/books/available").param("offset", "-1"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/books/available").param("limit", "101"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(bookService);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/books/{id}/recommendations")
+    class RecommendationsTests {
+
+        @Test
+        @DisplayName("Should return similar books")
+        void shouldReturnSimilarBooks() throws Exception {
+            // Given
+            when(bookService.getRecommendations(1L, 10)).thenReturn(List.of(new RecommendedBook(testBook, 0.5, 3)));
+
+            // When & Then
+            mockMvc.perform(get("/api/books/1/recommendations"))
+                    .andExpect(status().isOk())
                     .andExpect(jsonPath("$", hasSize(1)))
-                    .andExpect(jsonPath("$[0].availableCopies", is(5)));
+                    .andExpect(jsonPath("$[0].sharedBorrowers", is(3)))
+                    .andExpect(jsonPath("$[0].book.title", is(testBook.getTitle())));
+        }
+
+        @Test
+        @DisplayName("Should reject an out-of-range limit")
+        void shouldRejectOutOfRangeLimit() throws Exception {
+            // When & Then
+            mockMvc.perform(get("/api/books/1/recommendations").param("limit", "51"))
+                    .andExpect(status().isBadRequest());
 
-            verify(bookService).getAvailableBooks();
+            verifyNoInteractions(bookService);
         }
     }
 }
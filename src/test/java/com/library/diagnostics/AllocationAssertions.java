@@ -0,0 +1,42 @@
+package com.library.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Fails a test when the code under test allocates more heap than its budget. Only the current
+ * thread's allocations are counted, which covers a request's synchronous path but not work handed
+ * to other threads.
+ * <p>
+ * The first calls of a path also pay for class loading, proxies and cache warming, so warm it up
+ * before measuring; what is left is what every request allocates.
+ */
+public final class AllocationAssertions {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationAssertions() {
+    }
+
+    public static void assertMaxAllocatedBytes(long max, Runnable action) {
+        assertMaxAllocatedBytes(max, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Runs {@code action}, fails if the current thread allocated more than {@code max} bytes doing so, and returns its result. */
+    public static <T> T assertMaxAllocatedBytes(long max, Supplier<T> action) {
+        if (!THREADS.isThreadAllocatedMemorySupported() || !THREADS.isThreadAllocatedMemoryEnabled()) {
+            throw new IllegalStateException("This JVM does not measure per-thread allocation");
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        T result = action.get();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        if (allocated > max) {
+            throw new AssertionError("Expected at most " + max + " bytes allocated but " + allocated + " were");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,162 @@
+package com.library.diagnostics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("QueryInspector Tests")
+class QueryInspectorTest {
+
+    private final QueryInspector inspector = new QueryInspector();
+
+    @AfterEach
+    void tearDown() {
+        assertThat(QueryInspector.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should count statements in every open scope and pass them through unchanged")
+    void shouldCountStatementsInNestedScopes() {
+        // Given
+        assertThat(inspector.inspect("select 1")).isEqualTo("select 1");
+        QueryScope outer = QueryInspector.open();
+        QueryScope inner;
+
+        // When
+        try {
+            inspector.inspect("select b from book b");
+            inner = QueryInspector.open();
+            try {
+                assertThat(inspector.inspect("update book set title=?")).isEqualTo("update book set title=?");
+            } finally {
+                inner.close();
+            }
+            inspector.inspect("select b from book b");
+        } finally {
+            outer.close();
+        }
+        inspector.inspect("select 2");
+
+        // Then
+        assertThat(outer.statementCount()).isEqualTo(3);
+        assertThat(outer.statements()).containsExactly(
+                entry("select b from book b", 2), entry("update book set title=?", 1));
+        assertThat(inner.statementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report only selects repeated at least the threshold, most repeated first")
+    void shouldFindRepeatedSelects() {
+        // Given
+        QueryScope scope = QueryInspector.open();
+
+        // When
+        try {
+            for (int i = 0; i < 6; i++) {
+                inspector.inspect("select m from member m where m.member_id=?");
+                inspector.inspect("insert into notification values (?)");
+            }
+            for (int i = 0; i < 8; i++) {
+                inspector.inspect(" SELECT f from fine f where f.member_id=?");
+            }
+            for (int i = 0; i < 4; i++) {
+                inspector.inspect("select b from book b where b.book_id=?");
+            }
+        } finally {
+            scope.close();
+        }
+
+        // Then
+        Map<String, Integer> repeated = scope.repeatedSelects(5);
+        assertThat(repeated).containsExactly(
+                entry(" SELECT f from fine f where f.member_id=?", 8),
+                entry("select m from member m where m.member_id=?", 6));
+        assertThat(scope.statementCount()).isEqualTo(24);
+    }
+
+    @Test
+    @DisplayName("Should count work handed to another thread against the submitting scope")
+    void shouldPropagateScopeToWorkerThreads() {
+        // Given
+        QueryScope scope = QueryInspector.open();
+
+        // When
+        try {
+            Runnable task = QueryInspector.propagate(() -> inspector.inspect("select 1"));
+            CompletableFuture.runAsync(task).join();
+            CompletableFuture.runAsync(() -> inspector.inspect("select 2")).join();
+        } finally {
+            scope.close();
+        }
+
+        // Then
+        assertThat(scope.statements()).containsOnlyKeys("select 1");
+    }
+
+    @Test
+    @DisplayName("Should aggregate statements, slow queries and N+1 requests per endpoint")
+    void shouldAggregatePerEndpoint() {
+        // Given
+        QueryStats stats = new QueryStats();
+        QueryScope first = QueryInspector.open();
+        inspector.inspect("select 1");
+        first.recordSlowQuery();
+        first.close();
+        QueryScope second = QueryInspector.open();
+        for (int i = 0; i < 3; i++) {
+            inspector.inspect("select 2");
+        }
+        second.close();
+
+        // When
+        stats.record("GET /api/books", first, null);
+        stats.record("GET /api/books", second, Map.entry("select 2", 3));
+
+        // Then
+        Map<String, Object> books = stats.report().get("GET /api/books");
+        assertThat(books).containsEntry("requests", 2L)
+                .containsEntry("statements", 4L)
+                .containsEntry("meanStatements", 2.0)
+                .containsEntry("maxStatements", 3L)
+                .containsEntry("slowQueries", 1L)
+                .containsEntry("nPlusOneRequests", 1L)
+                .containsEntry("lastNPlusOne", Map.of("sql", "select 2", "executions", 3));
+        stats.reset();
+        assertThat(stats.report()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should count only statements at or above the slow-query threshold")
+    void shouldCountSlowQueries() {
+        // Given
+        SlowQueryLogger logger = new SlowQueryLogger();
+        ReflectionTestUtils.setField(logger, "threshold", Duration.ofMillis(100));
+        QueryInfo query = new QueryInfo("select b from book b where b.title=?");
+        ExecutionInfo fast = new ExecutionInfo();
+        fast.setElapsedTime(99);
+        ExecutionInfo slow = new ExecutionInfo();
+        slow.setElapsedTime(100);
+        QueryScope scope = QueryInspector.open();
+
+        // When
+        try {
+            logger.afterQuery(fast, List.of(query));
+            logger.afterQuery(slow, List.of(query));
+        } finally {
+            scope.close();
+        }
+
+        // Then
+        assertThat(scope.slowQueryCount()).isEqualTo(1);
+    }
+}
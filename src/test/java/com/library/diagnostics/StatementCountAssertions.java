@@ -0,0 +1,42 @@
+package com.library.diagnostics;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Fails a test when the code under test prepares more SQL statements than its budget. Needs a
+ * Spring context, where {@link QueryInspector} is registered with Hibernate.
+ */
+public final class StatementCountAssertions {
+
+    private StatementCountAssertions() {
+    }
+
+    public static void assertMaxStatements(int max, Runnable action) {
+        assertMaxStatements(max, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /** Runs {@code action}, fails listing every statement if it prepared more than {@code max}, and returns its result. */
+    public static <T> T assertMaxStatements(int max, Supplier<T> action) {
+        T result;
+        QueryScope scope = QueryInspector.open();
+        try {
+            result = action.get();
+        } finally {
+            scope.close();
+        }
+        if (scope.statementCount() > max) {
+            StringBuilder message = new StringBuilder()
+                    .append("Expected at most ").append(max).append(" statements but ")
+                    .append(scope.statementCount()).append(" were prepared:");
+            for (Map.Entry<String, Integer> statement : scope.statements().entrySet()) {
+                message.append("\n  ").append(statement.getValue()).append("x ").append(statement.getKey());
+            }
+            throw new AssertionError(message.toString());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package com.library.integration;
+
+import com.library.entity.Book;
+import com.library.entity.Member;
+import com.library.latency.LatencyRecorder;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowingTransactionRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.NotificationRepository;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DisplayName("Metrics Integration Tests")
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        borrowingRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should expose request, service, borrow, repository, pool and cache meters for Prometheus")
+    void shouldExposeHotPathMetrics() throws Exception {
+        // Given
+        Book book = bookRepository.save(BookTestDataBuilder.aBook().withId(null).withIsbn("978-0000000042").build());
+        Member member = memberRepository.save(MemberTestDataBuilder.aMember().withId(null).withEmail("metrics@example.com").build());
+
+        // When
+        mockMvc.perform(post("/api/borrowing/borrow")
+                .param("bookId", book.getBookId().toString())
+                .param("memberId", member.getMemberId().toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/borrowing/borrow")
+                .param("bookId", "999999")
+                .param("memberId", member.getMemberId().toString()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books/available"));
+
+        // Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("http_server_requests_seconds_bucket{"),
+                        containsString("uri=\"/api/borrowing/borrow\""),
+                        containsString("library_service_seconds_count{"),
+                        matchesRegex("(?s).*library_borrowings_total\\{[^}]*result=\"success\"[^}]*} 1\\.0.*"),
+                        matchesRegex("(?s).*library_borrowings_total\\{[^}]*result=\"failure\"[^}]*} 1\\.0.*"),
+                        containsString("spring_data_repository_invocations_seconds_count{"),
+                        containsString("hikaricp_connections_active{"),
+                        containsString("cache_size{application=\"library-management-system\",cache=\"books\""),
+                        containsString("library_loan_counter_members{"))));
+    }
+
+    @Test
+    @DisplayName("Should report latency percentiles per endpoint and service method, and reset them")
+    void shouldExposeLatencyDistributions() throws Exception {
+        // Given
+        bookRepository.save(BookTestDataBuilder.aBook().withId(null).withIsbn("978-0000000043").withTitle("Latency").build());
+        mockMvc.perform(delete("/actuator/latency")).andExpect(status().isNoContent());
+
+        // When
+        mockMvc.perform(get("/api/books/search").param("keyword", "latency"))
+                .andExpect(status().isOk());
+        latencyRecorder.rollInterval();
+
+        // Then
+        mockMvc.perform(get("/actuator/latency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['BookController.searchBooks'].interval.count").value(1))
+                .andExpect(jsonPath("$['BookService.searchBooks'].total.percentiles['99.9']").isNumber())
+                .andExpect(jsonPath("$['BookService.searchBooks'].total.distribution").isArray());
+        mockMvc.perform(get("/actuator/latency/BookService.searchBooks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.count").value(1));
+        mockMvc.perform(get("/actuator/latency/NoSuchSeries"))
+                .andExpect(status().isNotFound());
+    }
+}
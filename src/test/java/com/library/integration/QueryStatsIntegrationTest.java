@@ -0,0 +1,80 @@
+package com.library.integration;
+
+import com.library.entity.Book;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowingTransactionRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.NotificationRepository;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Query Stats Integration Tests")
+class QueryStatsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        borrowingRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should count statements per endpoint next to Hibernate statistics")
+    void shouldReportStatementsPerEndpoint() throws Exception {
+        // Given
+        mockMvc.perform(delete("/actuator/querystats")).andExpect(status().isNoContent());
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            Book book = bookRepository.save(BookTestDataBuilder.aBook().withId(null).withIsbn("978-00000001" + i).build());
+            Member member = memberRepository.save(MemberTestDataBuilder.aMember().withId(null).withEmail("q" + i + "@example.com").build());
+            mockMvc.perform(post("/api/borrowing/borrow")
+                    .param("bookId", book.getBookId().toString())
+                    .param("memberId", member.getMemberId().toString()))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/members/{id}", 999999)).andExpect(status().isNotFound());
+
+        // Then
+        mockMvc.perform(get("/actuator/querystats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.endpoints['POST /api/borrowing/borrow'].requests").value(3))
+                .andExpect(jsonPath("$.endpoints['POST /api/borrowing/borrow'].maxStatements").value(lessThanOrEqualTo(7)))
+                .andExpect(jsonPath("$.endpoints['POST /api/borrowing/borrow'].nPlusOneRequests").value(0))
+                .andExpect(jsonPath("$.endpoints['GET /api/members/{id}'].requests").value(1))
+                .andExpect(jsonPath("$.hibernate.enabled").value(true))
+                .andExpect(jsonPath("$.hibernate.preparedStatements").value(greaterThan(0)));
+    }
+}
@@ -0,0 +1,151 @@
+package com.library.latency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("LatencyRecorder Tests")
+class LatencyRecorderTest {
+
+    private LatencyRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new LatencyRecorder();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> report, String name) {
+        return (Map<String, Object>) report.get(name);
+    }
+
+    @Test
+    @DisplayName("Should report the last interval separately from the running total")
+    @SuppressWarnings("unchecked")
+    void shouldReportIntervalAndTotal() {
+        // Given
+        LatencyRecorder.Series series = recorder.series("search");
+        for (int i = 1; i <= 100; i++) {
+            series.record(i * 1_000_000L);
+        }
+        recorder.rollInterval();
+        series.record(500_000_000L);
+
+        // When
+        recorder.rollInterval();
+        Map<String, Object> report = recorder.report("search");
+
+        // Then
+        Map<String, Object> interval = section(report, "interval");
+        Map<String, Object> total = section(report, "total");
+        assertThat(interval.get("count")).isEqualTo(1L);
+        assertThat(total.get("count")).isEqualTo(101L);
+        Map<String, Double> percentiles = (Map<String, Double>) total.get("percentiles");
+        assertThat(percentiles.get("50.0")).isCloseTo(51_000.0, withinPercentage(1));
+        assertThat(percentiles.get("99.0")).isCloseTo(100_000.0, withinPercentage(1));
+        assertThat(percentiles.get("100.0")).isCloseTo(500_000.0, withinPercentage(1));
+        List<Map<String, Object>> distribution = (List<Map<String, Object>>) total.get("distribution");
+        assertThat(distribution).isNotEmpty();
+        assertThat(distribution.get(distribution.size() - 1).get("count")).isEqualTo(101L);
+    }
+
+    @Test
+    @DisplayName("Should hold the configured precision across the whole range")
+    void shouldKeepConfiguredPrecision() {
+        // Given
+        ReflectionTestUtils.setField(recorder, "significantDigits", 3);
+        LatencyRecorder.Series series = recorder.series("wide");
+        series.record(1_234L);
+        series.record(56_789_012_345L);
+
+        // When
+        recorder.rollInterval();
+
+        // Then
+        Map<String, Object> interval = section(recorder.report("wide"), "interval");
+        assertThat((Double) interval.get("minMicros")).isCloseTo(1.234, withinPercentage(0.1));
+        assertThat((Double) interval.get("maxMicros")).isCloseTo(56_789_012.345, withinPercentage(0.1));
+    }
+
+    @Test
+    @DisplayName("Should count calls slower than the maximum at the maximum")
+    void shouldClampSlowCalls() {
+        // Given
+        LatencyRecorder.Series series = recorder.series("stuck");
+        series.record(Duration.ofHours(2).toNanos());
+
+        // When
+        recorder.rollInterval();
+
+        // Then
+        Map<String, Object> interval = section(recorder.report("stuck"), "interval");
+        assertThat((Double) interval.get("maxMicros")).isCloseTo(60_000_000.0, withinPercentage(1));
+    }
+
+    @Test
+    @DisplayName("Should empty every series on reset, including the open interval")
+    void shouldResetEverySeries() {
+        // Given
+        LatencyRecorder.Series series = recorder.series("borrow");
+        series.record(1_000L);
+        recorder.rollInterval();
+        series.record(2_000L);
+
+        // When
+        recorder.reset();
+        recorder.rollInterval();
+
+        // Then
+        Map<String, Object> report = recorder.report("borrow");
+        assertThat(section(report, "interval").get("count")).isEqualTo(0L);
+        assertThat(section(report, "total").get("count")).isEqualTo(0L);
+        assertThat(recorder.report("unknown")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should time annotated methods, including those that throw")
+    void shouldTimeAnnotatedMethods() {
+        // Given
+        LatencyAspect aspect = new LatencyAspect();
+        ReflectionTestUtils.setField(aspect, "latencyRecorder", recorder);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Timed());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        Timed timed = factory.getProxy();
+
+        // When
+        timed.work();
+        timed.work();
+        assertThatThrownBy(timed::fail).isInstanceOf(IllegalStateException.class);
+        timed.untimed();
+        recorder.rollInterval();
+
+        // Then
+        assertThat(recorder.report()).containsOnlyKeys("Timed.work", "Timed.fail");
+        assertThat(section(recorder.report("Timed.work"), "total").get("count")).isEqualTo(2L);
+        assertThat(section(recorder.report("Timed.fail"), "total").get("count")).isEqualTo(1L);
+    }
+
+    static class Timed {
+
+        @RecordLatency
+        public void work() {
+        }
+
+        @RecordLatency
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        public void untimed() {
+        }
+    }
+}
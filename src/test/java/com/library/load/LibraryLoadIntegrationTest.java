@@ -0,0 +1,196 @@
+package com.library.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.testdata.LibraryDataGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Steps the running application through rising arrival rates of a search, member read, borrow
+ * and return mix over real HTTP, and reports throughput against response time for each step.
+ * Runs only when asked for, against a database seeded by {@link LibraryDataGenerator}:
+ * <pre>
+ * mvn test -Dtest=LibraryLoadIntegrationTest -Dload=true \
+ *     -Dload.rates=25,50,100,200,400 -Dload.mix=search:50,member:20,borrow:15,return:15
+ * </pre>
+ * Other settings: {@code load.warmup} and {@code load.duration} per step in seconds,
+ * {@code load.p99-ms} objective, {@code load.books}, {@code load.members}, {@code load.loans}.
+ * The report is written to {@code target/load-report.txt} and included in the failure message.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loaddb",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "library.diagnostics.slow-query-threshold=1h"})
+@EnabledIfSystemProperty(named = "load", matches = "true")
+@DisplayName("Library Load Tests")
+class LibraryLoadIntegrationTest {
+
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Queue<Long> borrowed = new ConcurrentLinkedQueue<>();
+    private String[] terms;
+    private long[] books;
+    private long[] members;
+
+    @TestConfiguration
+    static class Seeding {
+
+        // Generated while the context starts, so the search indexes and caches load it on application ready
+        @Bean
+        LibraryDataGenerator.Summary loadTestData(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+            return LibraryDataGenerator.aLibrary()
+                    .withBooks(Integer.getInteger("load.books", 10_000))
+                    .withMembers(Integer.getInteger("load.members", 2_000))
+                    .withTransactions(Integer.getInteger("load.loans", 50_000))
+                    .generate(dataSource);
+        }
+    }
+
+    @Test
+    @DisplayName("Should hold the response time objective at the lowest rate and report where it breaks")
+    void shouldReportThroughputAgainstResponseTime() throws IOException {
+        // Given
+        terms = jdbc.queryForList("SELECT title FROM books ORDER BY book_id LIMIT 500", String.class).stream()
+                .flatMap(title -> Arrays.stream(title.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")))
+                .filter(word -> word.length() >= 4)
+                .distinct()
+                .toArray(String[]::new);
+        books = jdbc.queryForList("SELECT book_id FROM books WHERE available_copies > 0", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        members = jdbc.queryForList("SELECT member_id FROM members", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        OpenLoadGenerator generator = new OpenLoadGenerator();
+        Map<String, OpenLoadGenerator.Operation> operations = Map.of(
+                "search", this::search,
+                "member", this::readMember,
+                "borrow", this::borrow,
+                "return", this::returnBook);
+        mix().forEach((name, weight) -> {
+            if (!operations.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown operation '" + name + "', expected one of " + operations.keySet());
+            }
+            generator.withOperation(name, weight, operations.get(name));
+        });
+        List<Integer> rates = Arrays.stream(System.getProperty("load.rates", "25,50,100,200").split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .toList();
+        Duration objective = Duration.ofMillis(Long.getLong("load.p99-ms", 100));
+
+        // When
+        List<OpenLoadGenerator.StepResult> results = generator.run(rates,
+                Duration.ofSeconds(Long.getLong("load.warmup", 5)), Duration.ofSeconds(Long.getLong("load.duration", 20)));
+
+        // Then
+        String report = OpenLoadGenerator.report(results, objective, MAX_ERROR_RATE);
+        Files.writeString(Path.of("target", "load-report.txt"), report);
+        assertThat(results).hasSize(rates.size());
+        assertThat(results.get(0).sustained(objective, MAX_ERROR_RATE)).as(report).isTrue();
+    }
+
+    private Map<String, Integer> mix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : System.getProperty("load.mix", "search:50,member:20,borrow:15,return:15").split(",")) {
+            String[] parts = entry.trim().split(":");
+            mix.put(parts[0], Integer.valueOf(parts[1]));
+        }
+        return mix;
+    }
+
+    private CompletableFuture<Boolean> search() {
+        String term = terms[ThreadLocalRandom.current().nextInt(terms.length)];
+        return send(get("/api/books/search?keyword=" + URLEncoder.encode(term, StandardCharsets.UTF_8)));
+    }
+
+    private CompletableFuture<Boolean> readMember() {
+        return send(get("/api/members/" + members[ThreadLocalRandom.current().nextInt(members.length)]));
+    }
+
+    /** A refused borrow, the member at their limit or the book out of copies, is a valid answer under load. */
+    private CompletableFuture<Boolean> borrow() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = post("/api/borrowing/borrow?bookId=" + books[random.nextInt(books.length)]
+                + "&memberId=" + members[random.nextInt(members.length)]);
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() == 200) {
+                try {
+                    borrowed.add(objectMapper.readTree(response.body()).get("transactionId").asLong());
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            return response.statusCode() < 500;
+        });
+    }
+
+    /** Returns a book this run borrowed, or borrows one when none is out. */
+    private CompletableFuture<Boolean> returnBook() {
+        Long transactionId = borrowed.poll();
+        return transactionId == null ? borrow() : send(post("/api/borrowing/return/" + transactionId));
+    }
+
+    private CompletableFuture<Boolean> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.statusCode() < 500);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path) {
+        return request(path).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10));
+    }
+}
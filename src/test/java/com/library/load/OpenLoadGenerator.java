@@ -0,0 +1,251 @@
+package com.library.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive at a constant rate whether or not earlier ones have answered,
+ * the way independent users arrive, so a slow server faces a growing queue instead of a politely
+ * waiting client. Each step holds one rate for a warmup and a measured period; the mix of
+ * operations is drawn by weight for every arrival.
+ * <p>
+ * Response time runs from a request's <em>intended</em> start on the arrival schedule, not from
+ * when it was actually sent, so stalls in the generator or a backlog on the server count against
+ * every request they delay (coordinated omission). Service time, from the actual send, is
+ * recorded next to it; a wide gap between the two means requests are queueing.
+ */
+public class OpenLoadGenerator {
+    
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+    
+    private final List<NamedOperation> operations = new ArrayList<>();
+    private int totalWeight;
+    private Duration drainTimeout = Duration.ofSeconds(30);
+    
+    /** Sends one request and completes with whether the server answered it successfully. */
+    @FunctionalInterface
+    public interface Operation {
+        CompletableFuture<Boolean> send();
+    }
+    
+    public OpenLoadGenerator withOperation(String name, int weight, Operation operation) {
+        operations.add(new NamedOperation(name, weight, operation));
+        totalWeight += weight;
+        return this;
+    }
+    
+    public OpenLoadGenerator withDrainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+        return this;
+    }
+    
+    public List<StepResult> run(List<Integer> rates, Duration warmup, Duration duration) {
+        List<StepResult> results = new ArrayList<>();
+        for (int rate : rates) {
+            runStep(rate, warmup);
+            results.add(runStep(rate, duration));
+        }
+        return results;
+    }
+    
+    /**
+     * One step at {@code rate} requests per second. Arrivals are scheduled against a fixed start,
+     * so a late send is followed by catch-up sends rather than shifting the rest of the schedule.
+     * Requests still unanswered when the drain timeout expires are recorded at their wait so far
+     * and counted as errors, so the slowest requests stay in the percentiles.
+     */
+    public StepResult runStep(int rate, Duration duration) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        int arrivals = Math.toIntExact(duration.toNanos() / interval);
+        Step step = new Step(arrivals);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < arrivals; i++) {
+            long intended = start + i * interval;
+            for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            NamedOperation operation = pick();
+            long sent = System.nanoTime();
+            step.sending(i, operation.name, intended, sent);
+            CompletableFuture<Boolean> response;
+            try {
+                response = operation.delegate.send();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            int arrival = i;
+            response.whenComplete((ok, failure) ->
+                step.answered(arrival, System.nanoTime(), failure != null || !Boolean.TRUE.equals(ok)));
+        }
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while (step.completed() < arrivals && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return step.close(rate, start, start + arrivals * interval);
+    }
+    
+    private NamedOperation pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (NamedOperation operation : operations) {
+            ticket -= operation.weight;
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("No operations configured");
+    }
+    
+    private static Histogram histogram() {
+        return new Histogram(1, MAX_LATENCY, 2);
+    }
+    
+    /** What one step sent and how long it took, in nanoseconds; successes exclude errors and unanswered requests. */
+    public record StepResult(int targetRate, long requests, long errors, double achievedRate,
+                             Histogram responseTime, Histogram serviceTime, Map<String, Histogram> responseTimeByOperation) {
+        
+        public double p99Millis() {
+            return millis(responseTime.getValueAtPercentile(99));
+        }
+        
+        public double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+        
+        /** Whether the step kept up: p99 within the objective, 95% of the arrival rate served, few errors. */
+        public boolean sustained(Duration p99Objective, double maxErrorRate) {
+            return responseTime.getValueAtPercentile(99) <= p99Objective.toNanos()
+                && achievedRate >= 0.95 * targetRate
+                && errorRate() <= maxErrorRate;
+        }
+    }
+    
+    /**
+     * A table of throughput against response time for each step, with per-operation p99 and the
+     * first step that did not keep up.
+     */
+    public static String report(List<StepResult> results, Duration p99Objective, double maxErrorRate) {
+        StringBuilder report = new StringBuilder();
+        List<String> names = results.isEmpty() ? List.of() : new ArrayList<>(results.get(0).responseTimeByOperation().keySet());
+        report.append(String.format(Locale.ROOT, "%8s %10s %8s %7s %9s %9s %9s %9s %11s",
+            "target/s", "achieved/s", "requests", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms"));
+        for (String name : names) {
+            report.append(String.format(Locale.ROOT, " %14s", name + " p99"));
+        }
+        report.append('\n');
+        StepResult breakingPoint = null;
+        for (StepResult step : results) {
+            Histogram response = step.responseTime();
+            report.append(String.format(Locale.ROOT, "%8d %10.1f %8d %7d %9.2f %9.2f %9.2f %9.2f %11.2f",
+                step.targetRate(), step.achievedRate(), step.requests(), step.errors(),
+                millis(response.getValueAtPercentile(50)), millis(response.getValueAtPercentile(99)),
+                millis(response.getValueAtPercentile(99.9)), millis(response.getMaxValue()),
+                millis(step.serviceTime().getValueAtPercentile(99))));
+            for (String name : names) {
+                report.append(String.format(Locale.ROOT, " %14.2f",
+                    millis(step.responseTimeByOperation().get(name).getValueAtPercentile(99))));
+            }
+            report.append('\n');
+            if (breakingPoint == null && !step.sustained(p99Objective, maxErrorRate)) {
+                breakingPoint = step;
+            }
+        }
+        report.append(breakingPoint == null
+            ? String.format(Locale.ROOT, "Every step held p99 <= %d ms", p99Objective.toMillis())
+            : String.format(Locale.ROOT, "Breaking point: %d/s (p99 %.2f ms, %.1f%% errors, %.1f/s achieved; objective p99 <= %d ms)",
+                breakingPoint.targetRate(), breakingPoint.p99Millis(), 100 * breakingPoint.errorRate(),
+                breakingPoint.achievedRate(), p99Objective.toMillis()));
+        return report.append('\n').toString();
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+    
+    private record NamedOperation(String name, int weight, Operation delegate) {
+    }
+    
+    /**
+     * The histograms of one step. Each request is recorded once: when it answers, or when the step
+     * closes if it has not answered by then. Answers that arrive after the step closed are dropped.
+     */
+    private final class Step {
+        
+        private final Map<String, Histogram> responseTimes = new LinkedHashMap<>();
+        private final Histogram allResponseTimes = histogram();
+        private final Histogram serviceTimes = histogram();
+        private final String[] names;
+        private final long[] intended;
+        private final long[] sent;
+        private final boolean[] recorded;
+        private long errors;
+        private int completed;
+        private long lastCompletion;
+        private boolean closed;
+        
+        Step(int arrivals) {
+            for (NamedOperation operation : operations) {
+                responseTimes.put(operation.name, histogram());
+            }
+            names = new String[arrivals];
+            intended = new long[arrivals];
+            sent = new long[arrivals];
+            recorded = new boolean[arrivals];
+        }
+        
+        synchronized void sending(int arrival, String name, long intendedAt, long sentAt) {
+            names[arrival] = name;
+            intended[arrival] = intendedAt;
+            sent[arrival] = sentAt;
+        }
+        
+        synchronized void answered(int arrival, long now, boolean failed) {
+            if (closed) {
+                return;
+            }
+            record(arrival, now);
+            if (failed) {
+                errors++;
+            }
+            completed++;
+            lastCompletion = Math.max(lastCompletion, now);
+        }
+        
+        synchronized int completed() {
+            return completed;
+        }
+        
+        synchronized StepResult close(int rate, long start, long scheduleEnd) {
+            closed = true;
+            long now = System.nanoTime();
+            long unanswered = 0;
+            for (int arrival = 0; arrival < recorded.length; arrival++) {
+                if (!recorded[arrival]) {
+                    record(arrival, now);
+                    unanswered++;
+                }
+            }
+            long elapsed = Math.max(lastCompletion, scheduleEnd) - start;
+            return new StepResult(rate, recorded.length, errors + unanswered, (completed - errors) * 1e9 / elapsed,
+                allResponseTimes, serviceTimes, responseTimes);
+        }
+        
+        private void record(int arrival, long now) {
+            long responseTime = Math.min(now - intended[arrival], MAX_LATENCY);
+            responseTimes.get(names[arrival]).recordValue(responseTime);
+            allResponseTimes.recordValue(responseTime);
+            serviceTimes.recordValue(Math.min(now - sent[arrival], MAX_LATENCY));
+            recorded[arrival] = true;
+        }
+    }
+}
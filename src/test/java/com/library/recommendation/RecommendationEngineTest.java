@@ -0,0 +1,220 @@
+package com.library.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RecommendationEngine Tests")
+class RecommendationEngineTest {
+
+    private RecommendationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new RecommendationEngine();
+    }
+
+    private List<Long> ids(List<RecommendationEngine.Recommendation> recommendations) {
+        return recommendations.stream().map(RecommendationEngine.Recommendation::bookId).toList();
+    }
+
+    @Test
+    @DisplayName("Should rank books borrowed by the same members, closest first")
+    void shouldRankCoBorrowedBooks() {
+        // Given
+        engine.rebuild(Map.of(
+                1L, List.of(1L, 2L, 3L),
+                2L, List.of(1L, 2L),
+                3L, List.of(1L, 4L),
+                4L, List.of(4L, 5L, 6L),
+                5L, List.of(4L, 6L)));
+
+        // When
+        List<RecommendationEngine.Recommendation> result = engine.similar(1L, 10);
+
+        // Then
+        assertThat(ids(result)).containsExactly(2L, 3L, 4L);
+        assertThat(result.get(0).sharedBorrowers()).isEqualTo(2);
+        assertThat(result.get(0).score()).isCloseTo(2 / Math.sqrt(3 * 2), within(1e-9));
+        assertThat(engine.similar(99L, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should follow new borrows and ignore a member borrowing the same book again")
+    void shouldFollowNewBorrows() {
+        // Given
+        engine.rebuild(Map.of(1L, List.of(1L, 2L)));
+
+        // When
+        engine.record(2L, 1L);
+        engine.record(2L, 3L);
+        engine.record(2L, 3L);
+        engine.record(1L, 1L);
+
+        // Then
+        assertThat(engine.similar(3L, 10)).containsExactly(new RecommendationEngine.Recommendation(1L, 1 / Math.sqrt(2), 1));
+        assertThat(engine.similar(1L, 10)).extracting(RecommendationEngine.Recommendation::sharedBorrowers)
+                .containsExactly(1, 1);
+    }
+
+    @Test
+    @DisplayName("Should end where a rebuild from the same history ends")
+    void shouldMatchRebuildWhenUpdatedIncrementally() {
+        // Given
+        Random random = new Random(5);
+        Map<Long, List<Long>> history = new HashMap<>();
+        RecommendationEngine incremental = new RecommendationEngine();
+        incremental.rebuild(Map.of());
+
+        // When
+        for (int i = 0; i < 3000; i++) {
+            long member = 1 + random.nextInt(100);
+            long book = 1 + random.nextInt(random.nextBoolean() ? 10 : 60);
+            history.computeIfAbsent(member, id -> new ArrayList<>()).add(book);
+            incremental.record(member, book);
+        }
+        engine.rebuild(history);
+
+        // Then
+        for (long book = 1; book <= 60; book++) {
+            assertThat(incremental.similar(book, 10)).as("book %d", book).isEqualTo(engine.similar(book, 10));
+        }
+    }
+
+    @Test
+    @DisplayName("Should take books that leave a member's history back out of the counts")
+    void shouldMatchRebuildWhenHistoriesOverflow() {
+        // Given
+        Random random = new Random(11);
+        Map<Long, List<Long>> history = new HashMap<>();
+        RecommendationEngine incremental = new RecommendationEngine();
+        ReflectionTestUtils.setField(incremental, "maxHistory", 5);
+        ReflectionTestUtils.setField(engine, "maxHistory", 5);
+        incremental.rebuild(Map.of());
+
+        // When
+        for (int i = 0; i < 3000; i++) {
+            long member = 1 + random.nextInt(50);
+            long book = 1 + random.nextInt(40);
+            history.computeIfAbsent(member, id -> new ArrayList<>()).add(book);
+            incremental.record(member, book);
+        }
+        engine.rebuild(history);
+
+        // Then
+        for (long book = 1; book <= 40; book++) {
+            assertThat(incremental.similar(book, 10)).as("book %d", book).isEqualTo(engine.similar(book, 10));
+        }
+    }
+
+    @Test
+    @DisplayName("Should count only the most recently active members")
+    void shouldMatchRebuildOfMostRecentMembers() {
+        // Given
+        Random random = new Random(13);
+        Map<Long, List<Long>> history = new LinkedHashMap<>();
+        RecommendationEngine incremental = new RecommendationEngine();
+        ReflectionTestUtils.setField(incremental, "maxMembers", 10);
+        ReflectionTestUtils.setField(engine, "maxMembers", 10);
+        incremental.rebuild(Map.of());
+
+        // When
+        for (int i = 0; i < 2000; i++) {
+            long member = 1 + random.nextInt(40);
+            long book = 1 + random.nextInt(30);
+            // Moved to the end, so members stay in order of their latest borrow; a member that had
+            // dropped out of the ten most recent starts over
+            List<Long> books = history.computeIfAbsent(member, id -> new ArrayList<>());
+            List<Long> members = new ArrayList<>(history.keySet());
+            if (members.indexOf(member) < members.size() - 10) {
+                books.clear();
+            }
+            history.remove(member);
+            history.put(member, books);
+            books.add(book);
+            incremental.record(member, book);
+        }
+        engine.rebuild(history);
+
+        // Then
+        for (long book = 1; book <= 30; book++) {
+            assertThat(incremental.similar(book, 10)).as("book %d", book).isEqualTo(engine.similar(book, 10));
+        }
+    }
+
+    @Test
+    @DisplayName("Should prune each book to its heaviest pairs")
+    void shouldPruneLowWeightPairs() {
+        // Given every member borrows book 1, book 2 and one book of their own
+        ReflectionTestUtils.setField(engine, "maxNeighbours", 5);
+        Map<Long, List<Long>> history = new HashMap<>();
+        for (long member = 1; member <= 50; member++) {
+            history.put(member, List.of(1L, 2L, 100 + member));
+        }
+
+        // When
+        engine.rebuild(history);
+        for (long member = 51; member <= 80; member++) {
+            engine.record(member, 1L);
+            engine.record(member, 200 + member);
+        }
+
+        // Then
+        List<RecommendationEngine.Recommendation> result = engine.similar(1L, 100);
+        assertThat(result.size()).isLessThanOrEqualTo(10);
+        assertThat(result.get(0).bookId()).isEqualTo(2L);
+        assertThat(result.get(0).sharedBorrowers()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Should remove keys that are decremented to zero and still find the rest")
+    void shouldRemoveKeysDecrementedToZero() {
+        // Given enough keys in a small table that their probe runs overlap
+        IntIntHashMap map = new IntIntHashMap(4);
+        for (int key = 1; key <= 200; key++) {
+            map.addTo(key, key % 2 == 0 ? 1 : 2);
+        }
+
+        // When
+        for (int key = 1; key <= 200; key++) {
+            map.decrement(key);
+        }
+        map.decrement(999);
+
+        // Then
+        assertThat(map.size()).isEqualTo(100);
+        for (int key = 1; key <= 200; key++) {
+            assertThat(map.get(key)).as("key %d", key).isEqualTo(key % 2 == 0 ? 0 : 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the largest values and fill ties up to the limit")
+    void shouldRetainLargestValues() {
+        // Given
+        IntIntHashMap map = new IntIntHashMap();
+        for (int key = 1; key <= 100; key++) {
+            map.addTo(key, key <= 3 ? 10 : 1);
+        }
+        map.addTo(7, 1);
+
+        // When
+        map.retainLargest(6);
+
+        // Then
+        assertThat(map.size()).isEqualTo(6);
+        assertThat(map.get(1)).isEqualTo(10);
+        assertThat(map.get(3)).isEqualTo(10);
+        assertThat(map.get(7)).isEqualTo(2);
+    }
+}
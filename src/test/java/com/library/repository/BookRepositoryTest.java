@@ -43,6 +43,7 @@ class BookRepositoryTest {
                 .withTitle("Python Programming")
                 .withAuthor("Jane Smith")
                 .withGenre("Programming")
+                .withIsbn("978-0987654321")
                 .withAvailableCopies(0)
                 .build();
 
@@ -93,6 +94,21 @@ class BookRepositoryTest {
         assertThat(result.get(0).getTitle()).isEqualTo("Java Programming");
     }
 
+    @Test
+    @DisplayName("Should decrement available copies only while a copy is left")
+    void shouldDecrementAvailableCopiesOnlyWhileCopyIsLeft() {
+        // When
+        int lent = bookRepository.decrementAvailableCopies(testBook1.getBookId());
+        int refused = bookRepository.decrementAvailableCopies(testBook2.getBookId());
+        entityManager.clear();
+
+        // Then
+        assertThat(lent).isEqualTo(1);
+        assertThat(refused).isZero();
+        assertThat(bookRepository.findById(testBook1.getBookId()).get().getAvailableCopies()).isEqualTo(4);
+        assertThat(bookRepository.findById(testBook2.getBookId()).get().getAvailableCopies()).isZero();
+    }
+
     @Test
     @DisplayName("Should search books by keyword in title, author, or genre")
     void shouldSearchBooksByKeywordInTitleAuthorOrGenre() {
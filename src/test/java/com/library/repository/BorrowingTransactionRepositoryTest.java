@@ -0,0 +1,108 @@
+package com.library.repository;
+
+import com.library.dto.BorrowingHistoryEntry;
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Member;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.BorrowingTransactionTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("BorrowingTransactionRepository Tests")
+class BorrowingTransactionRepositoryTest {
+
+    private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+
+    private Member member;
+    private Long first;
+    private Long second;
+    private Long third;
+
+    @BeforeEach
+    void setUp() {
+        Book book = entityManager.persistAndFlush(BookTestDataBuilder.aBook().withId(null).build());
+        member = entityManager.persistAndFlush(MemberTestDataBuilder.aMember().withId(null).build());
+        Member otherMember = entityManager.persistAndFlush(MemberTestDataBuilder.aMember()
+                .withId(null).withEmail("other@example.com").build());
+
+        first = persist(book, member, LocalDate.of(2024, 1, 10), BorrowingTransaction.TransactionStatus.RETURNED);
+        second = persist(book, member, LocalDate.of(2024, 2, 10), BorrowingTransaction.TransactionStatus.RETURNED);
+        third = persist(book, member, LocalDate.of(2024, 2, 10), BorrowingTransaction.TransactionStatus.BORROWED);
+        persist(book, otherMember, LocalDate.of(2024, 3, 10), BorrowingTransaction.TransactionStatus.BORROWED);
+    }
+
+    private Long persist(Book book, Member borrower, LocalDate borrowDate, BorrowingTransaction.TransactionStatus status) {
+        return entityManager.persistAndFlush(BorrowingTransactionTestDataBuilder.aTransaction()
+                .withId(null)
+                .withBook(book)
+                .withMember(borrower)
+                .withBorrowDate(borrowDate)
+                .withStatus(status)
+                .build()).getTransactionId();
+    }
+
+    @Test
+    @DisplayName("Should page member history in every status newest first")
+    void shouldPageMemberHistoryNewestFirst() {
+        // When
+        List<BorrowingHistoryEntry> firstPage = borrowingRepository.findMemberHistoryPage(
+                member.getMemberId(), FROM, TO, TO.plusDays(1), Long.MAX_VALUE, PageRequest.of(0, 2));
+        BorrowingHistoryEntry last = firstPage.get(1);
+        List<BorrowingHistoryEntry> secondPage = borrowingRepository.findMemberHistoryPage(
+                member.getMemberId(), FROM, TO, last.getBorrowDate(), last.getTransactionId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(firstPage).extracting(BorrowingHistoryEntry::getTransactionId).containsExactly(third, second);
+        assertThat(secondPage).extracting(BorrowingHistoryEntry::getTransactionId).containsExactly(first);
+        assertThat(firstPage).allSatisfy(entry -> assertThat(entry.isArchived()).isFalse());
+    }
+
+    @Test
+    @DisplayName("Should restrict member history to the date range")
+    void shouldRestrictMemberHistoryToDateRange() {
+        // When
+        List<BorrowingHistoryEntry> result = borrowingRepository.findMemberHistoryPage(
+                member.getMemberId(), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31),
+                TO, Long.MAX_VALUE, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result).extracting(BorrowingHistoryEntry::getTransactionId).containsExactly(first);
+    }
+
+    @Test
+    @DisplayName("Should load a member's open loans with their books")
+    void shouldLoadActiveLoansWithBooks() {
+        // Given
+        entityManager.clear();
+
+        // When
+        List<BorrowingTransaction> result = borrowingRepository.findActiveLoansWithBook(member.getMemberId());
+
+        // Then
+        assertThat(result).extracting(BorrowingTransaction::getTransactionId).containsExactly(third);
+        assertThat(Hibernate.isInitialized(result.get(0).getBook())).isTrue();
+    }
+}
@@ -0,0 +1,92 @@
+package com.library.repository;
+
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Member;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.BorrowingTransactionTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ProjectionRepository.class)
+@DisplayName("ProjectionRepository Tests")
+class ProjectionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    private Book book;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        book = entityManager.persistAndFlush(BookTestDataBuilder.aBook().withId(null).withTitle("Dune").withAuthor("Frank Herbert").build());
+        member = entityManager.persistAndFlush(MemberTestDataBuilder.aMember().withId(null).withName("Paul Atreides").build());
+        entityManager.persistAndFlush(BorrowingTransactionTestDataBuilder.aTransaction()
+                .withId(null)
+                .withBook(book)
+                .withMember(member)
+                .withBorrowDate(LocalDate.of(2024, 3, 1))
+                .withDueDate(LocalDate.of(2024, 3, 15))
+                .build());
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should return the ID and the requested fields in the requested order")
+    void shouldReturnOnlyRequestedFields() {
+        // When
+        List<Map<String, Object>> rows = projectionRepository.findAll(FieldProjection.BOOK, List.of("author", "title", "author"));
+
+        // Then
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.keySet()).containsExactly("bookId", "author", "title");
+            assertThat(row).containsEntry("bookId", book.getBookId())
+                    .containsEntry("title", "Dune")
+                    .containsEntry("author", "Frank Herbert");
+        });
+    }
+
+    @Test
+    @DisplayName("Should select fields of associated entities")
+    void shouldSelectAssociatedFields() {
+        // When
+        List<Map<String, Object>> rows = projectionRepository.findAll(FieldProjection.BORROWING,
+                List.of("bookTitle", "memberId", "memberName", "dueDate", "status"));
+
+        // Then
+        assertThat(rows).singleElement().satisfies(row -> assertThat(row)
+                .containsEntry("bookTitle", "Dune")
+                .containsEntry("memberId", member.getMemberId())
+                .containsEntry("memberName", "Paul Atreides")
+                .containsEntry("dueDate", LocalDate.of(2024, 3, 15))
+                .containsEntry("status", BorrowingTransaction.TransactionStatus.BORROWED));
+    }
+
+    @Test
+    @DisplayName("Should reject a field that is not part of the API")
+    void shouldRejectUnknownField() {
+        // When & Then
+        assertThatThrownBy(() -> projectionRepository.findAll(FieldProjection.MEMBER, List.of("name", "password")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("password");
+    }
+}
@@ -0,0 +1,171 @@
+package com.library.search;
+
+import com.library.dto.AutocompleteSuggestion;
+import com.library.entity.Book;
+import com.library.testdata.BookTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AutocompleteIndex Tests")
+class AutocompleteIndexTest {
+
+    private AutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AutocompleteIndex();
+        index.index(book(1L, "Harry Potter and the Philosopher's Stone", "J.K. Rowling", "Fantasy"));
+        index.index(book(2L, "Harry Potter and the Chamber of Secrets", "J.K. Rowling", "Fantasy"));
+        index.index(book(3L, "The Hobbit", "J.R.R. Tolkien", "Fantasy"));
+        index.index(book(4L, "Harold and the Purple Crayon", "Crockett Johnson", "Children"));
+    }
+
+    private Book book(Long id, String title, String author, String genre) {
+        return BookTestDataBuilder.aBook().withId(id).withTitle(title).withAuthor(author).withGenre(genre).build();
+    }
+
+    private List<String> texts(List<AutocompleteSuggestion> suggestions) {
+        return suggestions.stream().map(AutocompleteSuggestion::getText).toList();
+    }
+
+    @Test
+    @DisplayName("Should complete titles, authors and genres, most common first")
+    void shouldCompleteByPrefixMostCommonFirst() {
+        // When
+        List<AutocompleteSuggestion> result = index.suggest("har", 10);
+
+        // Then
+        assertThat(texts(result)).containsExactly(
+                "Harry Potter and the Philosopher's Stone",
+                "Harry Potter and the Chamber of Secrets",
+                "Harold and the Purple Crayon");
+        assertThat(index.suggest("fan", 10)).containsExactly(new AutocompleteSuggestion("Fantasy", "GENRE", 3));
+    }
+
+    @Test
+    @DisplayName("Should match from the start of later words")
+    void shouldMatchFromStartOfLaterWords() {
+        assertThat(texts(index.suggest("rowl", 10))).containsExactly("J.K. Rowling");
+        assertThat(texts(index.suggest("hobb", 10))).containsExactly("The Hobbit");
+        assertThat(index.suggest("owling", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should ignore case and punctuation in the prefix")
+    void shouldIgnoreCaseAndPunctuation() {
+        assertThat(texts(index.suggest("J.R.R. TOLK", 10))).containsExactly("J.R.R. Tolkien");
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should update counts when books change or go away")
+    void shouldUpdateCountsWhenBooksChange() {
+        // When
+        index.index(book(2L, "Quidditch Through the Ages", "J.K. Rowling", "Sport"));
+        index.remove(3L);
+
+        // Then
+        assertThat(texts(index.suggest("harry", 10))).containsExactly("Harry Potter and the Philosopher's Stone");
+        assertThat(index.suggest("fantasy", 10)).containsExactly(new AutocompleteSuggestion("Fantasy", "GENRE", 1));
+        assertThat(index.suggest("tolk", 10)).isEmpty();
+        assertThat(index.suggest("j k", 10)).containsExactly(new AutocompleteSuggestion("J.K. Rowling", "AUTHOR", 2));
+    }
+
+    @Test
+    @DisplayName("Should honour the limit")
+    void shouldHonourLimit() {
+        assertThat(index.suggest("h", 2)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should agree with a brute-force scan through random updates")
+    void shouldAgreeWithBruteForceScan() {
+        // Given
+        Random random = new Random(42);
+        String[] words = {"a", "ab", "abc", "abd", "b", "ba", "bab", "c", "ca", "cab"};
+        Map<Long, Book> books = new HashMap<>();
+        AutocompleteIndex randomIndex = new AutocompleteIndex();
+
+        for (int step = 0; step < 3000; step++) {
+            // When
+            long id = 1 + random.nextInt(200);
+            if (random.nextInt(4) == 0) {
+                randomIndex.remove(id);
+                books.remove(id);
+            } else {
+                Book book = book(id, phrase(random, words, 1 + random.nextInt(5)),
+                        phrase(random, words, 1 + random.nextInt(2)), words[random.nextInt(3)]);
+                randomIndex.index(book);
+                books.put(id, book);
+            }
+
+            // Then
+            if (step % 50 == 0) {
+                for (String prefix : List.of("a", "ab", "b", "ba b", "c", "cab", "a a", "abd c")) {
+                    assertMatchesBruteForce(randomIndex, books, prefix);
+                }
+            }
+        }
+    }
+
+    private String phrase(Random random, String[] words, int length) {
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            parts.add(words[random.nextInt(words.length)]);
+        }
+        return String.join(" ", parts);
+    }
+
+    private void assertMatchesBruteForce(AutocompleteIndex randomIndex, Map<Long, Book> books, String prefix) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Book book : books.values()) {
+            counts.merge("TITLE:" + AutocompleteIndex.normalize(book.getTitle()), 1, Integer::sum);
+            counts.merge("AUTHOR:" + AutocompleteIndex.normalize(book.getAuthor()), 1, Integer::sum);
+            counts.merge("GENRE:" + AutocompleteIndex.normalize(book.getGenre()), 1, Integer::sum);
+        }
+        List<Integer> expectedWeights = new ArrayList<>();
+        counts.forEach((value, count) -> {
+            String key = value.substring(value.indexOf(':') + 1);
+            if (matches(key, prefix)) {
+                expectedWeights.add(count);
+            }
+        });
+        expectedWeights.sort(Comparator.reverseOrder());
+
+        List<AutocompleteSuggestion> actual = randomIndex.suggest(prefix, AutocompleteIndex.TOP_K);
+        Set<String> seen = new HashSet<>();
+        for (AutocompleteSuggestion suggestion : actual) {
+            String value = suggestion.getField() + ":" + AutocompleteIndex.normalize(suggestion.getText());
+            assertThat(seen.add(value)).as("duplicate %s", value).isTrue();
+            assertThat(counts.get(value)).as("weight of %s", value).isEqualTo(suggestion.getBooks());
+        }
+        assertThat(actual.stream().map(AutocompleteSuggestion::getBooks).toList())
+                .as("weights for prefix '%s'", prefix)
+                .isEqualTo(expectedWeights.subList(0, Math.min(AutocompleteIndex.TOP_K, expectedWeights.size())));
+    }
+
+    private boolean matches(String key, String prefix) {
+        if (key.startsWith(prefix)) {
+            return true;
+        }
+        int starts = 1;
+        for (int i = key.indexOf(' '); i >= 0 && starts < 4; i = key.indexOf(' ', i + 1), starts++) {
+            if (key.substring(i + 1).startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
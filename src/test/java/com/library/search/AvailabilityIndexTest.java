@@ -0,0 +1,153 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.testdata.BookTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AvailabilityIndex Tests")
+class AvailabilityIndexTest {
+
+    private AvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AvailabilityIndex();
+        index.index(book(1L, 2));
+        index.index(book(2L, 0));
+        index.index(book(3L, 1));
+        index.index(book(4L, 3));
+    }
+
+    private Book book(Long id, int availableCopies) {
+        return BookTestDataBuilder.aBook().withId(id).withAvailableCopies(availableCopies).build();
+    }
+
+    @Test
+    @DisplayName("Should page through available books in ID order")
+    void shouldPageThroughAvailableBooks() {
+        // When
+        AvailabilityIndex.Page first = index.page(0, 2);
+        AvailabilityIndex.Page second = index.page(2, 2);
+
+        // Then
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(first.bookIds()).containsExactly(1L, 3L);
+        assertThat(second.bookIds()).containsExactly(4L);
+        assertThat(index.page(3, 2).bookIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should flip a book when its copy count crosses zero")
+    void shouldFlipBookWhenCountCrossesZero() {
+        // When
+        index.availableCopiesChanged(3L, 0, 1L);
+        index.availableCopiesChanged(2L, 1, 1L);
+        index.availableCopiesChanged(1L, 1, 1L);
+
+        // Then
+        assertThat(index.isAvailable(3L)).isFalse();
+        assertThat(index.isAvailable(2L)).isTrue();
+        assertThat(index.isAvailable(1L)).isTrue();
+        assertThat(index.page(0, 10).bookIds()).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    @DisplayName("Should settle on the right state when a borrow's callback overtakes the return before it")
+    void shouldSettleWhenCallbacksArriveOutOfOrder() {
+        // Given book 2 has a copy returned and then borrowed again, but the borrow's callback runs first
+
+        // When
+        index.availableCopiesChanged(2L, 0, 2L);
+        index.availableCopiesChanged(2L, 1, 1L);
+
+        // Then
+        assertThat(index.isAvailable(2L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should ignore a save whose callback runs after a later borrow's")
+    void shouldIgnoreStaleSave() {
+        // Given book 5 is saved with one copy, then borrowed, but the borrow's callback runs first
+
+        // When
+        index.availableCopiesChanged(5L, 0, 1L);
+        index.index(BookTestDataBuilder.aBook().withId(5L).withAvailableCopies(1).withVersion(0L).build());
+
+        // Then
+        assertThat(index.isAvailable(5L)).isFalse();
+        assertThat(index.page(0, 10).total()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should ignore changes to unknown books and forget removed ones")
+    void shouldIgnoreUnknownAndRemovedBooks() {
+        // When
+        index.availableCopiesChanged(99L, 1, 1L);
+        index.remove(4L);
+        index.availableCopiesChanged(4L, 4, 1L);
+
+        // Then
+        assertThat(index.isAvailable(99L)).isFalse();
+        assertThat(index.isAvailable(4L)).isFalse();
+        assertThat(index.page(0, 10).total()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should end on the latest copy count after concurrent borrows and returns in any order")
+    void shouldEndOnLatestCountAfterConcurrentChanges() throws Exception {
+        // Given five borrows and five returns per book, each with the version it committed, shuffled across threads
+        int books = 200;
+        AvailabilityIndex concurrent = new AvailabilityIndex();
+        List<long[]> changes = new ArrayList<>();
+        for (long id = 1; id <= books; id++) {
+            int copies = (int) (id % 3);
+            concurrent.index(book(id, copies));
+            long version = 0;
+            for (int i = 0; i < 5; i++) {
+                changes.add(new long[]{id, copies + 1, ++version});
+                changes.add(new long[]{id, copies, ++version});
+            }
+        }
+        Collections.shuffle(changes, new Random(7));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int first = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = first; i < changes.size(); i += 8) {
+                    long[] change = changes.get(i);
+                    concurrent.availableCopiesChanged(change[0], (int) change[1], change[2]);
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        for (long id = 1; id <= books; id++) {
+            assertThat(concurrent.isAvailable(id)).as("book %d", id).isEqualTo(id % 3 > 0);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.testdata.BookTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Bm25BookIndex Tests")
+class Bm25BookIndexTest {
+
+    private Bm25BookIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new Bm25BookIndex();
+        index.index(book(1L, "The Hobbit", "J.R.R. Tolkien", "Fantasy", "978-0-261-10221-7"));
+        index.index(book(2L, "The Lord of the Rings", "J.R.R. Tolkien", "Fantasy", "978-0-261-10320-7"));
+        index.index(book(3L, "A Guide to Tolkien's Fantasy Worlds", "Jane Critic", "Literary Criticism", "978-1-111-11111-1"));
+        index.index(book(4L, "Fantasy Fantasy Fantasy: An Anthology of Short Fantasy Stories for Readers", "Various", "Fantasy", "978-2-222-22222-2"));
+        index.index(book(5L, "Dune", "Frank Herbert", "Science Fiction", "978-0-441-17271-9"));
+    }
+
+    private Book book(Long id, String title, String author, String genre, String isbn) {
+        return BookTestDataBuilder.aBook().withId(id).withTitle(title).withAuthor(author)
+                .withGenre(genre).withIsbn(isbn).build();
+    }
+
+    @Test
+    @DisplayName("Should weight title hits above author and genre hits")
+    void shouldWeightTitleHitsAboveAuthorAndGenreHits() {
+        // When & Then
+        assertThat(index.search("tolkien", 10)).containsExactly(3L, 1L, 2L);
+        assertThat(index.search("hobbit fantasy", 10).get(0)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should favour a short title over a long one with the same term")
+    void shouldFavourShortTitleOverLongOne() {
+        // Given
+        Bm25BookIndex titles = new Bm25BookIndex();
+        titles.index(book(1L, "Dune and Other Stories from the Desert Planet", "Frank Herbert", "Science Fiction", null));
+        titles.index(book(2L, "Dune", "Frank Herbert", "Science Fiction", null));
+
+        // When & Then
+        assertThat(titles.search("dune", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Should find books by ISBN with or without hyphens")
+    void shouldFindBooksByIsbn() {
+        assertThat(index.search("9780441172719", 10)).containsExactly(5L);
+        assertThat(index.search("978-0-441-17271-9", 10)).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Should keep only the best hits up to the limit")
+    void shouldKeepOnlyBestHitsUpToLimit() {
+        // When & Then
+        assertThat(index.search("tolkien", 2)).containsExactly(3L, 1L);
+        assertThat(index.search("unknownword", 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals")
+    void shouldReflectUpdatesAndRemovals() {
+        // When
+        index.index(book(5L, "Dune Messiah", "Frank Herbert", "Science Fiction", "978-0-441-17269-6"));
+        index.remove(1L);
+
+        // Then
+        assertThat(index.search("messiah", 10)).containsExactly(5L);
+        assertThat(index.search("9780441172719", 10)).isEmpty();
+        assertThat(index.search("hobbit", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should break score ties by lower book id")
+    void shouldBreakScoreTiesByLowerBookId() {
+        // Given
+        Bm25BookIndex tied = new Bm25BookIndex();
+        for (long id = 10; id > 0; id--) {
+            tied.index(book(id, "Same Title", "Same Author", "Same", null));
+        }
+
+        // When & Then
+        assertThat(tied.search("same title", 3)).containsExactly(1L, 2L, 3L);
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.search;
+
+import com.library.dto.FacetCount;
+import com.library.entity.Book;
+import com.library.testdata.BookTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FacetIndex Tests")
+class FacetIndexTest {
+
+    private FacetIndex index;
+    private AvailabilityIndex availability;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex();
+        availability = new AvailabilityIndex();
+        ReflectionTestUtils.setField(index, "availabilityIndex", availability);
+        add(book(1L, "J.R.R. Tolkien", "Fantasy", 1937, 2));
+        add(book(2L, "J.R.R. Tolkien", "Fantasy", 1954, 0));
+        add(book(3L, "George Orwell", "Dystopian", 1949, 1));
+        add(book(4L, "Aldous Huxley", "Dystopian", 1932, 3));
+        add(book(5L, "Frank Herbert", "Science Fiction", 1965, 0));
+    }
+
+    private void add(Book book) {
+        index.index(book);
+        availability.index(book);
+    }
+
+    private Book book(Long id, String author, String genre, int year, int availableCopies) {
+        return BookTestDataBuilder.aBook().withId(id).withAuthor(author).withGenre(genre)
+                .withYearPublished(year).withAvailableCopies(availableCopies).build();
+    }
+
+    @Test
+    @DisplayName("Should count every facet over the whole catalogue without filters")
+    void shouldCountEveryFacetWithoutFilters() {
+        // When
+        FacetIndex.Result result = index.search(null, null, null, null, 0, 10, 10);
+
+        // Then
+        assertThat(result.total()).isEqualTo(5);
+        assertThat(result.bookIds()).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(result.facets().get(FacetIndex.GENRE)).containsExactly(
+                new FacetCount("Dystopian", 2), new FacetCount("Fantasy", 2), new FacetCount("Science Fiction", 1));
+        assertThat(result.facets().get(FacetIndex.DECADE)).containsExactly(
+                new FacetCount("1930", 2), new FacetCount("1940", 1), new FacetCount("1950", 1), new FacetCount("1960", 1));
+        assertThat(result.facets().get(FacetIndex.AVAILABILITY)).containsExactly(
+                new FacetCount("available", 3), new FacetCount("unavailable", 2));
+    }
+
+    @Test
+    @DisplayName("Should OR values within a facet and AND across facets")
+    void shouldCombineFilters() {
+        // When
+        FacetIndex.Result result = index.search(List.of("fantasy", "Dystopian"), null, List.of(1935), true, 0, 10, 10);
+
+        // Then
+        assertThat(result.bookIds()).containsExactly(1L, 4L);
+        assertThat(result.facets().get(FacetIndex.AUTHOR)).containsExactly(
+                new FacetCount("Aldous Huxley", 1), new FacetCount("J.R.R. Tolkien", 1));
+    }
+
+    @Test
+    @DisplayName("Should return no matches for an unknown value")
+    void shouldReturnNoMatchesForUnknownValue() {
+        // When
+        FacetIndex.Result result = index.search(List.of("Poetry"), null, null, null, 0, 10, 10);
+
+        // Then
+        assertThat(result.total()).isZero();
+        assertThat(result.facets().get(FacetIndex.GENRE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should page through matches and cap facet values")
+    void shouldPageAndCapFacetValues() {
+        // When
+        FacetIndex.Result result = index.search(null, null, null, null, 3, 10, 1);
+
+        // Then
+        assertThat(result.bookIds()).containsExactly(4L, 5L);
+        assertThat(result.facets().get(FacetIndex.AUTHOR)).containsExactly(new FacetCount("J.R.R. Tolkien", 2));
+    }
+
+    @Test
+    @DisplayName("Should follow copy count changes, updates and removals")
+    void shouldFollowChanges() {
+        // When
+        availability.availableCopiesChanged(5L, 1, 1L);
+        availability.availableCopiesChanged(3L, 0, 1L);
+        add(book(2L, "J.R.R. Tolkien", "Mythology", 1977, 1));
+        index.remove(4L);
+        availability.remove(4L);
+
+        // Then
+        assertThat(index.search(null, null, null, true, 0, 10, 10).bookIds()).containsExactly(1L, 2L, 5L);
+        assertThat(index.search(List.of("Fantasy"), null, null, null, 0, 10, 10).bookIds()).containsExactly(1L);
+        assertThat(index.search(List.of("Dystopian"), null, null, null, 0, 10, 10).bookIds()).containsExactly(3L);
+    }
+}
@@ -0,0 +1,141 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.testdata.BookTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FuzzyBookIndex Tests")
+class FuzzyBookIndexTest {
+
+    private FuzzyBookIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyBookIndex();
+        index.index(book(1L, "The Hobbit", "J.R.R. Tolkien"));
+        index.index(book(2L, "Nineteen Eighty-Four", "George Orwell"));
+        index.index(book(3L, "Animal Farm", "George Orwell"));
+        index.index(book(4L, "The Lord of the Rings", "J.R.R. Tolkien"));
+        index.index(book(5L, "Brave New World", "Aldous Huxley"));
+    }
+
+    private Book book(Long id, String title, String author) {
+        return BookTestDataBuilder.aBook().withId(id).withTitle(title).withAuthor(author).build();
+    }
+
+    @Test
+    @DisplayName("Should find authors despite misspellings")
+    void shouldFindAuthorsDespiteMisspellings() {
+        assertThat(index.search("Tolkein", 10)).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(index.search("Orwel", 10)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should rank by matched tokens and then by edit distance")
+    void shouldRankByMatchedTokensThenEditDistance() {
+        // When
+        List<Long> result = index.search("hobit tolkein", 10);
+
+        // Then
+        assertThat(result).containsExactly(1L, 4L);
+    }
+
+    @Test
+    @DisplayName("Should prefer exact matches over misspelt ones")
+    void shouldPreferExactMatches() {
+        // Given
+        index.index(book(6L, "World Atlas", "Cartographer"));
+        index.index(book(7L, "Word Games", "Puzzler"));
+
+        // When
+        List<Long> result = index.search("world", 10);
+
+        // Then
+        assertThat(result).startsWith(5L, 6L).contains(7L);
+    }
+
+    @Test
+    @DisplayName("Should respect the result limit")
+    void shouldRespectResultLimit() {
+        assertThat(index.search("george orwell", 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should follow book updates and deletions")
+    void shouldFollowBookUpdatesAndDeletions() {
+        // When
+        index.index(book(5L, "Island", "Aldous Huxley"));
+        index.remove(2L);
+
+        // Then
+        assertThat(index.search("brave", 10)).isEmpty();
+        assertThat(index.search("iland", 10)).containsExactly(5L);
+        assertThat(index.search("orwell", 10)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should report the edit distance of each trie match")
+    void shouldReportEditDistanceOfEachTrieMatch() {
+        // Given
+        LevenshteinTrie trie = new LevenshteinTrie();
+        trie.add("tolkien");
+        trie.add("orwell");
+        trie.add("sitting");
+        Map<String, Integer> matches = new HashMap<>();
+
+        // When
+        trie.search("tolkein", 2, matches::put);
+        trie.search("orwel", 1, matches::put);
+        trie.search("kitten", 2, matches::put);
+
+        // Then
+        assertThat(matches).containsOnly(entry("tolkien", 2), entry("orwell", 1));
+    }
+
+    @Test
+    @DisplayName("Should drop a removed term from the trie and keep terms sharing its prefix")
+    void shouldDropRemovedTermAndKeepSharedPrefixes() {
+        // Given
+        LevenshteinTrie trie = new LevenshteinTrie();
+        trie.add("hobbit");
+        trie.add("hobbits");
+        trie.add("hobby");
+        Map<String, Integer> matches = new HashMap<>();
+
+        // When
+        trie.remove("hobbits");
+        trie.remove("hobbit");
+        trie.remove("missing");
+        trie.search("hobbit", 2, matches::put);
+
+        // Then
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(matches).containsOnly(entry("hobby", 2));
+    }
+
+    @Test
+    @DisplayName("Should remove terms no book holds any more")
+    void shouldRemoveTermsNoBookHolds() {
+        // Given
+        FuzzyBookIndex withoutHuxley = new FuzzyBookIndex();
+        withoutHuxley.index(book(1L, "The Hobbit", "J.R.R. Tolkien"));
+        withoutHuxley.index(book(2L, "Nineteen Eighty-Four", "George Orwell"));
+        withoutHuxley.index(book(3L, "Animal Farm", "George Orwell"));
+        withoutHuxley.index(book(4L, "The Lord of the Rings", "J.R.R. Tolkien"));
+
+        // When
+        index.remove(5L);
+
+        // Then
+        assertThat(index.termCount()).isEqualTo(withoutHuxley.termCount());
+        assertThat(index.search("huxley", 10)).isEmpty();
+    }
+}
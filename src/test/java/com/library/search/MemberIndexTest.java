@@ -0,0 +1,123 @@
+package com.library.search;
+
+import com.library.entity.Member;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("MemberIndex Tests")
+class MemberIndexTest {
+
+    private MemberIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MemberIndex();
+        index.rebuild(List.of(
+                member(1L, "John Smith", "john.smith@example.com", "555-0101"),
+                member(2L, "Joanna Johnson", "jo@mail.org", "555-0202"),
+                member(3L, "Mary Major", "mary@example.com", null)));
+    }
+
+    private Member member(Long id, String name, String email, String phone) {
+        return MemberTestDataBuilder.aMember().withId(id).withName(name).withEmail(email).withPhone(phone).build();
+    }
+
+    private List<Integer> candidates(String term) {
+        RoaringBitmap bitmap = index.candidates(term);
+        return bitmap == null ? null : List.of(bitmap.stream().boxed().toArray(Integer[]::new));
+    }
+
+    @Test
+    @DisplayName("Should find members by a prefix or substring of any field, ignoring case")
+    void shouldFindMembersBySubstringOfAnyField() {
+        assertThat(candidates("JOHN")).containsExactly(1, 2);
+        assertThat(candidates("smi")).containsExactly(1);
+        assertThat(candidates("example.com")).containsExactly(1, 3);
+        assertThat(candidates("0202")).containsExactly(2);
+        assertThat(candidates("xyz")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave terms too short to narrow the search to the caller")
+    void shouldNotAnswerShortTerms() {
+        assertThat(candidates("jo")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should not answer before it has been built")
+    void shouldNotAnswerBeforeBuilt() {
+        assertThat(new MemberIndex().candidates("john")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should follow saved and deleted members")
+    void shouldFollowSavedAndDeletedMembers() {
+        // When
+        index.index(member(4L, "Peter Johns", "peter@example.com", null));
+        index.remove(1L);
+
+        // Then
+        assertThat(candidates("john")).containsExactly(2, 4);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should count edited members until a rebuild drops their old trigrams")
+    void shouldCountEditsUntilRebuild() {
+        // Given
+        index.index(member(4L, "Peter Johns", "peter@example.com", null));
+        index.index(member(1L, "Jack Smith", "jack.smith@example.com", "555-0101"));
+        assertThat(index.editedSinceRebuild()).isEqualTo(1);
+        assertThat(candidates("john")).containsExactly(1, 2, 4);
+
+        // When
+        index.rebuild(List.of(
+                member(1L, "Jack Smith", "jack.smith@example.com", "555-0101"),
+                member(2L, "Joanna Johnson", "jo@mail.org", "555-0202"),
+                member(4L, "Peter Johns", "peter@example.com", null)));
+
+        // Then
+        assertThat(index.editedSinceRebuild()).isZero();
+        assertThat(candidates("john")).containsExactly(2, 4);
+    }
+
+    @Test
+    @DisplayName("Should keep members saved or deleted while a rebuild reads the table")
+    void shouldReplayChangesMadeDuringRebuild() {
+        // Given a table read that sees member 1 but not the later ones
+        List<Member> table = new ArrayList<>(List.of(member(1L, "John Smith", "john.smith@example.com", null)));
+        Iterable<Member> members = () -> {
+            Iterator<Member> rows = table.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return rows.hasNext();
+                }
+
+                @Override
+                public Member next() {
+                    Member next = rows.next();
+                    index.index(member(5L, "Johnny Cash", "cash@example.com", null));
+                    index.remove(2L);
+                    return next;
+                }
+            };
+        };
+
+        // When
+        index.rebuild(members);
+
+        // Then
+        assertThat(candidates("john")).containsExactly(1, 5);
+        assertThat(candidates("mary")).isEmpty();
+    }
+}
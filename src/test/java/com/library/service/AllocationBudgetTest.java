@@ -0,0 +1,154 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowingTransactionRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.NotificationRepository;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.library.diagnostics.AllocationAssertions.assertMaxAllocatedBytes;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Per-call heap allocation budgets for the hot service paths, measured after warmup so they hold
+ * what every call pays. Each budget is about twice what the path allocated when it was set; a
+ * change that breaks one should be fixed, or raise the budget knowingly. The embedded database
+ * runs on the calling thread, so paths that reach it include its allocation too.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Allocation Budget Tests")
+class AllocationBudgetTest {
+
+    private static final int WARMUP = 50;
+    private static final int BOOKS = 200;
+    private static final long BORROW_BUDGET = 512 * 1024;
+    private static final long RETURN_BUDGET = 640 * 1024;
+    private static final long CACHED_SEARCH_BUDGET = 16 * 1024;
+    private static final long SEARCH_BUDGET = 1024 * 1024;
+    private static final long GET_BY_ID_BUDGET = 40 * 1024;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private final List<Book> books = new ArrayList<>();
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(bookRepository.save(BookTestDataBuilder.aBook()
+                    .withId(null)
+                    .withTitle("Budget Book " + i)
+                    .withIsbn("978-9" + String.format("%09d", i))
+                    .withAvailableCopies(WARMUP + 10)
+                    .withTotalCopies(WARMUP + 10)
+                    .build()));
+        }
+        member = memberRepository.save(MemberTestDataBuilder.aMember().withId(null).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        borrowingRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+    }
+
+    private BorrowingTransaction borrowAndReturn() {
+        BorrowingTransaction borrowed = borrowingService.borrowBook(books.get(0).getBookId(), member.getMemberId());
+        return borrowingService.returnBook(borrowed.getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should borrow and return a book within their allocation budgets")
+    void shouldBorrowAndReturnWithinBudget() {
+        // Given
+        for (int i = 0; i < WARMUP; i++) {
+            borrowAndReturn();
+        }
+
+        // When
+        BorrowingTransaction borrowed = assertMaxAllocatedBytes(BORROW_BUDGET,
+                () -> borrowingService.borrowBook(books.get(0).getBookId(), member.getMemberId()));
+        BorrowingTransaction returned = assertMaxAllocatedBytes(RETURN_BUDGET,
+                () -> borrowingService.returnBook(borrowed.getTransactionId()));
+
+        // Then
+        assertThat(returned.getStatus()).isEqualTo(BorrowingTransaction.TransactionStatus.RETURNED);
+    }
+
+    @Test
+    @DisplayName("Should search books and members within their allocation budgets, cached or loaded")
+    void shouldSearchWithinBudget() {
+        // Given
+        for (int i = 0; i < WARMUP; i++) {
+            bookService.searchBooks("budget book " + i);
+            memberService.searchMembers("member " + i);
+        }
+
+        // When
+        List<Book> cached = assertMaxAllocatedBytes(CACHED_SEARCH_BUDGET, () -> bookService.searchBooks("budget book 17"));
+        assertMaxAllocatedBytes(CACHED_SEARCH_BUDGET, () -> memberService.searchMembers("member 17"));
+        List<Book> loaded = assertMaxAllocatedBytes(SEARCH_BUDGET, () -> bookService.searchBooks("budget book 199"));
+        assertMaxAllocatedBytes(SEARCH_BUDGET, () -> memberService.searchMembers("member 199"));
+
+        // Then
+        assertThat(cached).extracting(Book::getTitle).contains("Budget Book 17");
+        assertThat(loaded).extracting(Book::getTitle).containsExactly("Budget Book 199");
+    }
+
+    @Test
+    @DisplayName("Should get a book and a member by ID within their allocation budgets")
+    void shouldGetByIdWithinBudget() {
+        // Given
+        for (int i = 0; i < WARMUP; i++) {
+            bookService.getBookById(books.get(i).getBookId());
+            memberService.getMemberById(member.getMemberId());
+        }
+
+        // When
+        Optional<Book> book = assertMaxAllocatedBytes(GET_BY_ID_BUDGET,
+                () -> bookService.getBookById(books.get(0).getBookId()));
+        Optional<Member> found = assertMaxAllocatedBytes(GET_BY_ID_BUDGET,
+                () -> memberService.getMemberById(member.getMemberId()));
+
+        // Then
+        assertThat(book).isPresent();
+        assertThat(found).isPresent();
+    }
+}
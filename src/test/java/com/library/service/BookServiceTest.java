@@ -1,8 +1,23 @@
 package com.library.service;
 
+import com.library.cache.BookCache;
+import com.library.cache.BookSearchCache;
+import com.library.dto.AutocompleteSuggestion;
+import com.library.dto.BookPage;
+import com.library.dto.FacetCount;
+import com.library.dto.FacetedSearchResult;
+import com.library.dto.RecommendedBook;
 import com.library.entity.Book;
+import com.library.entity.ChangeLogEntry;
+import com.library.recommendation.RecommendationEngine;
 import com.library.repository.BookRepository;
+import com.library.search.AutocompleteIndex;
+import com.library.search.AvailabilityIndex;
+import com.library.search.Bm25BookIndex;
+import com.library.search.FacetIndex;
+import com.library.search.FuzzyBookIndex;
 import com.library.testdata.BookTestDataBuilder;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,9 +26,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -27,6 +44,36 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private FuzzyBookIndex fuzzyBookIndex;
+
+    @Mock
+    private Bm25BookIndex bm25BookIndex;
+
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private FacetIndex facetIndex;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private BookCache bookCache;
+
+    @Mock
+    private BookSearchCache bookSearchCache;
+
+    @Mock
+    private RecommendationEngine recommendationEngine;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private BookService bookService;
 
@@ -43,6 +90,15 @@ class BookServiceTest {
                 .build();
     }
 
+    // The book as the persistence context holds it once refreshed after a copy update
+    private void refreshesTo(int availableCopies, long version) {
+        when(entityManager.getReference(Book.class, 1L)).thenReturn(BookTestDataBuilder.aBook()
+                .withId(1L)
+                .withAvailableCopies(availableCopies)
+                .withVersion(version)
+                .build());
+    }
+
     @Nested
     @DisplayName("Get All Books")
     class GetAllBooksTests {
@@ -152,6 +208,7 @@ class BookServiceTest {
             // Then
             assertThat(result.getTotalCopies()).isEqualTo(5);
             verify(bookRepository).save(testBook);
+            verify(changeFeedService).record(ChangeLogEntry.EntityType.BOOK, 1L, ChangeLogEntry.Operation.UPSERT);
         }
     }
 
@@ -165,7 +222,7 @@ class BookServiceTest {
             // Given
             String keyword = "Test";
             List<Book> expectedBooks = Arrays.asList(testBook);
-            when(bookRepository.searchBooks(keyword)).thenReturn(expectedBooks);
+            when(bookSearchCache.get(keyword)).thenReturn(expectedBooks);
 
             // When
             List<Book> result = bookService.searchBooks(keyword);
@@ -173,7 +230,7 @@ class BookServiceTest {
             // Then
             assertThat(result).hasSize(1);
             assertThat(result).containsExactly(testBook);
-            verify(bookRepository).searchBooks(keyword);
+            verify(bookSearchCache).get(keyword);
         }
 
         @Test
@@ -181,14 +238,99 @@ class BookServiceTest {
         void shouldReturnEmptyListWhenNoBooksMatchKeyword() {
             // Given
             String keyword = "NonExistent";
-            when(bookRepository.searchBooks(keyword)).thenReturn(Arrays.asList());
+            when(bookSearchCache.get(keyword)).thenReturn(Arrays.asList());
 
             // When
             List<Book> result = bookService.searchBooks(keyword);
 
             // Then
             assertThat(result).isEmpty();
-            verify(bookRepository).searchBooks(keyword);
+            verify(bookSearchCache).get(keyword);
+        }
+    }
+
+    @Nested
+    @DisplayName("Fuzzy Search Books")
+    class FuzzySearchBooksTests {
+
+        @Test
+        @DisplayName("Should return books in the order ranked by the fuzzy index")
+        void shouldReturnBooksInRankedOrder() {
+            // Given
+            Book otherBook = BookTestDataBuilder.aBook().withId(2L).withTitle("Other Book").build();
+            when(fuzzyBookIndex.search("tset", 10)).thenReturn(Arrays.asList(2L, 1L, 3L));
+            when(bookRepository.findAllById(Arrays.asList(2L, 1L, 3L))).thenReturn(Arrays.asList(testBook, otherBook));
+
+            // When
+            List<Book> result = bookService.searchBooksFuzzy("tset", 10);
+
+            // Then
+            assertThat(result).containsExactly(otherBook, testBook);
+            verify(bookRepository, never()).searchBooks(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Relevance Search Books")
+    class RelevanceSearchBooksTests {
+
+        @Test
+        @DisplayName("Should return books in BM25 order")
+        void shouldReturnBooksInBm25Order() {
+            // Given
+            Book otherBook = BookTestDataBuilder.aBook().withId(2L).withTitle("Other Book").build();
+            when(bm25BookIndex.search("test book", 5)).thenReturn(Arrays.asList(2L, 1L));
+            when(bookRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(testBook, otherBook));
+
+            // When
+            List<Book> result = bookService.searchBooksByRelevance("test book", 5);
+
+            // Then
+            assertThat(result).containsExactly(otherBook, testBook);
+            verifyNoInteractions(fuzzyBookIndex);
+        }
+    }
+
+    @Nested
+    @DisplayName("Autocomplete")
+    class AutocompleteTests {
+
+        @Test
+        @DisplayName("Should answer from the autocomplete index without touching the database")
+        void shouldAnswerFromAutocompleteIndex() {
+            // Given
+            List<AutocompleteSuggestion> suggestions = List.of(new AutocompleteSuggestion("Test Book", "TITLE", 1));
+            when(autocompleteIndex.suggest("tes", 5)).thenReturn(suggestions);
+
+            // When
+            List<AutocompleteSuggestion> result = bookService.autocomplete("tes", 5);
+
+            // Then
+            assertThat(result).isEqualTo(suggestions);
+            verifyNoInteractions(bookRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Facet Search")
+    class FacetSearchTests {
+
+        @Test
+        @DisplayName("Should hydrate the page of matching books from the facet index")
+        void shouldHydratePageFromFacetIndex() {
+            // Given
+            Map<String, List<FacetCount>> facets = Map.of(FacetIndex.GENRE, List.of(new FacetCount("Fiction", 1)));
+            when(facetIndex.search(List.of("Fiction"), null, null, true, 0, 20, 10))
+                    .thenReturn(new FacetIndex.Result(1, List.of(1L), facets));
+            when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(testBook));
+
+            // When
+            FacetedSearchResult result = bookService.searchByFacets(List.of("Fiction"), null, null, true, 0, 20, 10);
+
+            // Then
+            assertThat(result.getTotal()).isEqualTo(1);
+            assertThat(result.getBooks()).containsExactly(testBook);
+            assertThat(result.getFacets()).isEqualTo(facets);
         }
     }
 
@@ -247,50 +389,56 @@ class BookServiceTest {
     class DecreaseAvailableCopiesTests {
 
         @Test
-        @DisplayName("Should decrease available copies when book exists and has available copies")
-        void shouldDecreaseAvailableCopiesWhenBookExistsAndHasAvailableCopies() {
+        @DisplayName("Should take a copy with a single conditional update")
+        void shouldTakeCopyWithSingleConditionalUpdate() {
             // Given
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+            when(bookRepository.decrementAvailableCopies(1L)).thenReturn(1);
+            refreshesTo(4, 7L);
 
             // When
-            bookService.decreaseAvailableCopies(1L);
+            boolean result = bookService.decreaseAvailableCopies(1L);
 
             // Then
-            assertThat(testBook.getAvailableCopies()).isEqualTo(4);
-            verify(bookRepository).findById(1L);
-            verify(bookRepository).save(testBook);
+            assertThat(result).isTrue();
+            verify(bookRepository).decrementAvailableCopies(1L);
+            verify(bookRepository, never()).findById(any());
+            verify(bookRepository, never()).save(any());
         }
 
         @Test
-        @DisplayName("Should not decrease available copies when book has no available copies")
-        void shouldNotDecreaseAvailableCopiesWhenBookHasNoAvailableCopies() {
+        @DisplayName("Should tell the book indexes and cache about the lent copy")
+        void shouldTellBookIndexesAndCacheAboutLentCopy() {
             // Given
-            Book unavailableBook = BookTestDataBuilder.aBook()
-                    .withAvailableCopies(0)
-                    .build();
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(unavailableBook));
+            ReflectionTestUtils.setField(bookService, "bookIndexes", List.of(facetIndex, availabilityIndex));
+            when(bookRepository.decrementAvailableCopies(1L)).thenReturn(1);
+            refreshesTo(4, 7L);
 
             // When
             bookService.decreaseAvailableCopies(1L);
 
             // Then
-            assertThat(unavailableBook.getAvailableCopies()).isEqualTo(0);
-            verify(bookRepository).findById(1L);
-            verify(bookRepository, never()).save(any());
+            verify(entityManager).refresh(any(Book.class));
+            verify(facetIndex).availableCopiesChanged(1L, 4, 7L);
+            verify(availabilityIndex).availableCopiesChanged(1L, 4, 7L);
+            verify(bookCache).invalidate(1L);
+            verify(bookSearchCache, never()).invalidate(any(), any());
         }
 
         @Test
-        @DisplayName("Should not decrease available copies when book does not exist")
-        void shouldNotDecreaseAvailableCopiesWhenBookDoesNotExist() {
+        @DisplayName("Should report failure when no copy is left or the book does not exist")
+        void shouldReportFailureWhenNoCopyIsLeft() {
             // Given
-            when(bookRepository.findById(999L)).thenReturn(Optional.empty());
+            ReflectionTestUtils.setField(bookService, "bookIndexes", List.of(availabilityIndex));
+            when(bookRepository.decrementAvailableCopies(1L)).thenReturn(0);
 
             // When
-            bookService.decreaseAvailableCopies(999L);
+            boolean result = bookService.decreaseAvailableCopies(1L);
 
             // Then
-            verify(bookRepository).findById(999L);
-            verify(bookRepository, never()).save(any());
+            assertThat(result).isFalse();
+            verify(availabilityIndex, never()).availableCopiesChanged(any(), anyInt(), anyLong());
+            verify(bookCache, never()).invalidate(any());
+            verify(changeFeedService, never()).record(any(), any(), any());
         }
     }
 
@@ -299,32 +447,50 @@ class BookServiceTest {
     class IncreaseAvailableCopiesTests {
 
         @Test
-        @DisplayName("Should increase available copies when book exists")
-        void shouldIncreaseAvailableCopiesWhenBookExists() {
+        @DisplayName("Should increase available copies with a single atomic update")
+        void shouldIncreaseAvailableCopiesWithSingleAtomicUpdate() {
             // Given
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+            when(bookRepository.incrementAvailableCopies(1L)).thenReturn(1);
+            refreshesTo(6, 7L);
 
             // When
             bookService.increaseAvailableCopies(1L);
 
             // Then
-            assertThat(testBook.getAvailableCopies()).isEqualTo(6);
-            verify(bookRepository).findById(1L);
-            verify(bookRepository).save(testBook);
+            verify(bookRepository).incrementAvailableCopies(1L);
+            verify(bookRepository, never()).findById(any());
+            verify(bookRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should tell the book indexes about the returned copy")
+        void shouldTellBookIndexesAboutReturnedCopy() {
+            // Given
+            ReflectionTestUtils.setField(bookService, "bookIndexes", List.of(facetIndex));
+            when(bookRepository.incrementAvailableCopies(1L)).thenReturn(1);
+            refreshesTo(6, 7L);
+
+            // When
+            bookService.increaseAvailableCopies(1L);
+
+            // Then
+            verify(facetIndex).availableCopiesChanged(1L, 6, 7L);
+            verify(changeFeedService).record(ChangeLogEntry.EntityType.BOOK, 1L, ChangeLogEntry.Operation.UPSERT);
         }
 
         @Test
         @DisplayName("Should not increase available copies when book does not exist")
         void shouldNotIncreaseAvailableCopiesWhenBookDoesNotExist() {
             // Given
-            when(bookRepository.findById(999L)).thenReturn(Optional.empty());
+            when(bookRepository.incrementAvailableCopies(999L)).thenReturn(0);
 
             // When
             bookService.increaseAvailableCopies(999L);
 
             // Then
-            verify(bookRepository).findById(999L);
+            verify(bookRepository).incrementAvailableCopies(999L);
             verify(bookRepository, never()).save(any());
+            verify(changeFeedService, never()).record(any(), any(), any());
         }
     }
 
@@ -340,6 +506,7 @@ class BookServiceTest {
 
             // Then
             verify(bookRepository).deleteById(1L);
+            verify(changeFeedService).record(ChangeLogEntry.EntityType.BOOK, 1L, ChangeLogEntry.Operation.DELETE);
         }
     }
 
@@ -348,19 +515,44 @@ class BookServiceTest {
     class GetAvailableBooksTests {
 
         @Test
-        @DisplayName("Should return only available books")
-        void shouldReturnOnlyAvailableBooks() {
+        @DisplayName("Should page through the availability index and hydrate from the cache")
+        void shouldPageThroughAvailabilityIndex() {
             // Given
-            List<Book> availableBooks = Arrays.asList(testBook);
-            when(bookRepository.findByAvailableCopiesGreaterThan(0)).thenReturn(availableBooks);
+            when(availabilityIndex.page(20, 10)).thenReturn(new AvailabilityIndex.Page(21, List.of(1L)));
+            when(bookCache.getAll(List.of(1L))).thenReturn(List.of(testBook));
 
             // When
-            List<Book> result = bookService.getAvailableBooks();
+            BookPage result = bookService.getAvailableBooks(20, 10);
 
             // Then
-            assertThat(result).hasSize(1);
-            assertThat(result).containsExactly(testBook);
-            verify(bookRepository).findByAvailableCopiesGreaterThan(0);
+            assertThat(result.getTotal()).isEqualTo(21);
+            assertThat(result.getBooks()).containsExactly(testBook);
+            verify(bookRepository, never()).findByAvailableCopiesGreaterThan(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Get Recommendations")
+    class GetRecommendationsTests {
+
+        @Test
+        @DisplayName("Should hydrate similar books in order and skip deleted ones")
+        void shouldHydrateSimilarBooksInOrder() {
+            // Given
+            Book otherBook = BookTestDataBuilder.aBook().withId(2L).build();
+            when(recommendationEngine.similar(3L, 5)).thenReturn(List.of(
+                    new RecommendationEngine.Recommendation(2L, 0.8, 4),
+                    new RecommendationEngine.Recommendation(9L, 0.5, 2),
+                    new RecommendationEngine.Recommendation(1L, 0.2, 1)));
+            when(bookCache.getAll(List.of(2L, 9L, 1L))).thenReturn(List.of(testBook, otherBook));
+
+            // When
+            List<RecommendedBook> result = bookService.getRecommendations(3L, 5);
+
+            // Then
+            assertThat(result).containsExactly(
+                    new RecommendedBook(otherBook, 0.8, 4),
+                    new RecommendedBook(testBook, 0.2, 1));
         }
     }
 }
@@ -0,0 +1,120 @@
+package com.library.service;
+
+import com.library.dto.BorrowingHistoryEntry;
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Fine;
+import com.library.entity.Member;
+import com.library.repository.ArchivedBorrowingTransactionRepository;
+import com.library.repository.BorrowingTransactionRepository;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.BorrowingTransactionTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(BorrowingArchiveService.class)
+@TestPropertySource(properties = "library.archive.batch-size=2")
+@DisplayName("BorrowingArchiveService Tests")
+class BorrowingArchiveServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BorrowingArchiveService archiveService;
+
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+
+    @Autowired
+    private ArchivedBorrowingTransactionRepository archivedBorrowingRepository;
+
+    private Book book;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        book = entityManager.persistAndFlush(BookTestDataBuilder.aBook().withId(null).build());
+        member = entityManager.persistAndFlush(MemberTestDataBuilder.aMember().withId(null).build());
+    }
+
+    private BorrowingTransaction persistTransaction(LocalDate returnDate) {
+        BorrowingTransactionTestDataBuilder builder = BorrowingTransactionTestDataBuilder.aTransaction()
+                .withId(null)
+                .withBook(book)
+                .withMember(member);
+        if (returnDate != null) {
+            builder.withStatus(BorrowingTransaction.TransactionStatus.RETURNED).withReturnDate(returnDate);
+        }
+        return entityManager.persistAndFlush(builder.build());
+    }
+
+    @Test
+    @DisplayName("Should move old returned transactions to the archive in batches")
+    void shouldMoveOldReturnedTransactionsToArchiveInBatches() {
+        // Given
+        LocalDate cutoff = LocalDate.of(2024, 6, 1);
+        BorrowingTransaction old1 = persistTransaction(LocalDate.of(2024, 1, 20));
+        BorrowingTransaction old2 = persistTransaction(LocalDate.of(2024, 2, 20));
+        BorrowingTransaction old3 = persistTransaction(LocalDate.of(2024, 3, 20));
+        BorrowingTransaction recent = persistTransaction(LocalDate.of(2024, 7, 1));
+        BorrowingTransaction active = persistTransaction(null);
+        entityManager.clear();
+
+        // When
+        int archived = archiveService.archiveReturnedBefore(cutoff);
+
+        // Then
+        assertThat(archived).isEqualTo(3);
+        assertThat(borrowingRepository.findAll())
+                .extracting(BorrowingTransaction::getTransactionId)
+                .containsExactlyInAnyOrder(recent.getTransactionId(), active.getTransactionId());
+        List<BorrowingHistoryEntry> archive = archivedBorrowingRepository.findMemberHistoryPage(
+                member.getMemberId(), LocalDate.of(2024, 1, 1), cutoff, cutoff, Long.MAX_VALUE, PageRequest.of(0, 10));
+        assertThat(archive)
+                .extracting(BorrowingHistoryEntry::getTransactionId)
+                .containsExactlyInAnyOrder(old1.getTransactionId(), old2.getTransactionId(), old3.getTransactionId());
+        assertThat(archive).allSatisfy(entry -> {
+            assertThat(entry.getBookId()).isEqualTo(book.getBookId());
+            assertThat(entry.getStatus()).isEqualTo(BorrowingTransaction.TransactionStatus.RETURNED);
+            assertThat(entry.isArchived()).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("Should keep returned transactions that are referenced by a fine")
+    void shouldKeepReturnedTransactionsReferencedByFine() {
+        // Given
+        BorrowingTransaction fined = persistTransaction(LocalDate.of(2024, 1, 20));
+        Fine fine = new Fine();
+        fine.setMember(member);
+        fine.setTransaction(fined);
+        fine.setAmount(new BigDecimal("2.50"));
+        entityManager.persistAndFlush(fine);
+        entityManager.clear();
+
+        // When
+        int archived = archiveService.archiveReturnedBefore(LocalDate.of(2024, 6, 1));
+
+        // Then
+        assertThat(archived).isZero();
+        assertThat(borrowingRepository.findById(fined.getTransactionId())).isPresent();
+    }
+}
@@ -1,12 +1,22 @@
 package com.library.service;
 
+import com.library.cache.ActiveLoanCounter;
+import com.library.cache.BookCache;
+import com.library.dto.BorrowingHistoryEntry;
+import com.library.dto.BorrowingHistoryPage;
+import com.library.dto.TrendingBook;
 import com.library.entity.Book;
 import com.library.entity.BorrowingTransaction;
 import com.library.entity.Member;
+import com.library.recommendation.RecommendationEngine;
+import com.library.repository.ArchivedBorrowingTransactionRepository;
 import com.library.repository.BorrowingTransactionRepository;
 import com.library.testdata.BookTestDataBuilder;
 import com.library.testdata.BorrowingTransactionTestDataBuilder;
 import com.library.testdata.MemberTestDataBuilder;
+import com.library.trending.TrendingTracker;
+import com.library.trending.TrendingWindow;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,8 +26,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,12 +44,30 @@ class BorrowingServiceTest {
     @Mock
     private BorrowingTransactionRepository borrowingRepository;
 
+    @Mock
+    private ArchivedBorrowingTransactionRepository archivedBorrowingRepository;
+
     @Mock
     private BookService bookService;
 
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ActiveLoanCounter activeLoanCounter;
+
+    @Mock
+    private TrendingTracker trendingTracker;
+
+    @Mock
+    private RecommendationEngine recommendationEngine;
+
+    @Mock
+    private BookCache bookCache;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private BorrowingService borrowingService;
 
@@ -97,8 +127,11 @@ class BorrowingServiceTest {
             Long bookId = 1L;
             Long memberId = 1L;
             
-            when(borrowingRepository.countActiveBorrowingsByMember(any(Member.class))).thenReturn(2L);
+            when(activeLoanCounter.tryAcquire(memberId, 5)).thenReturn(true);
+            when(entityManager.find(Member.class, memberId)).thenReturn(testMember);
+            when(entityManager.find(Book.class, bookId)).thenReturn(testBook);
             when(bookService.isBookAvailable(bookId)).thenReturn(true);
+            when(bookService.decreaseAvailableCopies(bookId)).thenReturn(true);
             when(borrowingRepository.save(any(BorrowingTransaction.class))).thenReturn(testTransaction);
 
             // When
@@ -106,11 +139,14 @@ class BorrowingServiceTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(borrowingRepository).countActiveBorrowingsByMember(any(Member.class));
+            verify(activeLoanCounter).tryAcquire(memberId, 5);
+            verify(borrowingRepository, never()).countActiveBorrowingsByMember(any());
             verify(bookService).isBookAvailable(bookId);
             verify(bookService).decreaseAvailableCopies(bookId);
             verify(borrowingRepository).save(any(BorrowingTransaction.class));
-            verify(notificationService).sendBorrowingConfirmation(any(Member.class), any(Book.class));
+            verify(notificationService).sendBorrowingConfirmation(testMember, testBook);
+            verify(trendingTracker).record(bookId);
+            verify(recommendationEngine).record(memberId, bookId);
         }
 
         @Test
@@ -120,18 +156,33 @@ class BorrowingServiceTest {
             Long bookId = 1L;
             Long memberId = 1L;
             
-            when(borrowingRepository.countActiveBorrowingsByMember(any(Member.class))).thenReturn(5L);
+            when(activeLoanCounter.tryAcquire(memberId, 5)).thenReturn(false);
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.borrowBook(bookId, memberId))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Member has reached maximum borrowing limit");
 
-            verify(borrowingRepository).countActiveBorrowingsByMember(any(Member.class));
+            verify(activeLoanCounter).tryAcquire(memberId, 5);
             verify(bookService, never()).isBookAvailable(any());
             verify(borrowingRepository, never()).save(any());
         }
 
+        @Test
+        @DisplayName("Should throw exception when member does not exist")
+        void shouldThrowExceptionWhenMemberDoesNotExist() {
+            // Given
+            when(activeLoanCounter.tryAcquire(99L, 5)).thenReturn(true);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.borrowBook(1L, 99L))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Member not found");
+
+            verify(bookService, never()).decreaseAvailableCopies(any());
+            verify(borrowingRepository, never()).save(any());
+        }
+
         @Test
         @DisplayName("Should throw exception when book is not available")
         void shouldThrowExceptionWhenBookIsNotAvailable() {
@@ -139,7 +190,8 @@ class BorrowingServiceTest {
             Long bookId = 1L;
             Long memberId = 1L;
             
-            when(borrowingRepository.countActiveBorrowingsByMember(any(Member.class))).thenReturn(2L);
+            when(activeLoanCounter.tryAcquire(memberId, 5)).thenReturn(true);
+            when(entityManager.find(Member.class, memberId)).thenReturn(testMember);
             when(bookService.isBookAvailable(bookId)).thenReturn(false);
 
             // When & Then
@@ -147,10 +199,31 @@ class BorrowingServiceTest {
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Book is not available for borrowing");
 
-            verify(borrowingRepository).countActiveBorrowingsByMember(any(Member.class));
+            verify(activeLoanCounter).tryAcquire(memberId, 5);
             verify(bookService).isBookAvailable(bookId);
             verify(borrowingRepository, never()).save(any());
         }
+
+        @Test
+        @DisplayName("Should throw exception when another borrower takes the last copy first")
+        void shouldThrowExceptionWhenLastCopyIsTakenConcurrently() {
+            // Given
+            Long bookId = 1L;
+            Long memberId = 1L;
+            
+            when(activeLoanCounter.tryAcquire(memberId, 5)).thenReturn(true);
+            when(entityManager.find(Member.class, memberId)).thenReturn(testMember);
+            when(bookService.isBookAvailable(bookId)).thenReturn(true);
+            when(bookService.decreaseAvailableCopies(bookId)).thenReturn(false);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.borrowBook(bookId, memberId))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Book is not available for borrowing");
+
+            verify(borrowingRepository, never()).save(any());
+            verify(notificationService, never()).sendBorrowingConfirmation(any(), any());
+        }
     }
 
     @Nested
@@ -166,14 +239,9 @@ class BorrowingServiceTest {
                     .withId(transactionId)
                     .withStatus(BorrowingTransaction.TransactionStatus.BORROWED)
                     .build();
-            
-            BorrowingTransaction returnedTransaction = BorrowingTransactionTestDataBuilder.aTransaction()
-                    .withId(transactionId)
-                    .returned()
-                    .build();
 
-            when(borrowingRepository.findById(transactionId)).thenReturn(Optional.of(borrowedTransaction));
-            when(borrowingRepository.save(any(BorrowingTransaction.class))).thenReturn(returnedTransaction);
+            when(borrowingRepository.findByIdWithBookAndMember(transactionId)).thenReturn(Optional.of(borrowedTransaction));
+            when(borrowingRepository.markReturned(transactionId, LocalDate.now())).thenReturn(1);
 
             // When
             BorrowingTransaction result = borrowingService.returnBook(transactionId);
@@ -181,10 +249,13 @@ class BorrowingServiceTest {
             // Then
             assertThat(result.getStatus()).isEqualTo(BorrowingTransaction.TransactionStatus.RETURNED);
             assertThat(result.getReturnDate()).isEqualTo(LocalDate.now());
-            verify(borrowingRepository).findById(transactionId);
+            verify(borrowingRepository).findByIdWithBookAndMember(transactionId);
+            verify(borrowingRepository).markReturned(transactionId, LocalDate.now());
             verify(bookService).increaseAvailableCopies(borrowedTransaction.getBook().getBookId());
-            verify(borrowingRepository).save(any(BorrowingTransaction.class));
+            verify(borrowingRepository, never()).save(any());
             verify(notificationService).sendReturnConfirmation(any(Member.class), any(Book.class));
+            verify(activeLoanCounter).hold(borrowedTransaction.getMember().getMemberId());
+            verify(activeLoanCounter).release(borrowedTransaction.getMember().getMemberId());
         }
 
         @Test
@@ -192,15 +263,15 @@ class BorrowingServiceTest {
         void shouldThrowExceptionWhenTransactionNotFound() {
             // Given
             Long transactionId = 999L;
-            when(borrowingRepository.findById(transactionId)).thenReturn(Optional.empty());
+            when(borrowingRepository.findByIdWithBookAndMember(transactionId)).thenReturn(Optional.empty());
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.returnBook(transactionId))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Transaction not found");
 
-            verify(borrowingRepository).findById(transactionId);
-            verify(borrowingRepository, never()).save(any());
+            verify(borrowingRepository).findByIdWithBookAndMember(transactionId);
+            verify(borrowingRepository, never()).markReturned(any(), any());
         }
 
         @Test
@@ -213,15 +284,32 @@ class BorrowingServiceTest {
                     .returned()
                     .build();
 
-            when(borrowingRepository.findById(transactionId)).thenReturn(Optional.of(returnedTransaction));
+            when(borrowingRepository.findByIdWithBookAndMember(transactionId)).thenReturn(Optional.of(returnedTransaction));
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.returnBook(transactionId))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Book is already returned");
 
-            verify(borrowingRepository).findById(transactionId);
-            verify(borrowingRepository, never()).save(any());
+            verify(borrowingRepository).findByIdWithBookAndMember(transactionId);
+            verify(borrowingRepository, never()).markReturned(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when a concurrent return already won")
+        void shouldThrowExceptionWhenConcurrentReturnAlreadyWon() {
+            // Given
+            Long transactionId = 1L;
+            when(borrowingRepository.findByIdWithBookAndMember(transactionId)).thenReturn(Optional.of(testTransaction));
+            when(borrowingRepository.markReturned(transactionId, LocalDate.now())).thenReturn(0);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.returnBook(transactionId))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Book is already returned");
+
+            verify(bookService, never()).increaseAvailableCopies(any());
+            verify(notificationService, never()).sendReturnConfirmation(any(), any());
         }
     }
 
@@ -250,6 +338,84 @@ class BorrowingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Get Member History")
+    class GetMemberHistoryTests {
+
+        private BorrowingHistoryEntry entry(long id, LocalDate borrowDate, boolean archived) {
+            return new BorrowingHistoryEntry(id, 1L, 1L, borrowDate, borrowDate.plusDays(14), null,
+                    BorrowingTransaction.TransactionStatus.RETURNED, archived);
+        }
+
+        @Test
+        @DisplayName("Should merge active and archived pages newest first and return a cursor")
+        void shouldMergeActiveAndArchivedPagesNewestFirst() {
+            // Given
+            when(borrowingRepository.findMemberHistoryPage(eq(1L), any(), any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList(
+                            entry(9L, LocalDate.of(2024, 6, 1), false),
+                            entry(8L, LocalDate.of(2024, 3, 1), false)));
+            when(archivedBorrowingRepository.findMemberHistoryPage(eq(1L), any(), any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList(
+                            entry(5L, LocalDate.of(2024, 4, 1), true),
+                            entry(2L, LocalDate.of(2023, 1, 1), true)));
+
+            // When
+            BorrowingHistoryPage page = borrowingService.getMemberHistory(1L, null, null, null, 2);
+
+            // Then
+            assertThat(page.getEntries()).extracting(BorrowingHistoryEntry::getTransactionId).containsExactly(9L, 5L);
+            assertThat(page.getNextCursor()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should resume after the cursor position")
+        void shouldResumeAfterCursorPosition() {
+            // Given
+            when(borrowingRepository.findMemberHistoryPage(eq(1L), any(), any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList(
+                            entry(9L, LocalDate.of(2024, 6, 1), false),
+                            entry(8L, LocalDate.of(2024, 3, 1), false)));
+            when(archivedBorrowingRepository.findMemberHistoryPage(eq(1L), any(), any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList());
+            String cursor = borrowingService.getMemberHistory(1L, null, null, null, 1).getNextCursor();
+
+            // When
+            borrowingService.getMemberHistory(1L, null, null, cursor, 1);
+
+            // Then
+            verify(borrowingRepository).findMemberHistoryPage(eq(1L), any(), any(),
+                    eq(LocalDate.of(2024, 6, 1)), eq(9L), any());
+        }
+
+        @Test
+        @DisplayName("Should return no cursor on the last page")
+        void shouldReturnNoCursorOnLastPage() {
+            // Given
+            when(borrowingRepository.findMemberHistoryPage(eq(1L), any(), any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList(entry(9L, LocalDate.of(2024, 6, 1), false)));
+            when(archivedBorrowingRepository.findMemberHistoryPage(eq(1L), any(), any(), any(), any(), any()))
+                    .thenReturn(Arrays.asList());
+
+            // When
+            BorrowingHistoryPage page = borrowingService.getMemberHistory(1L, null, null, null, 20);
+
+            // Then
+            assertThat(page.getEntries()).hasSize(1);
+            assertThat(page.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor")
+        void shouldRejectMalformedCursor() {
+            assertThatThrownBy(() -> borrowingService.getMemberHistory(1L, null, null, "not-a-cursor", 20))
+                    .isInstanceOf(IllegalArgumentException.class);
+            String badDate = Base64.getUrlEncoder().encodeToString("2024-13-45:7".getBytes(StandardCharsets.UTF_8));
+            assertThatThrownBy(() -> borrowingService.getMemberHistory(1L, null, null, badDate, 20))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
     @Nested
     @DisplayName("Get Overdue Transactions")
     class GetOverdueTransactionsTests {
@@ -274,4 +440,38 @@ class BorrowingServiceTest {
             verify(borrowingRepository).findOverdueTransactions(any(LocalDate.class));
         }
     }
+
+    @Nested
+    @DisplayName("Get Trending Books")
+    class GetTrendingBooksTests {
+
+        @Test
+        @DisplayName("Should hydrate the tracker's top books in order and skip deleted ones")
+        void shouldHydrateTopBooksInOrder() {
+            // Given
+            Book otherBook = BookTestDataBuilder.aBook().withId(2L).build();
+            when(trendingTracker.top(TrendingWindow.DAY, 10)).thenReturn(List.of(
+                    new TrendingTracker.Entry(2L, 7, 0),
+                    new TrendingTracker.Entry(9L, 5, 0),
+                    new TrendingTracker.Entry(1L, 3, 1)));
+            when(bookCache.getAll(List.of(2L, 9L, 1L))).thenReturn(List.of(otherBook, testBook));
+
+            // When
+            List<TrendingBook> result = borrowingService.getTrendingBooks(TrendingWindow.DAY, 10);
+
+            // Then
+            assertThat(result).containsExactly(
+                    new TrendingBook(otherBook, 7, 0),
+                    new TrendingBook(testBook, 3, 1));
+        }
+
+        @Test
+        @DisplayName("Should reject an out-of-range list size")
+        void shouldRejectOutOfRangeSize() {
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.getTrendingBooks(TrendingWindow.HOUR, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(trendingTracker);
+        }
+    }
 }
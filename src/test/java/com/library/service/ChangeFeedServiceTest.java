@@ -0,0 +1,184 @@
+package com.library.service;
+
+import com.library.dto.ChangeFeedEntry;
+import com.library.dto.ChangeFeedPage;
+import com.library.entity.Book;
+import com.library.entity.ChangeLogEntry;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.ChangeLogRepository;
+import com.library.repository.MemberRepository;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChangeFeedService Tests")
+class ChangeFeedServiceTest {
+
+    @Mock
+    private ChangeLogRepository changeLogRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @InjectMocks
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        when(changeLogRepository.findMaxChangeId()).thenReturn(99L);
+        changeFeedService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private ChangeLogEntry change(long id, ChangeLogEntry.EntityType type, long entityId, ChangeLogEntry.Operation operation) {
+        return new ChangeLogEntry(id, type, entityId, operation, LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should return each entity once with its latest change and current state")
+    void shouldCollapseChangesPerEntity() {
+        // Given
+        Book book = BookTestDataBuilder.aBook().withId(1L).build();
+        Member member = MemberTestDataBuilder.aMember().withId(5L).build();
+        when(changeLogRepository.findPage(eq(10L), eq(100L), any(Pageable.class))).thenReturn(List.of(
+                change(11, ChangeLogEntry.EntityType.BOOK, 1, ChangeLogEntry.Operation.UPSERT),
+                change(12, ChangeLogEntry.EntityType.MEMBER, 5, ChangeLogEntry.Operation.UPSERT),
+                change(13, ChangeLogEntry.EntityType.BOOK, 2, ChangeLogEntry.Operation.UPSERT),
+                change(14, ChangeLogEntry.EntityType.BOOK, 1, ChangeLogEntry.Operation.UPSERT),
+                change(15, ChangeLogEntry.EntityType.BOOK, 3, ChangeLogEntry.Operation.DELETE)));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book));
+        when(memberRepository.findAllById(any())).thenReturn(List.of(member));
+
+        // When
+        ChangeFeedPage page = changeFeedService.getChanges(10, null, 10);
+
+        // Then book 2 was deleted after its change was logged
+        assertThat(page.getChanges()).containsExactly(
+                new ChangeFeedEntry(12, ChangeLogEntry.EntityType.MEMBER, 5L, ChangeLogEntry.Operation.UPSERT, member),
+                new ChangeFeedEntry(13, ChangeLogEntry.EntityType.BOOK, 2L, ChangeLogEntry.Operation.DELETE, null),
+                new ChangeFeedEntry(14, ChangeLogEntry.EntityType.BOOK, 1L, ChangeLogEntry.Operation.UPSERT, book),
+                new ChangeFeedEntry(15, ChangeLogEntry.EntityType.BOOK, 3L, ChangeLogEntry.Operation.DELETE, null));
+        assertThat(page.getNextToken()).isEqualTo(15);
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should page through the log and keep the token when nothing changed")
+    void shouldPageThroughLog() {
+        // Given
+        when(changeLogRepository.findPageByType(eq(ChangeLogEntry.EntityType.MEMBER), eq(0L), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(
+                        change(3, ChangeLogEntry.EntityType.MEMBER, 1, ChangeLogEntry.Operation.DELETE),
+                        change(4, ChangeLogEntry.EntityType.MEMBER, 2, ChangeLogEntry.Operation.DELETE),
+                        change(7, ChangeLogEntry.EntityType.MEMBER, 3, ChangeLogEntry.Operation.DELETE)));
+
+        // When
+        ChangeFeedPage first = changeFeedService.getChanges(0, ChangeLogEntry.EntityType.MEMBER, 2);
+        ChangeFeedPage empty = changeFeedService.getChanges(99, null, 2);
+
+        // Then
+        assertThat(first.getChanges()).extracting(ChangeFeedEntry::getId).containsExactly(1L, 2L);
+        assertThat(first.getNextToken()).isEqualTo(4);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(empty.getChanges()).isEmpty();
+        assertThat(empty.getNextToken()).isEqualTo(99);
+        verifyNoInteractions(bookRepository, memberRepository);
+    }
+
+    @Test
+    @DisplayName("Should hold back changes from the oldest one still uncommitted")
+    void shouldStopBelowOpenChange() {
+        // Given change 100 stays open while change 101 commits
+        TransactionSynchronizationManager.initSynchronization();
+        changeFeedService.record(ChangeLogEntry.EntityType.BOOK, 1L, ChangeLogEntry.Operation.UPSERT);
+        List<TransactionSynchronization> open = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        changeFeedService.record(ChangeLogEntry.EntityType.BOOK, 2L, ChangeLogEntry.Operation.UPSERT);
+
+        // When
+        changeFeedService.getChanges(99, null, 10);
+        open.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        changeFeedService.getChanges(99, null, 10);
+
+        // Then
+        verify(changeLogRepository).findPage(eq(99L), eq(100L), any(Pageable.class));
+        verify(changeLogRepository).findPage(eq(99L), eq(102L), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should number changes after the highest logged one and release a change whose insert fails")
+    void shouldNumberChangesAndReleaseFailedInsert() {
+        // Given
+        doThrow(new IllegalStateException("insert failed")).when(changeLogRepository)
+                .insert(eq(100L), any(), any(), any(), any());
+
+        // When
+        assertThatThrownBy(() -> changeFeedService.record(ChangeLogEntry.EntityType.BOOK, 1L, ChangeLogEntry.Operation.UPSERT))
+                .isInstanceOf(IllegalStateException.class);
+        changeFeedService.record(ChangeLogEntry.EntityType.MEMBER, 2L, ChangeLogEntry.Operation.DELETE);
+        changeFeedService.getChanges(99, null, 10);
+
+        // Then
+        verify(changeLogRepository).insert(eq(101L), eq("MEMBER"), eq(2L), eq("DELETE"), any(LocalDateTime.class));
+        verify(changeLogRepository).findPage(eq(99L), eq(102L), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should move the collection version when a change starts and when it finishes")
+    void shouldMoveCollectionVersionAroundChange() {
+        // Given
+        String before = changeFeedService.collectionVersion(ChangeLogEntry.EntityType.BOOK);
+        String members = changeFeedService.collectionVersion(ChangeLogEntry.EntityType.MEMBER);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        changeFeedService.record(ChangeLogEntry.EntityType.BOOK, 1L, ChangeLogEntry.Operation.UPSERT);
+        String during = changeFeedService.collectionVersion(ChangeLogEntry.EntityType.BOOK);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        String after = changeFeedService.collectionVersion(ChangeLogEntry.EntityType.BOOK);
+
+        // Then
+        assertThat(List.of(before, during, after)).doesNotHaveDuplicates();
+        assertThat(changeFeedService.collectionVersion(ChangeLogEntry.EntityType.MEMBER)).isEqualTo(members);
+    }
+
+    @Test
+    @DisplayName("Should reject a negative token or a page size out of range")
+    void shouldRejectInvalidArguments() {
+        assertThatThrownBy(() -> changeFeedService.getChanges(-1, null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> changeFeedService.getChanges(0, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> changeFeedService.getChanges(0, null, ChangeFeedService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,179 @@
+package com.library.service;
+
+import com.library.dto.MemberDashboard;
+import com.library.entity.Book;
+import com.library.entity.Fine;
+import com.library.entity.Member;
+import com.library.entity.Notification;
+import com.library.repository.FineRepository;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.BorrowingTransactionTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MemberDashboardService Tests")
+class MemberDashboardServiceTest {
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private BorrowingService borrowingService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private FineRepository fineRepository;
+
+    @InjectMocks
+    private MemberDashboardService dashboardService;
+
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dashboardService, "dashboardExecutor", (Executor) Runnable::run);
+        member = MemberTestDataBuilder.aMember().withId(1L).build();
+    }
+
+    private Fine fine(String amount) {
+        Fine fine = new Fine();
+        fine.setMember(member);
+        fine.setAmount(new BigDecimal(amount));
+        return fine;
+    }
+
+    @Test
+    @DisplayName("Should assemble the member, loans, notifications and fines")
+    void shouldAssembleDashboard() {
+        // Given
+        Book book = BookTestDataBuilder.aBook().withId(7L).withTitle("Dune").build();
+        Notification notification = new Notification();
+        notification.setMessage("Welcome");
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member));
+        when(borrowingService.getActiveLoans(1L)).thenReturn(List.of(
+                BorrowingTransactionTestDataBuilder.aTransaction().withId(3L).withBook(book).withMember(member).build()));
+        when(notificationService.getRecentNotifications(1L, MemberDashboardService.RECENT_NOTIFICATIONS))
+                .thenReturn(List.of(notification));
+        when(notificationService.countUnreadNotifications(1L)).thenReturn(4L);
+        when(fineRepository.findByMemberAndStatus(any(Member.class), eq(Fine.FineStatus.PENDING)))
+                .thenReturn(List.of(fine("1.50"), fine("2.25")));
+
+        // When
+        Optional<MemberDashboard> result = dashboardService.getDashboard(1L);
+
+        // Then
+        assertThat(result).isPresent();
+        MemberDashboard dashboard = result.get();
+        assertThat(dashboard.getMember()).isEqualTo(member);
+        assertThat(dashboard.getActiveLoans()).singleElement()
+                .satisfies(loan -> assertThat(loan.getTitle()).isEqualTo("Dune"));
+        assertThat(dashboard.getRecentNotifications()).singleElement()
+                .satisfies(sent -> assertThat(sent.getMessage()).isEqualTo("Welcome"));
+        assertThat(dashboard.getUnreadNotifications()).isEqualTo(4);
+        assertThat(dashboard.getPendingFinesTotal()).isEqualByComparingTo("3.75");
+    }
+
+    @Test
+    @DisplayName("Should return empty when the member does not exist")
+    void shouldReturnEmptyWhenMemberMissing() {
+        // Given
+        when(memberService.getMemberById(99L)).thenReturn(Optional.empty());
+
+        // When
+        Optional<MemberDashboard> result = dashboardService.getDashboard(99L);
+
+        // Then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should pass on the failure of any sub-query")
+    void shouldPropagateSubQueryFailure() {
+        // Given
+        when(memberService.getMemberById(1L)).thenReturn(Optional.of(member));
+        when(notificationService.countUnreadNotifications(1L)).thenThrow(new IllegalStateException("database down"));
+
+        // When / Then
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database down");
+    }
+
+    @Test
+    @DisplayName("Should fail with a query timeout when a sub-query outlasts the timeout")
+    void shouldFailWithQueryTimeout() {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        ReflectionTestUtils.setField(dashboardService, "dashboardExecutor", executor);
+        ReflectionTestUtils.setField(dashboardService, "timeout", Duration.ofMillis(100));
+        when(memberService.getMemberById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return Optional.of(member);
+        });
+
+        try {
+            // When / Then
+            assertThatThrownBy(() -> dashboardService.getDashboard(1L))
+                    .isInstanceOf(QueryTimeoutException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should take about as long as the slowest sub-query")
+    void shouldRunSubQueriesConcurrently() throws Exception {
+        // Given every sub-query takes 300 ms
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        ReflectionTestUtils.setField(dashboardService, "dashboardExecutor", executor);
+        Answer<Object> slow = invocation -> {
+            Thread.sleep(300);
+            return invocation.getMethod().getReturnType() == long.class ? 0L
+                    : invocation.getMethod().getReturnType() == Optional.class ? Optional.of(member) : List.of();
+        };
+        when(memberService.getMemberById(1L)).thenAnswer(slow);
+        when(borrowingService.getActiveLoans(1L)).thenAnswer(slow);
+        when(notificationService.getRecentNotifications(eq(1L), anyInt())).thenAnswer(slow);
+        when(notificationService.countUnreadNotifications(1L)).thenAnswer(slow);
+        when(fineRepository.findByMemberAndStatus(any(Member.class), any())).thenAnswer(slow);
+
+        try {
+            // When
+            long start = System.nanoTime();
+            Optional<MemberDashboard> result = dashboardService.getDashboard(1L);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then well under the 1500 ms the five queries take one after another
+            assertThat(result).isPresent();
+            assertThat(elapsedMillis).isLessThan(1000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
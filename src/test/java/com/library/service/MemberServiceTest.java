@@ -1,7 +1,13 @@
 package com.library.service;
 
+import com.library.cache.ActiveLoanCounter;
+import com.library.cache.MemberCache;
+import com.library.cache.MemberSearchCache;
+import com.library.dto.BatchResult;
+import com.library.entity.ChangeLogEntry;
 import com.library.entity.Member;
 import com.library.repository.MemberRepository;
+import com.library.search.MemberIndex;
 import com.library.testdata.MemberTestDataBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,6 +32,21 @@ class MemberServiceTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private MemberCache memberCache;
+
+    @Mock
+    private MemberSearchCache memberSearchCache;
+
+    @Mock
+    private MemberIndex memberIndex;
+
+    @Mock
+    private ChangeFeedService changeFeedService;
+
+    @Mock
+    private ActiveLoanCounter activeLoanCounter;
+
     @InjectMocks
     private MemberService memberService;
 
@@ -126,6 +147,10 @@ class MemberServiceTest {
             // Then
             assertThat(result).isEqualTo(testMember);
             verify(memberRepository).save(testMember);
+            verify(memberCache).invalidate(1L);
+            verify(memberIndex).index(testMember);
+            verify(memberSearchCache).invalidate(1L, testMember);
+            verify(changeFeedService).record(ChangeLogEntry.EntityType.MEMBER, 1L, ChangeLogEntry.Operation.UPSERT);
         }
     }
 
@@ -165,6 +190,26 @@ class MemberServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Get Members By IDs")
+    class GetMembersByIdsTests {
+
+        @Test
+        @DisplayName("Should return cached members in request order and report missing IDs")
+        void shouldReturnMembersAndMissingIds() {
+            // Given
+            Member other = MemberTestDataBuilder.aMember().withId(2L).build();
+            when(memberCache.getAll(List.of(2L, 99L, 1L, 99L))).thenReturn(List.of(other, testMember));
+
+            // When
+            BatchResult<Member> result = memberService.getMembersByIds(List.of(2L, 99L, 1L, 99L));
+
+            // Then
+            assertThat(result.getItems()).containsExactly(other, testMember);
+            assertThat(result.getMissingIds()).containsExactly(99L);
+        }
+    }
+
     @Nested
     @DisplayName("Search Members")
     class SearchMembersTests {
@@ -175,7 +220,7 @@ class MemberServiceTest {
             // Given
             String name = "John";
             List<Member> expectedMembers = Arrays.asList(testMember);
-            when(memberRepository.findByNameContainingIgnoreCase(name)).thenReturn(expectedMembers);
+            when(memberSearchCache.get(name)).thenReturn(expectedMembers);
 
             // When
             List<Member> result = memberService.searchMembers(name);
@@ -183,7 +228,7 @@ class MemberServiceTest {
             // Then
             assertThat(result).hasSize(1);
             assertThat(result).containsExactly(testMember);
-            verify(memberRepository).findByNameContainingIgnoreCase(name);
+            verify(memberSearchCache).get(name);
         }
     }
 
@@ -221,6 +266,11 @@ class MemberServiceTest {
 
             // Then
             verify(memberRepository).deleteById(1L);
+            verify(memberCache).invalidate(1L);
+            verify(memberIndex).remove(1L);
+            verify(memberSearchCache).invalidate(1L, null);
+            verify(activeLoanCounter).invalidate(1L);
+            verify(changeFeedService).record(ChangeLogEntry.EntityType.MEMBER, 1L, ChangeLogEntry.Operation.DELETE);
         }
     }
 }
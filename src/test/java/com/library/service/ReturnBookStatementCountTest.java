@@ -0,0 +1,106 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Member;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowingTransactionRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.NotificationRepository;
+import com.library.testdata.BookTestDataBuilder;
+import com.library.testdata.BorrowingTransactionTestDataBuilder;
+import com.library.testdata.MemberTestDataBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.library.diagnostics.StatementCountAssertions.assertMaxStatements;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Return Book Statement Count Tests")
+class ReturnBookStatementCountTest {
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAll();
+        borrowingRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should return a book with one fetch-joined select, a loan count, two updates and two inserts")
+    void shouldReturnBookWithinStatementBudget() {
+        // Given
+        Book book = bookRepository.save(BookTestDataBuilder.aBook().withId(null).withAvailableCopies(2).build());
+        Member member = memberRepository.save(MemberTestDataBuilder.aMember().withId(null).build());
+        BorrowingTransaction transaction = borrowingRepository.save(BorrowingTransactionTestDataBuilder.aTransaction()
+                .withId(null)
+                .withBook(book)
+                .withMember(member)
+                .build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        borrowingService.returnBook(transaction.getTransactionId());
+
+        // Then
+        // select transaction + book + member, active loan count (member not cached yet), conditional status
+        // update, copy increment, book refresh, change-log insert, notification insert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(7);
+        // Only the refresh after the copy increment; nothing is loaded lazily
+        assertThat(statistics.getEntityFetchCount()).isEqualTo(1);
+        assertThat(bookRepository.findById(book.getBookId()).get().getAvailableCopies()).isEqualTo(3);
+        assertThat(borrowingRepository.findById(transaction.getTransactionId()).get().getStatus())
+                .isEqualTo(BorrowingTransaction.TransactionStatus.RETURNED);
+        assertThat(notificationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should borrow a book within its statement budget")
+    void shouldBorrowBookWithinStatementBudget() {
+        // Given
+        Book book = bookRepository.save(BookTestDataBuilder.aBook().withId(null).withAvailableCopies(2).build());
+        Member member = memberRepository.save(MemberTestDataBuilder.aMember().withId(null).build());
+
+        // When
+        // select book, copy decrement, book refresh, active loan count (first borrow of the member),
+        // select member, transaction insert, change-log insert, notification insert
+        BorrowingTransaction transaction = assertMaxStatements(8,
+                () -> borrowingService.borrowBook(book.getBookId(), member.getMemberId()));
+
+        // Then
+        assertThat(transaction.getStatus()).isEqualTo(BorrowingTransaction.TransactionStatus.BORROWED);
+        assertThat(transaction.getBook().getAvailableCopies()).isEqualTo(1);
+        assertThat(transaction.getBook().getVersion()).isEqualTo(bookRepository.findVersionById(book.getBookId()).get());
+    }
+}
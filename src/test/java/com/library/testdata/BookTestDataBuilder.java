@@ -11,6 +11,7 @@ public class BookTestDataBuilder {
     private Integer yearPublished = 2024;
     private Integer availableCopies = 5;
     private Integer totalCopies = 5;
+    private Long version;
     
     public static BookTestDataBuilder aBook() {
         return new BookTestDataBuilder();
@@ -61,7 +62,12 @@ public class BookTestDataBuilder {
         return this;
     }
     
+    public BookTestDataBuilder withVersion(Long version) {
+        this.version = version;
+        return this;
+    }
+    
     public Book build() {
-        return new Book(bookId, title, author, genre, isbn, yearPublished, availableCopies, totalCopies);
+        return new Book(bookId, title, author, genre, isbn, yearPublished, availableCopies, totalCopies, version);
     }
 }
@@ -0,0 +1,65 @@
+package com.library.testdata;
+
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Fine;
+import com.library.entity.Member;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class FineTestDataBuilder {
+    private Long fineId = 1L;
+    private Member member = MemberTestDataBuilder.aMember().build();
+    private BorrowingTransaction transaction = null;
+    private BigDecimal amount = new BigDecimal("2.50");
+    private Fine.FineStatus status = Fine.FineStatus.PENDING;
+    private LocalDateTime transactionDate = LocalDateTime.of(2024, 1, 30, 10, 0);
+    private String reason = "Late return";
+    
+    public static FineTestDataBuilder aFine() {
+        return new FineTestDataBuilder();
+    }
+    
+    public FineTestDataBuilder withId(Long fineId) {
+        this.fineId = fineId;
+        return this;
+    }
+    
+    public FineTestDataBuilder withMember(Member member) {
+        this.member = member;
+        return this;
+    }
+    
+    public FineTestDataBuilder withTransaction(BorrowingTransaction transaction) {
+        this.transaction = transaction;
+        return this;
+    }
+    
+    public FineTestDataBuilder withAmount(BigDecimal amount) {
+        this.amount = amount;
+        return this;
+    }
+    
+    public FineTestDataBuilder withStatus(Fine.FineStatus status) {
+        this.status = status;
+        return this;
+    }
+    
+    public FineTestDataBuilder withTransactionDate(LocalDateTime transactionDate) {
+        this.transactionDate = transactionDate;
+        return this;
+    }
+    
+    public FineTestDataBuilder withReason(String reason) {
+        this.reason = reason;
+        return this;
+    }
+    
+    public FineTestDataBuilder paid() {
+        this.status = Fine.FineStatus.PAID;
+        return this;
+    }
+    
+    public Fine build() {
+        return new Fine(fineId, member, transaction, amount, status, transactionDate, reason);
+    }
+}
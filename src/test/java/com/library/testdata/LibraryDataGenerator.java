@@ -0,0 +1,536 @@
+package com.library.testdata;
+
+import com.github.javafaker.Faker;
+import com.library.LibraryManagementApplication;
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Fine;
+import com.library.entity.Member;
+import com.library.entity.Notification;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeds an H2 library database at production scale: books, members, borrowing transactions, fines
+ * and notifications, built with the {@code *TestDataBuilder} classes and Faker and written in
+ * parallel through batched JDBC into a schema that already exists.
+ * <p>
+ * Borrowing follows Zipf distributions, so a few books and members account for most loans.
+ * Loans of the last two weeks may still be out, a share of older ones never came back
+ * ({@code overdueRate}), and a share of returned ones came back late and were fined
+ * ({@code lateReturnRate}). No member ends up with more than five loans out and no book with more
+ * loans out than copies.
+ * <p>
+ * Rows are generated in fixed-size chunks, each from its own seed, and carry explicit IDs, so the
+ * same seed and date give the same database whatever the thread count. From the command line:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.library.testdata.LibraryDataGenerator \
+ *     -Dexec.args="jdbc:h2:file:./data/librarydb 1000000 200000 5000000"
+ * </pre>
+ */
+public class LibraryDataGenerator {
+    
+    static final int MAX_ACTIVE_LOANS = 5;
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int LOAN_DAYS = 14;
+    private static final BigDecimal FINE_PER_DAY = new BigDecimal("0.50");
+    
+    private long seed = 42;
+    private int books = 10_000;
+    private int members = 2_000;
+    private int transactions = 50_000;
+    private double bookSkew = 1.0;
+    private double memberSkew = 0.8;
+    private double overdueRate = 0.04;
+    private double lateReturnRate = 0.12;
+    private int historyDays = 730;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private LocalDate today = LocalDate.now();
+    
+    private final ThreadLocal<Random> random = ThreadLocal.withInitial(Random::new);
+    private final ThreadLocal<Faker> faker = ThreadLocal.withInitial(() -> new Faker(Locale.ENGLISH, random.get()));
+    
+    public static LibraryDataGenerator aLibrary() {
+        return new LibraryDataGenerator();
+    }
+    
+    public LibraryDataGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    
+    public LibraryDataGenerator withBooks(int books) {
+        this.books = books;
+        return this;
+    }
+    
+    public LibraryDataGenerator withMembers(int members) {
+        this.members = members;
+        return this;
+    }
+    
+    public LibraryDataGenerator withTransactions(int transactions) {
+        this.transactions = transactions;
+        return this;
+    }
+    
+    /** Zipf exponent of book popularity; 0 is uniform, and larger values put more of the loans on fewer books. */
+    public LibraryDataGenerator withBookSkew(double bookSkew) {
+        this.bookSkew = bookSkew;
+        return this;
+    }
+    
+    public LibraryDataGenerator withMemberSkew(double memberSkew) {
+        this.memberSkew = memberSkew;
+        return this;
+    }
+    
+    public LibraryDataGenerator withOverdueRate(double overdueRate) {
+        this.overdueRate = overdueRate;
+        return this;
+    }
+    
+    public LibraryDataGenerator withLateReturnRate(double lateReturnRate) {
+        this.lateReturnRate = lateReturnRate;
+        return this;
+    }
+    
+    public LibraryDataGenerator withHistoryDays(int historyDays) {
+        this.historyDays = historyDays;
+        return this;
+    }
+    
+    public LibraryDataGenerator withThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+    
+    public LibraryDataGenerator withToday(LocalDate today) {
+        this.today = today;
+        return this;
+    }
+    
+    public record Summary(int books, int members, int transactions, int fines, int notifications, Duration took) {
+    }
+    
+    /** Adds the generated rows to the database; IDs start at 1, so the tables should be empty. */
+    public Summary generate(DataSource dataSource) {
+        long start = System.nanoTime();
+        int[] bookByRank = permutation(books, seed ^ 0x5DEECE66DL);
+        int[] memberByRank = permutation(members, seed ^ 0xB5AD4ECEDA1CE2A9L);
+        String[] titles = new String[books];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            boolean[] popular = new boolean[books];
+            for (int rank = 0; rank < Math.max(1, books / 100); rank++) {
+                popular[bookByRank[rank]] = true;
+            }
+            runChunks(executor, dataSource, books, (connection, from, to) -> insertBooks(connection, from, to, popular, titles));
+            runChunks(executor, dataSource, members, this::insertMembers);
+            double[] bookCdf = zipfCdf(books, bookSkew);
+            double[] memberCdf = zipfCdf(members, memberSkew);
+            runChunks(executor, dataSource, transactions, (connection, from, to) -> insertTransactions(
+                connection, from, to, bookByRank, bookCdf, memberByRank, memberCdf, titles));
+        } finally {
+            executor.shutdownNow();
+        }
+        settleLoans(dataSource);
+        return new Summary(books, members, transactions, count(dataSource, "fines"), count(dataSource, "notifications"),
+            Duration.ofNanos(System.nanoTime() - start));
+    }
+    
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: LibraryDataGenerator <jdbc-url> [books] [members] [transactions] [seed]");
+            System.exit(1);
+        }
+        LibraryDataGenerator generator = aLibrary();
+        if (args.length > 1) {
+            generator.withBooks(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            generator.withMembers(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.withTransactions(Integer.parseInt(args[3]));
+        }
+        if (args.length > 4) {
+            generator.withSeed(Long.parseLong(args[4]));
+        }
+        // The application creates the schema; its indexes and caches start empty and are not used,
+        // and multi-second batches are expected rather than slow queries to log
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + args[0],
+                    "--spring.jpa.hibernate.ddl-auto=create",
+                    "--spring.jpa.show-sql=false",
+                    "--library.diagnostics.slow-query-threshold=1h",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.library=WARN")) {
+            Summary summary = generator.generate(context.getBean(DataSource.class));
+            System.out.println(summary);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(Connection connection, int from, int to) throws SQLException;
+    }
+    
+    private void runChunks(ExecutorService executor, DataSource dataSource, int rows, ChunkWriter writer) {
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < rows; from += CHUNK_SIZE) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(rows, from + CHUNK_SIZE);
+            chunks.add(executor.submit(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.setAutoCommit(false);
+                    writer.write(connection, chunkFrom, chunkTo);
+                    connection.commit();
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Data generation failed", e.getCause());
+        }
+    }
+    
+    /** The thread's random stream, which its Faker also draws from, reseeded for the chunk so the thread running it does not matter. */
+    private Random randomFor(String table, int chunkStart) {
+        Random chunkRandom = random.get();
+        chunkRandom.setSeed(mix(seed, table.hashCode(), chunkStart));
+        return chunkRandom;
+    }
+    
+    private void insertBooks(Connection connection, int from, int to, boolean[] popular, String[] titles) throws SQLException {
+        Random random = randomFor("books", from);
+        Faker faker = this.faker.get();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO books (book_id, title, author, genre, isbn, year_published, available_copies, total_copies, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int i = from; i < to; i++) {
+                long id = i + 1;
+                // Popular titles are stocked deeper
+                int copies = 1 + random.nextInt(popular[i] ? 10 : 3);
+                Book book = BookTestDataBuilder.aBook()
+                    .withId(id)
+                    .withTitle(faker.book().title())
+                    .withAuthor(faker.book().author())
+                    .withGenre(faker.book().genre())
+                    .withIsbn(String.format("978-%010d", id))
+                    .withYearPublished(1900 + random.nextInt(today.getYear() - 1899))
+                    .withAvailableCopies(copies)
+                    .withTotalCopies(copies)
+                    .build();
+                titles[i] = book.getTitle();
+                insert.setLong(1, book.getBookId());
+                insert.setString(2, book.getTitle());
+                insert.setString(3, book.getAuthor());
+                insert.setString(4, book.getGenre());
+                insert.setString(5, book.getIsbn());
+                insert.setInt(6, book.getYearPublished());
+                insert.setInt(7, book.getAvailableCopies());
+                insert.setInt(8, book.getTotalCopies());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+    
+    private void insertMembers(Connection connection, int from, int to) throws SQLException {
+        Random random = randomFor("members", from);
+        Faker faker = this.faker.get();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO members (member_id, name, email, phone, address, membership_status, registration_date, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int i = from; i < to; i++) {
+                long id = i + 1;
+                String first = faker.name().firstName();
+                String last = faker.name().lastName();
+                double roll = random.nextDouble();
+                Member member = MemberTestDataBuilder.aMember()
+                    .withId(id)
+                    .withName(first + " " + last)
+                    .withEmail((first + "." + last).toLowerCase(Locale.ROOT).replaceAll("[^a-z.]", "") + "." + id + "@example.com")
+                    .withPhone(faker.phoneNumber().cellPhone())
+                    .withAddress(faker.address().fullAddress())
+                    .withStatus(roll < 0.90 ? Member.MembershipStatus.ACTIVE
+                        : roll < 0.97 ? Member.MembershipStatus.EXPIRED : Member.MembershipStatus.SUSPENDED)
+                    .withRegistrationDate(today.minusDays(historyDays + random.nextInt(5 * 365)))
+                    .build();
+                insert.setLong(1, member.getMemberId());
+                insert.setString(2, member.getName());
+                insert.setString(3, member.getEmail());
+                insert.setString(4, member.getPhone());
+                insert.setString(5, member.getAddress());
+                insert.setString(6, member.getMembershipStatus().name());
+                insert.setDate(7, Date.valueOf(member.getRegistrationDate()));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+    
+    private void insertTransactions(Connection connection, int from, int to, int[] bookByRank, double[] bookCdf,
+                                    int[] memberByRank, double[] memberCdf, String[] titles) throws SQLException {
+        Random random = randomFor("borrowing_transactions", from);
+        try (PreparedStatement loans = connection.prepareStatement(
+                "INSERT INTO borrowing_transactions (transaction_id, book_id, member_id, borrow_date, due_date, return_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement fines = connection.prepareStatement(
+                "INSERT INTO fines (fine_id, member_id, transaction_id, amount, status, transaction_date, reason) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement notifications = connection.prepareStatement(
+                "INSERT INTO notifications (notification_id, member_id, message, date_sent, type, is_read) " +
+                "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = from; i < to; i++) {
+                long id = i + 1;
+                int bookIndex = bookByRank[sample(bookCdf, random)];
+                Book book = BookTestDataBuilder.aBook().withId(bookIndex + 1L).withTitle(titles[bookIndex]).build();
+                Member member = MemberTestDataBuilder.aMember().withId(memberByRank[sample(memberCdf, random)] + 1L).build();
+                LocalDate borrowDate = today.minusDays(random.nextInt(historyDays));
+                LocalDate dueDate = borrowDate.plusDays(LOAN_DAYS);
+                long daysOut = ChronoUnit.DAYS.between(borrowDate, today);
+                LocalDate returnDate;
+                if (!dueDate.isBefore(today)) {
+                    // Still inside the loan period: the longer it has been out, the likelier it is back
+                    returnDate = random.nextDouble() < 0.7 * daysOut / LOAN_DAYS
+                        ? borrowDate.plusDays(random.nextInt((int) daysOut + 1)) : null;
+                } else if (random.nextDouble() < overdueRate) {
+                    returnDate = null;
+                } else if (random.nextDouble() < lateReturnRate) {
+                    long latest = ChronoUnit.DAYS.between(dueDate, today);
+                    returnDate = dueDate.plusDays(1 + random.nextInt((int) Math.min(30, latest)));
+                } else {
+                    returnDate = borrowDate.plusDays(random.nextInt(LOAN_DAYS + 1));
+                }
+                BorrowingTransaction loan = BorrowingTransactionTestDataBuilder.aTransaction()
+                    .withId(id)
+                    .withBook(book)
+                    .withMember(member)
+                    .withBorrowDate(borrowDate)
+                    .withDueDate(dueDate)
+                    .withReturnDate(returnDate)
+                    .withStatus(returnDate == null ? BorrowingTransaction.TransactionStatus.BORROWED
+                        : BorrowingTransaction.TransactionStatus.RETURNED)
+                    .build();
+                addLoan(loans, loan);
+                
+                // Notification IDs are derived from the loan's, so they too are independent of scheduling
+                addNotification(notifications, NotificationTestDataBuilder.aNotification()
+                    .withId(id * 3)
+                    .withMember(member)
+                    .withMessage(String.format("You have successfully borrowed '%s'. Due date: %s", book.getTitle(), dueDate))
+                    .withDateSent(borrowDate.atTime(9 + random.nextInt(10), random.nextInt(60)))
+                    .withType(Notification.NotificationType.GENERAL)
+                    .read()
+                    .build());
+                if (returnDate != null) {
+                    addNotification(notifications, NotificationTestDataBuilder.aNotification()
+                        .withId(id * 3 + 1)
+                        .withMember(member)
+                        .withMessage(String.format("You have successfully returned '%s'. Thank you!", book.getTitle()))
+                        .withDateSent(returnDate.atTime(9 + random.nextInt(10), random.nextInt(60)))
+                        .withType(Notification.NotificationType.GENERAL)
+                        .build());
+                }
+                LocalDate settled = returnDate != null ? returnDate : today;
+                long daysLate = ChronoUnit.DAYS.between(dueDate, settled);
+                if (daysLate > 0) {
+                    if (returnDate == null) {
+                        addNotification(notifications, NotificationTestDataBuilder.aNotification()
+                            .withId(id * 3 + 2)
+                            .withMember(member)
+                            .withMessage(String.format("Your book '%s' is %d days overdue. Please return it immediately to avoid additional fines.",
+                                book.getTitle(), daysLate))
+                            .withDateSent(today.atTime(8, 0))
+                            .withType(Notification.NotificationType.OVERDUE_NOTICE)
+                            .build());
+                    }
+                    // At most one fine per loan, so it can share the loan's ID
+                    FineTestDataBuilder fine = FineTestDataBuilder.aFine()
+                        .withId(id)
+                        .withMember(member)
+                        .withTransaction(loan)
+                        .withAmount(FINE_PER_DAY.multiply(BigDecimal.valueOf(Math.min(daysLate, 60))))
+                        .withTransactionDate(settled.atTime(12, 0))
+                        .withReason(daysLate + " days late");
+                    if (returnDate != null && random.nextDouble() < 0.8) {
+                        fine.paid();
+                    }
+                    addFine(fines, fine.build());
+                }
+            }
+            loans.executeBatch();
+            fines.executeBatch();
+            notifications.executeBatch();
+        }
+    }
+    
+    private static void addLoan(PreparedStatement insert, BorrowingTransaction loan) throws SQLException {
+        insert.setLong(1, loan.getTransactionId());
+        insert.setLong(2, loan.getBook().getBookId());
+        insert.setLong(3, loan.getMember().getMemberId());
+        insert.setDate(4, Date.valueOf(loan.getBorrowDate()));
+        insert.setDate(5, Date.valueOf(loan.getDueDate()));
+        insert.setDate(6, loan.getReturnDate() != null ? Date.valueOf(loan.getReturnDate()) : null);
+        insert.setString(7, loan.getStatus().name());
+        insert.addBatch();
+    }
+    
+    private static void addFine(PreparedStatement insert, Fine fine) throws SQLException {
+        insert.setLong(1, fine.getFineId());
+        insert.setLong(2, fine.getMember().getMemberId());
+        insert.setLong(3, fine.getTransaction().getTransactionId());
+        insert.setBigDecimal(4, fine.getAmount());
+        insert.setString(5, fine.getStatus().name());
+        insert.setTimestamp(6, Timestamp.valueOf(fine.getTransactionDate()));
+        insert.setString(7, fine.getReason());
+        insert.addBatch();
+    }
+    
+    private static void addNotification(PreparedStatement insert, Notification notification) throws SQLException {
+        insert.setLong(1, notification.getNotificationId());
+        insert.setLong(2, notification.getMember().getMemberId());
+        insert.setString(3, notification.getMessage());
+        insert.setTimestamp(4, Timestamp.valueOf(notification.getDateSent()));
+        insert.setString(5, notification.getType().name());
+        insert.setBoolean(6, notification.isRead());
+        insert.addBatch();
+    }
+    
+    /**
+     * Makes the generated loans consistent with the rules borrowing enforces, then moves the ID
+     * sequences past the explicit IDs. Loans beyond a member's fifth still out, oldest kept, are
+     * returned on their due date (or today) and lose any fine and overdue notice; books get enough
+     * copies for their loans out.
+     */
+    private void settleLoans(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            List<Long> excessLoans = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery("SELECT transaction_id FROM (" +
+                    "SELECT transaction_id, ROW_NUMBER() OVER (PARTITION BY member_id ORDER BY borrow_date, transaction_id) AS n " +
+                    "FROM borrowing_transactions WHERE status = 'BORROWED') WHERE n > " + MAX_ACTIVE_LOANS)) {
+                while (rows.next()) {
+                    excessLoans.add(rows.getLong(1));
+                }
+            }
+            try (PreparedStatement fine = connection.prepareStatement("DELETE FROM fines WHERE fine_id = ?");
+                 PreparedStatement notice = connection.prepareStatement("DELETE FROM notifications WHERE notification_id = ?");
+                 PreparedStatement loan = connection.prepareStatement("UPDATE borrowing_transactions " +
+                     "SET status = 'RETURNED', return_date = LEAST(due_date, ?) WHERE transaction_id = ?")) {
+                for (Long id : excessLoans) {
+                    fine.setLong(1, id);
+                    fine.addBatch();
+                    notice.setLong(1, id * 3 + 2);
+                    notice.addBatch();
+                    loan.setDate(1, Date.valueOf(today));
+                    loan.setLong(2, id);
+                    loan.addBatch();
+                }
+                fine.executeBatch();
+                notice.executeBatch();
+                loan.executeBatch();
+            }
+            statement.executeUpdate("MERGE INTO books b USING (" +
+                "SELECT book_id, COUNT(*) AS loans FROM borrowing_transactions WHERE status = 'BORROWED' GROUP BY book_id) l " +
+                "ON b.book_id = l.book_id " +
+                "WHEN MATCHED THEN UPDATE SET total_copies = GREATEST(b.total_copies, l.loans), " +
+                "available_copies = GREATEST(b.total_copies, l.loans) - l.loans");
+            restartIdentity(statement, "books", "book_id", books + 1L);
+            restartIdentity(statement, "members", "member_id", members + 1L);
+            restartIdentity(statement, "borrowing_transactions", "transaction_id", transactions + 1L);
+            restartIdentity(statement, "fines", "fine_id", transactions + 1L);
+            restartIdentity(statement, "notifications", "notification_id", transactions * 3L + 3);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Settling generated loans failed", e);
+        }
+    }
+    
+    private static int count(DataSource dataSource, String table) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rows.next();
+            return rows.getInt(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Counting " + table + " failed", e);
+        }
+    }
+    
+    private static void restartIdentity(Statement statement, String table, String column, long next) throws SQLException {
+        statement.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next);
+    }
+    
+    /** A seeded shuffle of 0..n-1, so the most popular books and members are not simply the first IDs. */
+    private static int[] permutation(int n, long seed) {
+        int[] order = new int[n];
+        Arrays.setAll(order, i -> i);
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+    
+    /** Cumulative Zipf probabilities over ranks 0..n-1 with the given exponent. */
+    static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+        return cdf;
+    }
+    
+    private static int sample(double[] cdf, Random random) {
+        int found = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(cdf.length - 1, found >= 0 ? found : -found - 1);
+    }
+    
+    // SplitMix64 finaliser over the inputs, so neighbouring chunks get unrelated seeds
+    private static long mix(long seed, int table, int chunk) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) table << 32) ^ chunk);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
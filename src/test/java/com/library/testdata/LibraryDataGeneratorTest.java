@@ -0,0 +1,147 @@
+package com.library.testdata;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:generatordb",
+        "library.diagnostics.slow-query-threshold=1h"})
+@DisplayName("LibraryDataGenerator Tests")
+class LibraryDataGeneratorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void tearDown() {
+        clear();
+    }
+
+    private void clear() {
+        for (String table : List.of("notifications", "fines", "borrowing_transactions", "books", "members")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    private LibraryDataGenerator library() {
+        return LibraryDataGenerator.aLibrary()
+                .withSeed(7)
+                .withBooks(1_000)
+                .withMembers(300)
+                .withTransactions(5_000)
+                .withToday(TODAY);
+    }
+
+    private long count(String sql) {
+        return jdbc.queryForObject(sql, Long.class);
+    }
+
+    private Map<String, List<Map<String, Object>>> snapshot() {
+        return Map.of(
+                "books", jdbc.queryForList("SELECT * FROM books ORDER BY book_id"),
+                "members", jdbc.queryForList("SELECT * FROM members ORDER BY member_id"),
+                "loans", jdbc.queryForList("SELECT * FROM borrowing_transactions ORDER BY transaction_id"),
+                "fines", jdbc.queryForList("SELECT * FROM fines ORDER BY fine_id"),
+                "notifications", jdbc.queryForList("SELECT * FROM notifications ORDER BY notification_id"));
+    }
+
+    @Test
+    @DisplayName("Should write the requested rows and leave the ID sequences past them")
+    void shouldGenerateRequestedVolumes() {
+        // When
+        LibraryDataGenerator.Summary summary = library().generate(dataSource);
+
+        // Then
+        assertThat(count("SELECT COUNT(*) FROM books")).isEqualTo(1_000);
+        assertThat(count("SELECT COUNT(*) FROM members")).isEqualTo(300);
+        assertThat(count("SELECT COUNT(*) FROM borrowing_transactions")).isEqualTo(5_000);
+        assertThat(count("SELECT COUNT(*) FROM fines")).isEqualTo(summary.fines()).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM notifications")).isEqualTo(summary.notifications())
+                .isGreaterThan(5_000);
+        Book added = bookRepository.save(BookTestDataBuilder.aBook().withId(null).build());
+        assertThat(added.getBookId()).isEqualTo(1_001L);
+    }
+
+    @Test
+    @DisplayName("Should generate the same rows from the same seed whatever the thread count")
+    void shouldBeDeterministic() {
+        // Given
+        library().withThreads(4).generate(dataSource);
+        Map<String, List<Map<String, Object>>> first = snapshot();
+        clear();
+
+        // When
+        library().withThreads(1).generate(dataSource);
+
+        // Then
+        assertThat(snapshot()).isEqualTo(first);
+        clear();
+        library().withSeed(8).generate(dataSource);
+        assertThat(snapshot().get("loans")).isNotEqualTo(first.get("loans"));
+    }
+
+    @Test
+    @DisplayName("Should concentrate loans on a few books, and spread them without skew")
+    void shouldSkewBorrowing() {
+        // Given
+        String topBooksShare = "SELECT SUM(loans) FROM (SELECT COUNT(*) AS loans FROM borrowing_transactions " +
+                "GROUP BY book_id ORDER BY loans DESC LIMIT 10)";
+
+        // When
+        library().generate(dataSource);
+        long skewed = count(topBooksShare);
+        clear();
+        library().withBookSkew(0).generate(dataSource);
+        long uniform = count(topBooksShare);
+
+        // Then the top 1% of books take over a quarter of loans with skew, a few percent without
+        assertThat(skewed).isGreaterThan(5_000 / 4);
+        assertThat(uniform).isLessThan(5_000 / 20);
+    }
+
+    @Test
+    @DisplayName("Should keep loans within member limits and book stock, with overdue loans and fines")
+    void shouldRespectBorrowingRules() {
+        // When
+        library().withOverdueRate(0.1).generate(dataSource);
+
+        // Then
+        assertThat(count("SELECT COALESCE(MAX(loans), 0) FROM (SELECT COUNT(*) AS loans FROM borrowing_transactions " +
+                "WHERE status = 'BORROWED' GROUP BY member_id)")).isLessThanOrEqualTo(LibraryDataGenerator.MAX_ACTIVE_LOANS);
+        assertThat(count("SELECT COUNT(*) FROM books b WHERE b.available_copies < 0 OR b.total_copies - b.available_copies <> " +
+                "(SELECT COUNT(*) FROM borrowing_transactions t WHERE t.book_id = b.book_id AND t.status = 'BORROWED')"))
+                .isZero();
+        assertThat(count("SELECT COUNT(*) FROM borrowing_transactions WHERE status = 'BORROWED' AND due_date < DATE '" + TODAY + "'"))
+                .isPositive();
+        assertThat(count("SELECT COUNT(*) FROM borrowing_transactions WHERE status = 'RETURNED' AND return_date IS NULL"))
+                .isZero();
+        assertThat(count("SELECT COUNT(*) FROM fines f JOIN borrowing_transactions t ON t.transaction_id = f.transaction_id " +
+                "WHERE COALESCE(t.return_date, DATE '" + TODAY + "') <= t.due_date OR f.member_id <> t.member_id"))
+                .isZero();
+    }
+}
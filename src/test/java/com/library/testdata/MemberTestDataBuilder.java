@@ -11,6 +11,7 @@ public class MemberTestDataBuilder {
     private String address = "123 Test St";
     private Member.MembershipStatus membershipStatus = Member.MembershipStatus.ACTIVE;
     private LocalDate registrationDate = LocalDate.of(2024, 1, 15);
+    private Long version;
     
     public static MemberTestDataBuilder aMember() {
         return new MemberTestDataBuilder();
@@ -51,6 +52,11 @@ public class MemberTestDataBuilder {
         return this;
     }
     
+    public MemberTestDataBuilder withVersion(Long version) {
+        this.version = version;
+        return this;
+    }
+    
     public MemberTestDataBuilder suspended() {
         this.membershipStatus = Member.MembershipStatus.SUSPENDED;
         return this;
@@ -62,6 +68,6 @@ public class MemberTestDataBuilder {
     }
     
     public Member build() {
-        return new Member(memberId, name, email, phone, address, membershipStatus, registrationDate);
+        return new Member(memberId, name, email, phone, address, membershipStatus, registrationDate, version);
     }
 }
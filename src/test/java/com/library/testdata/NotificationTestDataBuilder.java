@@ -0,0 +1,52 @@
+package com.library.testdata;
+
+import com.library.entity.Member;
+import com.library.entity.Notification;
+import java.time.LocalDateTime;
+
+public class NotificationTestDataBuilder {
+    private Long notificationId = 1L;
+    private Member member = MemberTestDataBuilder.aMember().build();
+    private String message = "Test notification";
+    private LocalDateTime dateSent = LocalDateTime.of(2024, 1, 15, 10, 0);
+    private Notification.NotificationType type = Notification.NotificationType.GENERAL;
+    private boolean isRead = false;
+    
+    public static NotificationTestDataBuilder aNotification() {
+        return new NotificationTestDataBuilder();
+    }
+    
+    public NotificationTestDataBuilder withId(Long notificationId) {
+        this.notificationId = notificationId;
+        return this;
+    }
+    
+    public NotificationTestDataBuilder withMember(Member member) {
+        this.member = member;
+        return this;
+    }
+    
+    public NotificationTestDataBuilder withMessage(String message) {
+        this.message = message;
+        return this;
+    }
+    
+    public NotificationTestDataBuilder withDateSent(LocalDateTime dateSent) {
+        this.dateSent = dateSent;
+        return this;
+    }
+    
+    public NotificationTestDataBuilder withType(Notification.NotificationType type) {
+        this.type = type;
+        return this;
+    }
+    
+    public NotificationTestDataBuilder read() {
+        this.isRead = true;
+        return this;
+    }
+    
+    public Notification build() {
+        return new Notification(notificationId, member, message, dateSent, type, isRead);
+    }
+}
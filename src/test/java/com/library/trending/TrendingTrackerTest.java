@@ -0,0 +1,139 @@
+package com.library.trending;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TrendingTracker Tests")
+class TrendingTrackerTest {
+
+    private static final long START = Duration.ofDays(30).toMillis();
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    private TrendingTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new TrendingTracker();
+        ReflectionTestUtils.setField(tracker, "countersPerBucket", 50);
+        tracker.init();
+    }
+
+    @Test
+    @DisplayName("Should rank exactly while every book fits in the counters")
+    void shouldRankExactlyWhileBooksFit() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            tracker.record(1L, START);
+        }
+        for (int i = 0; i < 3; i++) {
+            tracker.record(2L, START + MINUTE);
+        }
+        tracker.record(3L, START + 2 * MINUTE);
+
+        // When
+        List<TrendingTracker.Entry> top = tracker.top(TrendingWindow.HOUR, 2, START + 3 * MINUTE);
+
+        // Then
+        assertThat(top).containsExactly(new TrendingTracker.Entry(1L, 5, 0), new TrendingTracker.Entry(2L, 3, 0));
+    }
+
+    @Test
+    @DisplayName("Should drop borrows that have slid out of the window")
+    void shouldDropBorrowsOutsideWindow() {
+        // Given
+        tracker.record(1L, START);
+        tracker.record(1L, START);
+        tracker.record(2L, START + 70 * MINUTE);
+
+        // When
+        long later = START + 75 * MINUTE;
+
+        // Then
+        assertThat(tracker.top(TrendingWindow.HOUR, 10, later)).containsExactly(new TrendingTracker.Entry(2L, 1, 0));
+        assertThat(tracker.top(TrendingWindow.DAY, 10, later)).containsExactly(
+                new TrendingTracker.Entry(1L, 2, 0), new TrendingTracker.Entry(2L, 1, 0));
+        assertThat(tracker.top(TrendingWindow.WEEK, 10, START + Duration.ofDays(8).toMillis())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find the true heavy hitters of a skewed stream within the reported error")
+    void shouldMatchExactCountsWithinError() {
+        // Given a Zipf-like stream over 5000 books spread across a day, ten times more books than counters
+        ReflectionTestUtils.setField(tracker, "countersPerBucket", 500);
+        tracker.init();
+        Random random = new Random(11);
+        int books = 5000;
+        double[] cumulative = new double[books];
+        double sum = 0;
+        for (int rank = 0; rank < books; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        Map<Long, Long> exact = new HashMap<>();
+        long end = START + Duration.ofHours(20).toMillis();
+        for (long time = START; time < end; time += 500) {
+            double point = random.nextDouble() * sum;
+            int rank = 0;
+            while (cumulative[rank] < point) {
+                rank++;
+            }
+            long bookId = rank + 1;
+            exact.merge(bookId, 1L, Long::sum);
+            tracker.record(bookId, time);
+        }
+
+        // When
+        List<TrendingTracker.Entry> top = tracker.top(TrendingWindow.DAY, 10, end);
+
+        // Then every estimate brackets the exact count
+        for (TrendingTracker.Entry entry : top) {
+            long actual = exact.getOrDefault(entry.bookId(), 0L);
+            assertThat(actual).as("book %d", entry.bookId())
+                    .isBetween(entry.borrows() - entry.maxOverestimate(), entry.borrows());
+        }
+        // and the list is the exact top ten
+        List<Long> exactTop = new ArrayList<>(exact.keySet());
+        exactTop.sort((a, b) -> exact.get(a).equals(exact.get(b)) ? Long.compare(a, b) : Long.compare(exact.get(b), exact.get(a)));
+        assertThat(top.stream().map(TrendingTracker.Entry::bookId).toList()).isEqualTo(exactTop.subList(0, 10));
+    }
+
+    @Test
+    @DisplayName("Should keep the Space-Saving guarantee through evictions")
+    void shouldKeepSpaceSavingGuarantee() {
+        // Given
+        SpaceSaving summary = new SpaceSaving(4);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(3);
+
+        // When
+        for (int i = 0; i < 2000; i++) {
+            long item = random.nextInt(3) == 0 ? random.nextInt(20) : random.nextInt(3);
+            exact.merge(item, 1L, Long::sum);
+            summary.offer(item);
+        }
+
+        // Then
+        List<Long> held = new ArrayList<>();
+        summary.forEach((item, count, error) -> {
+            held.add(item);
+            assertThat(exact.get(item)).isBetween(count - error, count);
+        });
+        assertThat(held).hasSize(4).contains(0L, 1L, 2L);
+        exact.forEach((item, count) -> {
+            if (!held.contains(item)) {
+                assertThat(count).isLessThanOrEqualTo(summary.minCount());
+            }
+        });
+    }
+}